@@ -25,11 +25,21 @@ public class Run {
         
         Human p1 = new Human(Color.DARK);
         Player p2 = null;
+        boolean biasedPlayouts = false;
         
         if (opp == 1) {
             p2 = new Computer(Color.LIGHT);
         } else {
-            if (opp != 2) {
+            if (opp == 9) {
+                int limit = chooseTimeLimit();
+                AI ai = new AI(Color.LIGHT, opp, limit);
+                ai.setProgressiveBias(chooseProgressiveBias());
+                biasedPlayouts = chooseBiasedPlayouts();
+                p2 = ai;
+            } else if (opp == 5) {
+                int limit = chooseTimeLimit();
+                p2 = new AI(Color.LIGHT, opp, limit);
+            } else if (opp != 2) {
                 int limit = chooseDepthLimit();
                 p2 = new AI(Color.LIGHT, opp, limit);
             } else {
@@ -40,6 +50,7 @@ public class Run {
         if (p2 != null) {
             
             Othello engine = new Othello(size, p1, p2);
+            engine.setBiasedPlayouts(biasedPlayouts);
             
             Player winner = engine.play();
             Color loser = ((winner.color == Color.DARK) ? Color.LIGHT : Color.DARK);
@@ -78,14 +89,19 @@ public class Run {
             System.out.println("\t2. MINIMAX");
             System.out.println("\t3. H-MINIMAX");
             System.out.println("\t4. H-MINIMAX with alpha-beta pruning");
+            System.out.println("\t5. H-MINIMAX with alpha-beta pruning and iterative deepening");
+            System.out.println("\t6. H-MINIMAX with alpha-beta pruning on all cores");
+            System.out.println("\t7. H-MINIMAX with principal variation search");
+            System.out.println("\t8. H-MINIMAX with MTD(f)");
+            System.out.println("\t9. Monte Carlo Tree Search on all cores");
 
-            System.out.print("YOUR CHOICE [1, 2, 3, 4]: ");
+            System.out.print("YOUR CHOICE [1-9]: ");
 
             if (input.hasNextInt()) {
 
                 int choice = input.nextInt();
                 
-                if (choice == 1 || choice == 2 || choice == 3 || choice == 4) {
+                if (choice >= 1 && choice <= 9) {
                     return choice;
                 }
             }
@@ -109,6 +125,53 @@ public class Run {
         }
     }
 
+    public static int chooseTimeLimit() {
+        while (true) {
+            System.out.println("Please select how long the AI may think about each move, in milliseconds.");
+            System.out.println("The search keeps going until the time runs out.");
+            System.out.println("I recommend chosing a limit between 500 and 5000.");
+            System.out.print("TIME LIMIT: ");
+
+            if (input.hasNextInt()) {
+                return input.nextInt();
+            }
+
+            Utils.clear();
+        }
+    }
+
+    public static boolean chooseProgressiveBias() {
+        while (true) {
+            System.out.println("Should the heuristic guide which moves the tree search tries first?");
+            System.out.println("Without it the tree search learns only from its random playouts.");
+            System.out.print("PROGRESSIVE BIAS [y/n]: ");
+
+            String choice = input.next();
+
+            if (choice.equalsIgnoreCase("y") || choice.equalsIgnoreCase("n")) {
+                return choice.equalsIgnoreCase("y");
+            }
+
+            Utils.clear();
+        }
+    }
+
+    public static boolean chooseBiasedPlayouts() {
+        while (true) {
+            System.out.println("Should the random games the tree search plays out take corners when they can?");
+            System.out.println("They then also avoid the squares next to an empty corner.");
+            System.out.print("CORNER PLAYOUTS [y/n]: ");
+
+            String choice = input.next();
+
+            if (choice.equalsIgnoreCase("y") || choice.equalsIgnoreCase("n")) {
+                return choice.equalsIgnoreCase("y");
+            }
+
+            Utils.clear();
+        }
+    }
+
     public static void presentWinner(Player winner, int winCount, int losCount) {
 
         if (winner != null) {
@@ -0,0 +1,109 @@
+package othello.bench;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import othello.game.Board;
+import othello.game.Color;
+import othello.game.Othello;
+
+/**
+ * Move generation, flips and evaluation on the benchmark suite. Each operation
+ * covers every position of the suite once.
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-22-2021
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBench {
+
+    @Param({ "4", "6", "8" })
+    public int dim;
+
+    private Othello[] games;
+    private Board[] boards;
+    private Color[] players;                // Player to move in each position
+    private Point[][] moves;                // Legal moves of each position
+
+    @Setup
+    public void setup() {
+        games = Suite.games(dim);
+        boards = new Board[games.length];
+        players = new Color[games.length];
+        moves = new Point[games.length][];
+        for (int i = 0; i < games.length; i++) {
+            boards[i] = games[i].initialState();
+            players[i] = boards[i].whoseTurn();
+            moves[i] = boards[i].getAllPossibleMoves(players[i]).toArray(new Point[0]);
+        }
+    }
+
+    @Benchmark
+    public void getAllPossibleMoves(Blackhole bh) {
+        for (int i = 0; i < boards.length; i++) {
+            ArrayList<Point> m = boards[i].getAllPossibleMoves(players[i]);
+            bh.consume(m);
+        }
+    }
+
+    @Benchmark
+    public int validMove() {
+        int valid = 0;
+        for (int i = 0; i < boards.length; i++) {
+            for (int r = 0; r < dim; r++) {
+                for (int c = 0; c < dim; c++) {
+                    if (boards[i].validMove(players[i], r, c)) {
+                        valid++;
+                    }
+                }
+            }
+        }
+        return valid;
+    }
+
+    @Benchmark
+    public void reversedPoints(Blackhole bh) {
+        for (int i = 0; i < boards.length; i++) {
+            for (Point m : moves[i]) {
+                bh.consume(boards[i].reversedPoints(players[i], m.x, m.y));
+            }
+        }
+    }
+
+    @Benchmark
+    public void getNextBoard(Blackhole bh) {
+        for (int i = 0; i < boards.length; i++) {
+            for (Point m : moves[i]) {
+                bh.consume(boards[i].getNextBoard(m, players[i]));
+            }
+        }
+    }
+
+    @Benchmark
+    public int heuristic() {
+        int sum = 0;
+        for (int i = 0; i < games.length; i++) {
+            sum += games[i].heuristic(boards[i]);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,31 @@
+package othello.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the usual JMH command line, always adding the GC
+ * profiler so every result reports its allocation rate beside its ops/sec.
+ *
+ * <pre>
+ * java -jar bench/target/benchmarks.jar [JMH options]
+ * </pre>
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-22-2021
+ */
+public class Main {
+
+    public static void main(String[] args) throws Exception {
+
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(options).run();
+    }
+}
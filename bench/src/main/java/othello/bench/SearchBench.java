@@ -0,0 +1,69 @@
+package othello.bench;
+
+import java.awt.Point;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import othello.ai.algorithms.MinimaxAlphaBeta;
+import othello.ai.search.TranspositionTable;
+import othello.game.Board;
+import othello.game.Color;
+import othello.game.Othello;
+
+/**
+ * Full {@code MinimaxAlphaBeta} searches of the benchmark suite at a fixed
+ * depth. Every operation starts from an empty transposition table and fresh
+ * move ordering, so no search benefits from the one before it.
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-22-2021
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBench {
+
+    @Param({ "4", "6", "8" })
+    public int dim;
+
+    @Param({ "3", "5" })
+    public int depth;
+
+    private Othello[] games;
+    private TranspositionTable table;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        games = Suite.games(dim);
+        table = new TranspositionTable(18);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        table.clear();
+    }
+
+    @Benchmark
+    public void solve(Blackhole bh) {
+        for (Othello game : games) {
+            MinimaxAlphaBeta<Board, Point, Color> solver = new MinimaxAlphaBeta<>(game, depth, table);
+            bh.consume(solver.solve(game.initialState()));
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package othello.bench;
+
+import java.util.ArrayList;
+
+import othello.game.Othello;
+import othello.tools.Positions;
+
+/**
+ * The fixed positions every benchmark runs over: the start of the game and
+ * positions a few moves further on, reached by seeded random play so every
+ * run measures the same boards.
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-22-2021
+ */
+final class Suite {
+
+    private static final int[] OPENING_PLIES = { 0, 3, 6, 9 };     // Random plies played before each position
+    private static final long SEED = 20210222L;                    // Same positions on every run
+
+    private Suite() {}
+
+    /**
+     * @param dim       square dimension of the board
+     * @return          one game per position, whose current board is the position
+     */
+    static Othello[] games(int dim) {
+        ArrayList<Othello> games = Positions.random(dim, OPENING_PLIES, SEED);
+        return games.toArray(new Othello[0]);
+    }
+}
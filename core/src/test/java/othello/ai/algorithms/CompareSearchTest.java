@@ -0,0 +1,71 @@
+package othello.ai.algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Point;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+import othello.ai.search.TranspositionTable;
+import othello.game.Board;
+import othello.game.Color;
+import othello.game.Othello;
+import othello.tools.Positions;
+
+/**
+ * Checks that PVS and MTD(f) find the same best-move value as
+ * {@code MinimaxAlphaBeta} at a fixed depth on a fixed set of positions, and
+ * that PVS gets there visiting fewer states
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-17-2021
+ */
+public class CompareSearchTest {
+
+    private static final int DEPTH = 6;                                 // Depth every search goes to
+    private static final int[] DIMS = { 4, 6, 8 };                      // Board sizes to compare on
+    private static final int[] OPENING_PLIES = { 0, 3, 6, 10, 16, 24 }; // Random plies played before each position
+    private static final long SEED = 20210217L;                         // Same positions on every run
+
+    @Test
+    public void valuesAgreeWithAlphaBeta() {
+
+        long alphaBetaStates = 0;
+        long pvsStates = 0;
+
+        for (int dim : DIMS) {
+
+            ArrayList<Othello> positions = Positions.random(dim, OPENING_PLIES, SEED);
+
+            for (int i = 0; i < positions.size(); i++) {
+
+                Othello game = positions.get(i);
+                Board b = game.initialState();
+
+                if (b.isGameFinished() || !b.hasAnyMoves(b.whoseTurn())) {
+                    continue;
+                }
+
+                MinimaxAlphaBeta<Board, Point, Color> ab = new MinimaxAlphaBeta<>(game, DEPTH, new TranspositionTable(20));
+                PrincipalVariation<Board, Point, Color> pvs = new PrincipalVariation<>(game, DEPTH, new TranspositionTable(20));
+                MTDF<Board, Point, Color> mtdf = new MTDF<>(game, DEPTH, new TranspositionTable(20));
+
+                ab.solve(b);
+                pvs.solve(b);
+                mtdf.solve(b);
+
+                String position = dim + "x" + dim + " after " + OPENING_PLIES[i] + " plies";
+                assertEquals(ab.getBestValue(), pvs.getBestValue(), "PVS value, " + position);
+                assertEquals(ab.getBestValue(), mtdf.getBestValue(), "MTD(f) value, " + position);
+
+                alphaBetaStates += ab.getStatesVisited();
+                pvsStates += pvs.getStatesVisited();
+            }
+        }
+
+        assertTrue(pvsStates < alphaBetaStates,
+                "PVS visited " + pvsStates + " states, alpha-beta " + alphaBetaStates);
+    }
+}
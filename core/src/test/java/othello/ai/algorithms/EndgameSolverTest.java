@@ -0,0 +1,127 @@
+package othello.ai.algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import othello.ai.search.PrimitiveProblem;
+import othello.ai.search.TranspositionTable;
+import othello.game.Board;
+import othello.game.Color;
+import othello.game.Rules;
+import othello.game.exceptions.IllegalBoardDimensions;
+import othello.tools.Positions;
+
+/**
+ * Checks the endgame solver against a brute-force negamax that plays every
+ * line out to the end of the game. The solver scores a finished game with
+ * the empty squares counted for the winner, so the brute force must do the
+ * same; with plain disc counts the two disagree whenever a game ends with
+ * squares left empty.
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-24-2021
+ */
+public class EndgameSolverTest {
+
+    private static final int POSITIONS = 200;           // Positions per board size
+    private static final int MAX_EMPTIES_6 = 10;        // Most empty squares left on 6x6, to keep the brute force quick
+    private static final long SEED = 20210224L;         // Same positions on every run
+
+    @Test
+    public void valuesMatchBruteForceOn4x4() throws IllegalBoardDimensions {
+        check(4, 0);
+    }
+
+    @Test
+    public void valuesMatchBruteForceOn6x6() throws IllegalBoardDimensions {
+        check(6, 6 * 6 - 4 - MAX_EMPTIES_6);
+    }
+
+    /**
+     * Solve random positions of one board size and compare the value of the
+     * best move, and of the move chosen, with the brute force
+     *
+     * @param dim       board size
+     * @param minPlies  fewest random moves played before each position
+     */
+    private static void check(int dim, int minPlies) throws IllegalBoardDimensions {
+
+        Rules rules = Rules.forDimension(dim);
+        EndgameSolver solver = new EndgameSolver(new TranspositionTable(16));
+        Random rand = new Random(SEED);
+
+        for (Board b : positions(dim, minPlies, rand)) {
+
+            String position = dim + "x" + dim + " with " + b.getEmptyCount() + " empties";
+            int expected = negamax(rules, b);
+
+            Point move = solver.solve(b);
+            assertEquals(expected, solver.getBestValue(), position);
+
+            if (b.hasAnyMoves(b.whoseTurn())) {
+                assertTrue(b.validMove(b.whoseTurn(), move.x, move.y), "illegal move, " + position);
+                b.makeMove(move);
+                assertEquals(expected, -negamax(rules, b), "value of the move chosen, " + position);
+                b.undoMove();
+            } else {
+                assertNull(move, "move while passing, " + position);
+            }
+        }
+    }
+
+    /**
+     * @return          positions reached by random play that are not over yet
+     */
+    private static ArrayList<Board> positions(int dim, int minPlies, Random rand) throws IllegalBoardDimensions {
+
+        ArrayList<Board> boards = new ArrayList<>();
+        int maxPlies = dim * dim - 4;
+
+        while (boards.size() < POSITIONS) {
+            Board b = new Board(dim, Color.DARK);
+            Positions.playRandom(b, minPlies + rand.nextInt(maxPlies - minPlies), rand);
+            if (!b.isGameFinished()) {
+                boards.add(b);
+            }
+        }
+
+        return boards;
+    }
+
+    /**
+     * Plain negamax over every move, passes included, to the end of the game
+     *
+     * @param rules     rules of the game
+     * @param b         current position, left as it was
+     * @return          final disc differential for the player to move, with
+     *                  the empty squares counted for the winner
+     */
+    private static int negamax(Rules rules, Board b) {
+
+        if (rules.isTerminal(b)) {
+            Color me = b.whoseTurn();
+            Color other = (me == Color.DARK) ? Color.LIGHT : Color.DARK;
+            int diff = b.getPlayerPeices(me) - b.getPlayerPeices(other);
+            return (diff > 0) ? diff + b.getEmptyCount() : (diff < 0) ? diff - b.getEmptyCount() : 0;
+        }
+
+        int[] moves = new int[PrimitiveProblem.MAX_ACTIONS];
+        int n = rules.actions(b, moves);
+        int value = Integer.MIN_VALUE;
+
+        for (int i = 0; i < n; i++) {
+            rules.apply(b, moves[i]);
+            value = Math.max(value, -negamax(rules, b));
+            rules.undo(b);
+        }
+
+        return value;
+    }
+}
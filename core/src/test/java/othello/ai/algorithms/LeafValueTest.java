@@ -0,0 +1,176 @@
+package othello.ai.algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.awt.Point;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+import othello.ai.search.PrimitiveProblem;
+import othello.ai.search.TranspositionTable;
+import othello.game.Board;
+import othello.game.Color;
+import othello.game.Othello;
+import othello.game.Rules;
+import othello.game.exceptions.IllegalBoardDimensions;
+import othello.tools.Positions;
+
+/**
+ * Checks the values the searches find against a brute-force minimax that
+ * scores the depth-limit leaves with {@code Rules.heuristic} from the root
+ * player's side. The heuristic scores a state for the player to move, so at
+ * an odd depth a search that forgets to turn its sign maximises the
+ * opponent's evaluation instead.
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-24-2021
+ */
+public class LeafValueTest {
+
+    private static final int[] DEPTHS = { 1, 3 };                       // Odd depths, which end on the opponent's move
+    private static final int[] DIMS = { 4, 6, 8 };                      // Board sizes to compare on
+    private static final int[] OPENING_PLIES = { 0, 3, 6, 10 };         // Random plies played before each position
+    private static final long SEED = 20210224L;                         // Same positions on every run
+
+    @Test
+    public void hMinimaxPlaysTheBestMoveForTheRootPlayer() throws IllegalBoardDimensions {
+        for (Rules rules : allRules()) {
+            for (Board b : positions(rules.getDim())) {
+                for (int depth : DEPTHS) {
+                    Point move = new HMinimax<>(rules, depth).solve(b);
+                    assertEquals(best(rules, b, depth), valueOf(rules, b, move, depth), describe(b, depth));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void alphaBetaValuesMatchBruteForce() throws IllegalBoardDimensions {
+        for (Rules rules : allRules()) {
+            for (Board b : positions(rules.getDim())) {
+                for (int depth : DEPTHS) {
+                    MinimaxAlphaBeta<Board, Point, Color> search = new MinimaxAlphaBeta<>(rules, depth);
+                    Point move = search.solve(b);
+                    int expected = best(rules, b, depth);
+                    assertEquals(expected, search.getBestValue(), describe(b, depth));
+                    assertEquals(expected, valueOf(rules, b, move, depth), describe(b, depth));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void principalVariationValuesMatchBruteForce() throws IllegalBoardDimensions {
+        for (Rules rules : allRules()) {
+            for (Board b : positions(rules.getDim())) {
+                for (int depth : DEPTHS) {
+                    PrincipalVariation<Board, Point, Color> search =
+                            new PrincipalVariation<>(rules, depth, new TranspositionTable(16));
+                    Point move = search.solve(b);
+                    int expected = best(rules, b, depth);
+                    assertEquals(expected, search.getBestValue(), describe(b, depth));
+                    assertEquals(expected, valueOf(rules, b, move, depth), describe(b, depth));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void mtdfValuesMatchBruteForce() throws IllegalBoardDimensions {
+        for (Rules rules : allRules()) {
+            for (Board b : positions(rules.getDim())) {
+                for (int depth : DEPTHS) {
+                    MTDF<Board, Point, Color> search = new MTDF<>(rules, depth, new TranspositionTable(16));
+                    search.solve(b);
+                    assertEquals(best(rules, b, depth), search.getBestValue(), describe(b, depth));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return          rules scoring with the pattern evaluator and with the
+     *                  built-in heuristic, for every board size
+     */
+    static ArrayList<Rules> allRules() throws IllegalBoardDimensions {
+        ArrayList<Rules> all = new ArrayList<>();
+        for (int dim : DIMS) {
+            Rules rules = Rules.forDimension(dim);
+            all.add(rules);
+            all.add(rules.withEvaluator(null));
+        }
+        return all;
+    }
+
+    /**
+     * @return          the fixed positions of one board size that still have a move to play
+     */
+    static ArrayList<Board> positions(int dim) {
+        ArrayList<Board> boards = new ArrayList<>();
+        for (Othello game : Positions.random(dim, OPENING_PLIES, SEED)) {
+            Board b = game.initialState();
+            if (!b.isGameFinished() && b.hasAnyMoves(b.whoseTurn())) {
+                boards.add(b);
+            }
+        }
+        return boards;
+    }
+
+    /**
+     * @return          value of the best move of the root, by brute force
+     */
+    static int best(Rules rules, Board b, int depth) {
+        return minimax(rules, b, b.whoseTurn(), 0, depth);
+    }
+
+    /**
+     * @return          value of one move of the root, by brute force
+     */
+    static int valueOf(Rules rules, Board b, Point move, int depth) {
+        Color root = b.whoseTurn();
+        b.makeMove(move);
+        int value = minimax(rules, b, root, 1, depth);
+        b.undoMove();
+        return value;
+    }
+
+    static String describe(Board b, int depth) {
+        return b.dim + "x" + b.dim + " with " + b.getEmptyCount() + " empties at depth " + depth;
+    }
+
+    /**
+     * Plain minimax over every move, passes included, without a table or
+     * any pruning
+     *
+     * @param rules     rules of the game
+     * @param b         current position, left as it was
+     * @param root      player the search is choosing a move for
+     * @param depth     moves played since the root
+     * @param limit     depth limit
+     * @return          minimax value of the position for {@code root}
+     */
+    private static int minimax(Rules rules, Board b, Color root, int depth, int limit) {
+
+        if (depth >= limit) {
+            int h = rules.heuristic(b);
+            return (b.whoseTurn() == root) ? h : -h;
+        } else if (rules.isTerminal(b)) {
+            return rules.utility(b, root);
+        }
+
+        int[] moves = new int[PrimitiveProblem.MAX_ACTIONS];
+        int n = rules.actions(b, moves);
+        boolean maximising = b.whoseTurn() == root;
+        int value = maximising ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+
+        for (int i = 0; i < n; i++) {
+            rules.apply(b, moves[i]);
+            int v = minimax(rules, b, root, depth + 1, limit);
+            rules.undo(b);
+            value = maximising ? Math.max(value, v) : Math.min(value, v);
+        }
+
+        return value;
+    }
+}
@@ -0,0 +1,120 @@
+package othello.ai.algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import othello.ai.search.TranspositionTable;
+import othello.game.Board;
+import othello.game.Color;
+import othello.game.Rules;
+import othello.game.exceptions.IllegalBoardDimensions;
+import othello.tools.Positions;
+
+/**
+ * Checks that Monte Carlo Tree Search, with a tree too small for the whole
+ * game and a fixed number of playouts, picks a move that wins (or draws)
+ * whenever the endgame solver says one does, on 4x4 endgames where some
+ * other move would not. Checked with and without progressive bias.
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-24-2021
+ */
+public class MonteCarloTreeSearchTest {
+
+    private static final int POSITIONS = 20;            // Endgames to try
+    private static final int MIN_EMPTIES = 3;           // Fewest empty squares left in an endgame
+    private static final int MAX_EMPTIES = 6;           // Most empty squares left in an endgame
+    private static final int CAPACITY = 64;             // Nodes, fewer than the whole game needs
+    private static final long PLAYOUTS = 4000;          // Playouts per move
+    private static final long TIME_LIMIT = 60000;       // Never reached before the playouts run out
+    private static final long SEED = 20210224L;         // Same positions on every run
+
+    @Test
+    public void findsTheWinningMoveWithoutBias() throws IllegalBoardDimensions {
+        check(false);
+    }
+
+    @Test
+    public void findsTheWinningMoveWithBias() throws IllegalBoardDimensions {
+        check(true);
+    }
+
+    private static void check(boolean bias) throws IllegalBoardDimensions {
+
+        Rules rules = Rules.forDimension(4);
+        EndgameSolver solver = new EndgameSolver(new TranspositionTable(12));
+
+        for (Board b : endgames(rules, solver)) {
+
+            MonteCarloTreeSearch<Board, Point, Color> mcts = new MonteCarloTreeSearch<>(rules, TIME_LIMIT, 1);
+            mcts.setCapacity(CAPACITY);
+            mcts.setPlayoutLimit(PLAYOUTS);
+            if (bias) {
+                mcts.setProgressiveBias(1, 64);
+            }
+
+            Point move = mcts.solve(b);
+            String position = b.getEmptyCount() + " empties, " + b;
+
+            assertEquals(PLAYOUTS, mcts.getPlayouts(), "playouts, " + position);
+            assertTrue(b.validMove(b.whoseTurn(), move.x, move.y), "illegal move " + move + ", " + position);
+
+            solver.solve(b);
+            int best = solver.getBestValue();
+            assertEquals(Integer.signum(best), Integer.signum(valueOf(solver, b, move)),
+                    "outcome of " + move + ", best margin " + best + ", " + position);
+        }
+    }
+
+    /**
+     * @return          4x4 endgames in which the best outcome, win, draw or
+     *                  loss, is reached by some moves but not all of them
+     */
+    private static ArrayList<Board> endgames(Rules rules, EndgameSolver solver) throws IllegalBoardDimensions {
+
+        ArrayList<Board> boards = new ArrayList<>();
+        Random rand = new Random(SEED);
+
+        while (boards.size() < POSITIONS) {
+
+            Board b = new Board(4, Color.DARK);
+            int empties = MIN_EMPTIES + rand.nextInt(MAX_EMPTIES - MIN_EMPTIES + 1);
+            Positions.playRandom(b, b.getEmptyCount() - empties, rand);
+
+            if (b.isGameFinished() || !b.hasAnyMoves(b.whoseTurn())) {
+                continue;
+            }
+
+            solver.solve(b);
+            int best = Integer.signum(solver.getBestValue());
+            boolean worse = false;
+            for (Point move : b.getAllPossibleMoves(b.whoseTurn())) {
+                worse |= Integer.signum(valueOf(solver, b, move)) != best;
+            }
+
+            if (worse) {
+                boards.add(b);
+            }
+        }
+
+        return boards;
+    }
+
+    /**
+     * @return          final margin of a move for the player making it, with
+     *                  best play after it
+     */
+    private static int valueOf(EndgameSolver solver, Board b, Point move) {
+        b.makeMove(move);
+        solver.solve(b);
+        int value = -solver.getBestValue();
+        b.undoMove();
+        return value;
+    }
+}
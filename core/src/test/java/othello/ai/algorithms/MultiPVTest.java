@@ -0,0 +1,133 @@
+package othello.ai.algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import othello.ai.search.PrimitiveProblem;
+import othello.ai.search.TranspositionTable;
+import othello.game.Board;
+import othello.game.Color;
+import othello.game.Othello;
+import othello.game.Rules;
+import othello.game.exceptions.IllegalBoardDimensions;
+import othello.tools.Positions;
+
+/**
+ * Checks the lines of {@code MultiPV} against a separate search of every
+ * move of the root: the values of the lines must be the best values among
+ * all the moves, best first, and each line must be a legal line of play
+ * starting with its move.
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-24-2021
+ */
+public class MultiPVTest {
+
+    private static final int DEPTH = 4;                                 // Depth every search goes to
+    private static final int LINES = 3;                                 // Lines asked for
+    private static final int[] DIMS = { 4, 6, 8 };                      // Board sizes to compare on
+    private static final int PER_DIM = 20;                              // Positions tried on each board size
+    private static final long SEED = 20210224L;                         // Same positions on every run
+
+    @Test
+    public void linesMatchASearchOfEveryMove() throws IllegalBoardDimensions {
+
+        int checked = 0;
+
+        for (int dim : DIMS) {
+
+            Rules rules = Rules.forDimension(dim);
+
+            for (Othello game : Positions.random(dim, plies(dim), SEED)) {
+
+                Board b = game.initialState();
+                if (b.isGameFinished() || !b.hasAnyMoves(b.whoseTurn())) {
+                    continue;
+                }
+
+                String position = LeafValueTest.describe(b, DEPTH);
+                MultiPV<Board, Point, Color> multi = new MultiPV<>(rules, DEPTH, LINES, new TranspositionTable(16));
+                Point best = multi.solve(b);
+                List<ScoredLine<Point>> lines = multi.getLines();
+
+                ArrayList<Point> moves = b.getAllPossibleMoves(b.whoseTurn());
+                ArrayList<Integer> values = new ArrayList<>();
+                for (Point move : moves) {
+                    values.add(LeafValueTest.valueOf(rules, b, move, DEPTH));
+                }
+                values.sort(Collections.reverseOrder());
+
+                assertEquals(Math.min(LINES, moves.size()), lines.size(), "number of lines, " + position);
+                assertEquals(DEPTH, multi.getCompletedDepth(), position);
+                assertEquals(lines.get(0).getAction(), best, "best move, " + position);
+
+                for (int i = 0; i < lines.size(); i++) {
+                    ScoredLine<Point> line = lines.get(i);
+                    assertEquals(values.get(i).intValue(), line.getValue(), "value of line " + (i + 1) + ", " + position);
+                    assertEquals(LeafValueTest.valueOf(rules, b, line.getAction(), DEPTH), line.getValue(),
+                            "value of " + line.getAction() + ", " + position);
+                    checkVariation(b, line, position);
+                }
+
+                checked++;
+            }
+        }
+
+        assertTrue(checked >= 3 * PER_DIM * 3 / 4, "only " + checked + " positions had a move to play");
+    }
+
+    /**
+     * Play out a line on the board and check that it starts with its
+     * action, that every move is legal and that it only passes with no legal
+     * move
+     *
+     * @param b         position the line starts from, left as it was
+     * @param line      line to play
+     * @param position  description of the position, for the messages
+     */
+    private static void checkVariation(Board b, ScoredLine<Point> line, String position) {
+
+        List<Point> variation = line.getVariation();
+        assertFalse(variation.isEmpty(), "empty line, " + position);
+        assertEquals(line.getAction(), variation.get(0), "first move of the line, " + position);
+        assertTrue(variation.size() <= DEPTH, "line longer than the search, " + position);
+
+        long hash = b.getHash();
+
+        for (Point move : variation) {
+            Color me = b.whoseTurn();
+            if (move == null) {
+                assertFalse(b.hasAnyMoves(me), "pass with a legal move in " + variation + ", " + position);
+                b.makeMove(PrimitiveProblem.PASS);
+            } else {
+                assertTrue(b.validMove(me, move.x, move.y), "illegal " + move + " in " + variation + ", " + position);
+                b.makeMove(move);
+            }
+        }
+
+        for (int i = 0; i < variation.size(); i++) {
+            b.undoMove();
+        }
+        assertEquals(hash, b.getHash(), "board after taking back the line, " + position);
+    }
+
+    /**
+     * @return          random plies to play before each position, spread
+     *                  over the whole game
+     */
+    private static int[] plies(int dim) {
+        int[] plies = new int[PER_DIM];
+        for (int i = 0; i < PER_DIM; i++) {
+            plies[i] = i * (dim * dim - 6) / PER_DIM;
+        }
+        return plies;
+    }
+}
@@ -0,0 +1,180 @@
+package othello.ai.algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import othello.ai.search.TranspositionTable;
+import othello.game.Board;
+import othello.game.Color;
+import othello.game.Othello;
+import othello.game.Rules;
+import othello.game.exceptions.IllegalBoardDimensions;
+import othello.tools.Positions;
+
+/**
+ * Checks that a {@code SearchTask} always answers with a legal move: when
+ * cancelled in the middle of a search far too deep to finish, and when the
+ * search ignores its stop signal altogether. Also checks that the best move
+ * so far is the one the last completed iteration reported.
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-24-2021
+ */
+public class SearchTaskTest {
+
+    private static final int[] OPENING_PLIES = { 0, 10, 20 };          // Random plies played before each position
+    private static final long SEED = 20210224L;                         // Same positions on every run
+    private static final long RUN_MS = 50;                              // Time a search runs before it is cancelled
+    private static final long WAIT_MS = 5000;                           // Longest any answer may take
+
+    @Test
+    public void cancelledDeepSearchAnswersWithALegalMove() throws Exception {
+
+        Rules rules = Rules.forDimension(8);
+
+        for (Board b : positions()) {
+            for (long runFor : new long[] { 0, RUN_MS }) {
+
+                SearchAlgorithm<Board, Point> search = new MinimaxAlphaBeta<>(rules, 40, new TranspositionTable(16));
+                SearchTask<Point> task = SearchTask.start(rules, search, b, 0, null);
+                Thread.sleep(runFor);
+                task.cancel();
+
+                Point move = task.getResult().get(WAIT_MS, TimeUnit.MILLISECONDS).getAction();
+                assertNotNull(move, "after " + runFor + " ms");
+                assertTrue(b.validMove(b.whoseTurn(), move.x, move.y), "illegal move after " + runFor + " ms");
+                assertTrue(task.wasStopped());
+            }
+        }
+    }
+
+    @Test
+    public void searchIgnoringTheStopSignalIsAnsweredAfterGrace() throws Exception {
+
+        Rules rules = Rules.forDimension(8);
+        Board b = positions().get(1);
+        Stubborn search = new Stubborn();
+
+        SearchTask<Point> task = SearchTask.start(rules, search, b, 0, null);
+        assertTrue(search.started.await(WAIT_MS, TimeUnit.MILLISECONDS));
+
+        long start = System.nanoTime();
+        task.cancel();
+        Point move = task.getResult().get(WAIT_MS, TimeUnit.MILLISECONDS).getAction();
+        long waited = (System.nanoTime() - start) / 1000000;
+
+        assertTrue(waited >= SearchTask.GRACE - 10, "answered after " + waited + " ms");
+        assertTrue(b.validMove(b.whoseTurn(), move.x, move.y), "illegal move " + move);
+        assertTrue(task.isSearching(), "the abandoned search is still running");
+
+        search.release.countDown();
+        for (int i = 0; i < WAIT_MS && task.isSearching(); i++) {
+            Thread.sleep(1);
+        }
+        assertFalse(task.isSearching(), "the search ended once it was let go");
+        assertEquals(move, task.join(), "the late answer does not replace the first");
+    }
+
+    @Test
+    public void bestSoFarFollowsTheListener() throws Exception {
+
+        Rules rules = Rules.forDimension(6);
+
+        for (Othello game : Positions.random(6, OPENING_PLIES, SEED)) {
+
+            Board b = game.initialState();
+            if (b.isGameFinished() || !b.hasAnyMoves(b.whoseTurn())) {
+                continue;
+            }
+
+            ArrayList<Integer> depths = new ArrayList<>();
+            ArrayList<Point> actions = new ArrayList<>();
+            ArrayList<Integer> values = new ArrayList<>();
+            ArrayList<Point> seen = new ArrayList<>();
+            Holder holder = new Holder();
+
+            SearchAlgorithm<Board, Point> search = new IterativeDeepening<>(rules, 200, new TranspositionTable(16));
+            holder.task = SearchTask.start(rules, search, b, 0, (depth, action, value) -> {
+                depths.add(depth);
+                actions.add(action);
+                values.add(value);
+                SearchTask<Point> task = holder.task;
+                seen.add((task == null) ? action : task.getBestSoFar());
+            });
+            holder.task.getResult().get(WAIT_MS, TimeUnit.MILLISECONDS);
+            SearchTask<Point> task = holder.task;
+
+            assertFalse(depths.isEmpty(), "no iteration completed");
+            assertEquals(actions, seen, "best so far while searching");
+
+            int last = depths.size() - 1;
+            for (int i = 1; i <= last; i++) {
+                assertTrue(depths.get(i) > depths.get(i - 1), "depths " + depths);
+            }
+            assertEquals(depths.get(last).intValue(), task.getCompletedDepth());
+            assertEquals(actions.get(last), task.getBestSoFar());
+            assertEquals(values.get(last).intValue(), task.getBestValue());
+        }
+    }
+
+    /**
+     * @return          the fixed 8x8 positions, each with a move to play
+     */
+    private static ArrayList<Board> positions() {
+        ArrayList<Board> boards = new ArrayList<>();
+        for (Othello game : Positions.random(8, OPENING_PLIES, SEED)) {
+            Board b = game.initialState();
+            if (!b.isGameFinished() && b.hasAnyMoves(b.whoseTurn())) {
+                boards.add(b);
+            }
+        }
+        return boards;
+    }
+
+    /**
+     * The task, for a listener started before the task is returned
+     */
+    private static class Holder {
+        volatile SearchTask<Point> task;
+    }
+
+    /**
+     * A search that takes no notice of its stop signal and answers only
+     * once the test lets it go
+     */
+    private static class Stubborn implements SearchAlgorithm<Board, Point> {
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public Point solve(Board s) {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return s.getAllPossibleMoves(s.whoseTurn()).get(0);
+        }
+
+        @Override
+        public SearchStats getStats() {
+            return new SearchStats();
+        }
+
+        @Override
+        public void setStopSignal(AtomicBoolean stop) {
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package othello.tools;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Point;
+
+import org.junit.jupiter.api.Test;
+
+import othello.ai.search.PrimitiveProblem;
+import othello.game.Board;
+import othello.game.Color;
+import othello.game.exceptions.IllegalBoardDimensions;
+
+/**
+ * Checks the move generator against the known leaf counts of 8x8 Othello,
+ * through the bitboard counter used by {@code Perft} and through the moves
+ * of {@code Board} itself
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-22-2021
+ */
+public class PerftTest {
+
+    // Leaf counts of 8x8 Othello at depths 1, 2, 3, ...
+    private static final long[] EXPECTED = {
+        4L, 12L, 56L, 244L, 1396L, 8200L, 55092L, 390216L
+    };
+
+    private static final int BOARD_DEPTH = 6;           // Deepest count played out move by move on a Board
+
+    @Test
+    public void countsMatchKnownValues() throws IllegalBoardDimensions {
+        for (int d = 1; d <= EXPECTED.length; d++) {
+            assertEquals(EXPECTED[d - 1], Perft.count(8, d, 1), "depth " + d);
+        }
+    }
+
+    @Test
+    public void parallelCountsMatchKnownValues() throws IllegalBoardDimensions {
+        for (int d = 1; d <= EXPECTED.length; d++) {
+            assertEquals(EXPECTED[d - 1], Perft.count(8, d, 4), "depth " + d);
+        }
+    }
+
+    @Test
+    public void boardMovesMatchKnownValues() throws IllegalBoardDimensions {
+        for (int d = 1; d <= BOARD_DEPTH; d++) {
+            Board b = new Board(8, Color.DARK);
+            long hash = b.getHash();
+            assertEquals(EXPECTED[d - 1], count(b, d, false), "depth " + d);
+            assertEquals(hash, b.getHash(), "hash after undoing every move, depth " + d);
+        }
+    }
+
+    /**
+     * Count the leaves below a position by playing and taking back every
+     * move on the board
+     *
+     * @param b         position, left as it was
+     * @param depth     moves left to play
+     * @param passed    did the opponent just pass?
+     * @return          number of leaves
+     */
+    private static long count(Board b, int depth, boolean passed) {
+
+        if (depth == 0) {
+            return 1;
+        }
+
+        Color me = b.whoseTurn();
+
+        if (!b.hasAnyMoves(me)) {
+            if (passed) {
+                return 1;                               // The game is over
+            }
+            b.makeMove(PrimitiveProblem.PASS);
+            long nodes = count(b, depth - 1, true);
+            b.undoMove();
+            return nodes;
+        }
+
+        long nodes = 0;
+        for (Point move : b.getAllPossibleMoves(me)) {
+            assertTrue(b.validMove(me, move.x, move.y), "generated move " + move);
+            b.makeMove(move);
+            nodes += count(b, depth - 1, false);
+            b.undoMove();
+        }
+        return nodes;
+    }
+}
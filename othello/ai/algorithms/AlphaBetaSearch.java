@@ -0,0 +1,431 @@
+package othello.ai.algorithms;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import othello.ai.search.EncodedProblem;
+import othello.ai.search.MoveOrdering;
+import othello.ai.search.PrimitiveProblem;
+import othello.ai.search.Problem;
+import othello.ai.search.TranspositionTable;
+
+/**
+ * The part of H-MINIMAX with ALPHA-BETA cutoff that {@code MinimaxAlphaBeta}
+ * and {@code PrincipalVariation} share: the min and max nodes below the root,
+ * the transposition table, the move ordering and the statistics. Each search
+ * decides how to search its root, and how to search the children of a node
+ * through {@code childOfMax} and {@code childOfMin}, which here simply search
+ * every child with the node's own window.
+ * <p>
+ * Every value is from the point of view of the player the search is choosing
+ * a move for, and so is every value stored in the table. A subtree that never
+ * reached the depth limit holds its true value, so it is stored as
+ * {@code SOLVED} and is valid at any depth.
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-17-2021
+ */
+abstract class AlphaBetaSearch<State, Action, Player> implements SearchAlgorithm<State, Action> {
+
+    PrimitiveProblem<State, Action, Player> prob;
+    int depthLimit;
+    int[][] moveBuf;                                    // Encoded moves of each ply, reused between states
+    TranspositionTable table;
+    MoveOrdering<State, Action, Player> ordering;
+    AtomicBoolean stop;                                 // Raised by another thread to abandon the search
+    boolean aborted;                                    // Was the last search abandoned?
+    boolean reachedLimit;                               // Did the last search reach the depth limit?
+    int bestValue;                                      // Value of the last best action
+    int statesVisited;
+    int leaves;                                         // States scored without searching further
+    int maxDepth;                                       // Deepest ply reached
+    long probes;                                        // Transposition table lookups
+    long hits;                                          // Lookups that found their state
+    long cutoffs;                                       // Number of alpha-beta cutoffs
+    long firstMoveCutoffs;                              // Cutoffs caused by the first action tried
+    long nanos;                                         // Time taken by the last call to solve
+
+    /**
+     * @param problem       generic instance of {@code Problem}
+     * @param lim           depth limit
+     * @param table         transposition table to read and write
+     */
+    AlphaBetaSearch(Problem<State, Action, Player> problem, int lim, TranspositionTable table) {
+        this.prob = EncodedProblem.of(problem);
+        this.depthLimit = lim;
+        this.table = table;
+    }
+
+    /**
+     * Abandon the search as soon as the given signal is raised. Several
+     * searches may share one signal.
+     *
+     * @param stop      signal to watch
+     */
+    @Override
+    public void setStopSignal(AtomicBoolean stop) {
+        this.stop = stop;
+    }
+
+    /**
+     * Returns the statistics of the last search. When the search was run by
+     * another algorithm rather than by {@code solve}, its time is not known
+     * and is reported as {@code 0}.
+     *
+     * @return          statistics of the last search
+     */
+    @Override
+    public SearchStats getStats() {
+        SearchStats stats = new SearchStats();
+        stats.addStates(statesVisited, leaves, maxDepth);
+        stats.addProbes(probes, hits);
+        stats.addCutoffs(cutoffs, firstMoveCutoffs);
+        stats.addIteration(depthLimit, statesVisited, nanos);
+        stats.setTime(nanos);
+        return stats;
+    }
+
+    /**
+     * @return          {@code true} if the last search was abandoned
+     */
+    public boolean wasAborted() {
+        return aborted;
+    }
+
+    /**
+     * @return          number of states visited by the last search
+     */
+    public int getStatesVisited() {
+        return statesVisited;
+    }
+
+    /**
+     * @return          minimax value of the action returned by the last search
+     */
+    public int getBestValue() {
+        return bestValue;
+    }
+
+    /**
+     * Clear the statistics of the previous search and make sure the move
+     * orderer and the move buffers exist
+     */
+    void reset() {
+
+        statesVisited = 0;
+        leaves = 0;
+        maxDepth = 0;
+        probes = 0;
+        hits = 0;
+        cutoffs = 0;
+        firstMoveCutoffs = 0;
+        nanos = 0;
+        aborted = false;
+        reachedLimit = false;
+
+        if (ordering == null) {
+            ordering = new MoveOrdering<>(prob);
+        }
+        if (moveBuf == null || moveBuf.length < depthLimit + 1) {
+            moveBuf = new int[Math.max(depthLimit, 1) + 1][PrimitiveProblem.MAX_ACTIONS];
+        }
+    }
+
+    /**
+     * Has another thread asked us to stop?
+     *
+     * @return          {@code true} if the search should be abandoned
+     */
+    boolean outOfTime() {
+        return stop != null && stop.get();
+    }
+
+    /**
+     * Search a child of a max node
+     *
+     * @param s         child {@code State}
+     * @param p         player the search is choosing a move for
+     * @param depth     depth of the child
+     * @param alpha     lower end of the parent's window
+     * @param beta      upper end of the parent's window
+     * @param first     is this the first child searched?
+     * @return          value of the child, or a bound on it outside the window
+     */
+    int childOfMax(State s, Player p, int depth, int alpha, int beta, boolean first) {
+        return minValue(s, p, depth, alpha, beta);
+    }
+
+    /**
+     * Search a child of a min node
+     *
+     * @param s         child {@code State}
+     * @param p         player the search is choosing a move for
+     * @param depth     depth of the child
+     * @param alpha     lower end of the parent's window
+     * @param beta      upper end of the parent's window
+     * @param first     is this the first child searched?
+     * @return          value of the child, or a bound on it outside the window
+     */
+    int childOfMin(State s, Player p, int depth, int alpha, int beta, boolean first) {
+        return maxValue(s, p, depth, alpha, beta);
+    }
+
+    /**
+     * Return the minimum minimax value
+     *
+     * @param s             current {@code State}
+     * @param p             player the search is choosing a move for
+     * @param depth         current depth
+     * @return              minimum minimax value
+     */
+    int minValue(State s, Player p, int depth, int alpha, int beta) {
+
+        statesVisited++;
+        maxDepth = Math.max(maxDepth, depth);
+
+        if ((statesVisited & 1023) == 0 && outOfTime()) {
+            aborted = true;
+        }
+        if (aborted) {
+            return 0;
+        }
+
+        if (cutoff(depth)) {
+            reachedLimit = true;
+            leaves++;
+            return prob.heuristic(s, p);
+        } else if (prob.isTerminal(s)) {
+            leaves++;
+            return prob.utility(s, p);
+        }
+
+        long key = prob.hash(s);
+        long entry = probe(key);
+        int remaining = depthLimit - depth;
+
+        if (entry != 0 && TranspositionTable.depth(entry) >= remaining) {
+            int score = TranspositionTable.score(entry);
+            int bound = TranspositionTable.bound(entry);
+            if (bound == TranspositionTable.EXACT
+                    || (bound == TranspositionTable.UPPER && score <= alpha)
+                    || (bound == TranspositionTable.LOWER && score >= beta)) {
+                reachedLimit |= TranspositionTable.depth(entry) != TranspositionTable.SOLVED;
+                return score;
+            }
+        }
+
+        boolean outerLimit = reachedLimit;              // Track the depth limit for this subtree alone
+        reachedLimit = false;
+
+        depth++;
+
+        int betaOrig = beta;
+        int min = Integer.MAX_VALUE;
+        int best = TranspositionTable.NO_MOVE;
+
+        int[] moves = moveBuf[depth - 1];
+        int n = orderedActions(s, entry, depth - 1);
+
+        for (int i = 0; i < n; i++) {
+
+            int move = moves[i];
+
+            prob.apply(s, move);
+            int value = childOfMin(s, p, depth, alpha, beta, i == 0);
+            prob.undo(s);
+
+            if (aborted) {
+                return 0;
+            }
+
+            if (value < min) {
+                min = value;
+                best = move;
+            }
+
+            if (min <= alpha) {
+                recordCutoff(move, i, depth - 1, remaining);
+                table.store(key, storedDepth(remaining, outerLimit), TranspositionTable.UPPER, min, best);
+                return min;
+            }
+
+            beta = Math.min(beta, min);
+        }
+
+        int bound = (min >= betaOrig) ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+        table.store(key, storedDepth(remaining, outerLimit), bound, min, best);
+
+        return min;
+    }
+
+    /**
+     * Return the maximum minimax value
+     *
+     * @param s             current {@code State}
+     * @param p             player the search is choosing a move for
+     * @param depth         current depth
+     * @return              maximum minimax value
+     */
+    int maxValue(State s, Player p, int depth, int alpha, int beta) {
+
+        statesVisited++;
+        maxDepth = Math.max(maxDepth, depth);
+
+        if ((statesVisited & 1023) == 0 && outOfTime()) {
+            aborted = true;
+        }
+        if (aborted) {
+            return 0;
+        }
+
+        if (cutoff(depth)) {
+            reachedLimit = true;
+            leaves++;
+            return prob.heuristic(s, p);
+        } else if (prob.isTerminal(s)) {
+            leaves++;
+            return prob.utility(s, p);
+        }
+
+        long key = prob.hash(s);
+        long entry = probe(key);
+        int remaining = depthLimit - depth;
+
+        if (entry != 0 && TranspositionTable.depth(entry) >= remaining) {
+            int score = TranspositionTable.score(entry);
+            int bound = TranspositionTable.bound(entry);
+            if (bound == TranspositionTable.EXACT
+                    || (bound == TranspositionTable.LOWER && score >= beta)
+                    || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                reachedLimit |= TranspositionTable.depth(entry) != TranspositionTable.SOLVED;
+                return score;
+            }
+        }
+
+        boolean outerLimit = reachedLimit;              // Track the depth limit for this subtree alone
+        reachedLimit = false;
+
+        depth++;
+
+        int alphaOrig = alpha;
+        int max = Integer.MIN_VALUE;
+        int best = TranspositionTable.NO_MOVE;
+
+        int[] moves = moveBuf[depth - 1];
+        int n = orderedActions(s, entry, depth - 1);
+
+        for (int i = 0; i < n; i++) {
+
+            int move = moves[i];
+
+            prob.apply(s, move);
+            int value = childOfMax(s, p, depth, alpha, beta, i == 0);
+            prob.undo(s);
+
+            if (aborted) {
+                return 0;
+            }
+
+            if (value > max) {
+                max = value;
+                best = move;
+            }
+
+            if (max >= beta) {
+                recordCutoff(move, i, depth - 1, remaining);
+                table.store(key, storedDepth(remaining, outerLimit), TranspositionTable.LOWER, max, best);
+                return max;
+            }
+
+            alpha = Math.max(alpha, max);
+        }
+
+        int bound = (max <= alphaOrig) ? TranspositionTable.UPPER : TranspositionTable.EXACT;
+        table.store(key, storedDepth(remaining, outerLimit), bound, max, best);
+
+        return max;
+    }
+
+    /**
+     * Returns the depth to record for a subtree that has just been searched,
+     * and folds the subtree's use of the depth limit into the enclosing one
+     *
+     * @param remaining     remaining depth the subtree was searched to
+     * @param outerLimit    had the enclosing tree reached the depth limit already?
+     * @return              depth to store in the transposition table
+     */
+    int storedDepth(int remaining, boolean outerLimit) {
+        int stored = reachedLimit ? remaining : TranspositionTable.SOLVED;
+        reachedLimit |= outerLimit;
+        return stored;
+    }
+
+    /**
+     * Look up the given state in the transposition table, counting the lookup
+     *
+     * @param key       hash of the state
+     * @return          table entry, or {@code 0} if the state is not stored
+     */
+    long probe(long key) {
+        probes++;
+        long entry = table.probe(key);
+        if (entry != 0) {
+            hits++;
+        }
+        return entry;
+    }
+
+    /**
+     * Writes the encoded moves of the given state into the buffer of its ply,
+     * most promising first
+     *
+     * @param s         current {@code State}
+     * @param entry     table entry for the state, or {@code 0}
+     * @param ply       distance of the state from the root
+     * @return          number of moves to search, in order, in {@code moveBuf[ply]}
+     */
+    int orderedActions(State s, long entry, int ply) {
+
+        int[] moves = moveBuf[ply];
+        int n = prob.actions(s, moves);
+
+        int hashMove = (entry != 0) ? TranspositionTable.move(entry) : TranspositionTable.NO_MOVE;
+        ordering.sort(moves, n, hashMove, ply);
+
+        return n;
+    }
+
+    /**
+     * Count a cutoff caused by the action tried in the given place
+     *
+     * @param index     position of the action in the search order
+     */
+    void countCutoff(int index) {
+        cutoffs++;
+        if (index == 0) {
+            firstMoveCutoffs++;
+        }
+    }
+
+    /**
+     * Count a cutoff and tell the move orderer which move caused it
+     *
+     * @param move      encoded move that caused the cutoff
+     * @param index     position of the action in the search order
+     * @param ply       distance of the state from the root
+     * @param remaining remaining depth the state was searched to
+     */
+    void recordCutoff(int move, int index, int ply, int remaining) {
+        countCutoff(index);
+        ordering.cutoff(move, ply, remaining);
+    }
+
+    /**
+     * Have we reached the depth limit?
+     *
+     * @param depth     current depth
+     * @return          {@code true} if depth >= depthLimit, {@code false} otherwise.
+     */
+    boolean cutoff(int depth) {
+        return depth >= depthLimit;
+    }
+}
@@ -0,0 +1,607 @@
+package othello.ai.algorithms;
+
+import java.awt.Point;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import othello.ai.search.TranspositionTable;
+import othello.game.BitBoard;
+import othello.game.Board;
+import othello.game.Color;
+
+/**
+ * Exact solver for the end of the game. Instead of stopping at a depth limit
+ * and guessing with a heuristic, it plays every line out to the last disc and
+ * scores the final disc differential, so its moves are perfect. It works on the
+ * raw bit masks of the board rather than through {@code Problem}, which keeps
+ * the inner loop free of allocation.
+ * <p>
+ * The solver orders moves in two ways. With many empty squares it plays
+ * fastest-first: the moves that leave the opponent the fewest replies come
+ * first. Near the end it uses parity: moves in regions with an odd number of
+ * empty squares come first, since the last move in a region is usually the
+ * better one. As in {@code PrincipalVariation}, every move after the first is
+ * only tested against a null window, and positions with enough empty squares
+ * are kept in a transposition table. The final three empty squares have
+ * dedicated routines that skip move generation.
+ * <p>
+ * Discs that can never be flipped again bound the final score. Whenever the
+ * opponent's stable discs alone keep the player to move from beating the
+ * window, the position fails low without searching a single move.
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-20-2021
+ */
+public class EndgameSolver implements SearchAlgorithm<Board, Point> {
+
+    private static final int FASTEST_FIRST = 7;         // Use fastest-first ordering above this many empties
+    private static final int TABLE_EMPTIES = 8;         // Store positions with at least this many empties
+    private static final int MAX_EMPTIES = 64;
+    private static final int BOARD_PER_EMPTY = 5;       // The solver takes over with a fifth of the board empty
+
+    private TranspositionTable table;
+    private int dim;
+    private long[] quadrants = new long[4];             // Cells of each quadrant of the board
+    private long corners;                               // Cells of the four corners
+    private int[][] moveBuf = new int[MAX_EMPTIES + 1][MAX_EMPTIES];    // Ordered moves, per number of empties
+    private int[][] keyBuf = new int[MAX_EMPTIES + 1][MAX_EMPTIES];     // Sort keys, per number of empties
+
+    private long statesVisited;
+    private long leaves;                                // Finished games scored
+    private long probes;                                // Transposition table lookups
+    private long hits;                                  // Lookups that found their state
+    private long cutoffs;                               // Number of beta cutoffs
+    private long firstMoveCutoffs;                      // Cutoffs caused by the first move tried
+    private SearchStats stats = new SearchStats();      // Statistics of the last search
+    private int bestValue;                              // Final disc differential of the best move
+    private AtomicBoolean stop;                         // Raised by another thread to abandon the search
+    private boolean aborted;                            // Was the last search abandoned?
+
+    /**
+     * Create a new endgame solver
+     *
+     * @param table         transposition table to read and write. Its keys
+     *                      differ from those of the heuristic searches, so it
+     *                      should not be shared with them.
+     */
+    public EndgameSolver(TranspositionTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Returns how many empty squares a player should leave to the solver by
+     * default: 12 on 8x8, few enough to solve in well under a second, and
+     * proportionally fewer on smaller boards. A 4x4 game starts with 12
+     * empty squares, so a fixed 8x8 threshold would solve it from the first
+     * move and no other search would ever play.
+     *
+     * @param dim       square dimension of the board
+     * @return          largest number of empties to solve exactly
+     */
+    public static int defaultEmpties(int dim) {
+        return dim * dim / BOARD_PER_EMPTY;
+    }
+
+    /**
+     * Solve for the move with the best final disc differential
+     *
+     * @param s         current {@code Board}
+     * @return          best move, or {@code null} if the player to move must pass
+     */
+    @Override
+    public Point solve(Board s) {
+
+        long startTime = System.nanoTime();             // Store the start time for the timer
+
+        Point move = search(s);
+
+        long time = System.nanoTime() - startTime;      // Calculate the Elapsed time
+
+        // Every line is played out to the last empty square
+        stats = new SearchStats();
+        stats.addStates(statesVisited, leaves, s.getEmptyCount());
+        stats.addProbes(probes, hits);
+        stats.addCutoffs(cutoffs, firstMoveCutoffs);
+        stats.addIteration(s.getEmptyCount(), statesVisited, time);
+        stats.setTime(time);
+
+        return move;
+    }
+
+    @Override
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Abandon the solve as soon as the given signal is raised. The solver then
+     * returns the best move among those it had proved the value of, or
+     * {@code null} if it had not finished the first. Nothing from the
+     * abandoned part is kept in the table.
+     *
+     * @param stop      signal to watch
+     */
+    @Override
+    public void setStopSignal(AtomicBoolean stop) {
+        this.stop = stop;
+    }
+
+    /**
+     * @return          {@code true} if the last solve was abandoned
+     */
+    public boolean wasAborted() {
+        return aborted;
+    }
+
+    /**
+     * @return          number of states visited by the last search
+     */
+    public long getStatesVisited() {
+        return statesVisited;
+    }
+
+    /**
+     * @return          final disc differential of the best move, from the
+     *                  point of view of the player who moved
+     */
+    public int getBestValue() {
+        return bestValue;
+    }
+
+    /**
+     * Solve for the best move without reporting on the search
+     *
+     * @param s         current {@code Board}
+     * @return          best move, or {@code null} if the player to move must pass
+     */
+    Point search(Board s) {
+
+        statesVisited = 0;
+        leaves = 0;
+        probes = 0;
+        hits = 0;
+        cutoffs = 0;
+        firstMoveCutoffs = 0;
+        aborted = false;
+        setDimension(s.dim);
+
+        Color me = s.whoseTurn();
+        Color other = (me == Color.DARK) ? Color.LIGHT : Color.DARK;
+
+        long p = s.getDiscs(me);
+        long o = s.getDiscs(other);
+
+        long moves = BitBoard.moves(p, o, dim);
+        int bound = dim * dim + 1;                      // Beyond any final disc differential
+
+        if (moves == 0) {
+            bestValue = -solve(o, p, -bound, bound, true);
+            return null;
+        }
+
+        int empties = Long.bitCount(BitBoard.empty(p, o, dim));
+        int hashMove = TranspositionTable.NO_MOVE;
+        long entry = table.probe(key(p, o));
+        if (entry != 0) {
+            hashMove = TranspositionTable.move(entry);
+        }
+
+        int n = orderMoves(p, o, moves, empties, hashMove);
+        int[] list = moveBuf[empties];
+
+        int alpha = -bound;
+        int best = TranspositionTable.NO_MOVE;
+
+        for (int i = 0; i < n; i++) {
+            int sq = list[i];
+            long flipped = BitBoard.flips(p, o, sq, dim);
+            long np = o & ~flipped;
+            long no = p | flipped | (1L << sq);
+            int value;
+            if (i == 0) {
+                value = -solve(np, no, -bound, -alpha, false);
+            } else {
+                value = -solve(np, no, -alpha - 1, -alpha, false);
+                if (value > alpha) {
+                    value = -solve(np, no, -bound, -value, false);
+                }
+            }
+            if (aborted) {
+                break;
+            }
+            if (value > alpha) {
+                alpha = value;
+                best = sq;
+            }
+        }
+
+        if (best == TranspositionTable.NO_MOVE) {
+            return null;
+        }
+
+        if (!aborted) {
+            table.store(key(p, o), TranspositionTable.SOLVED, TranspositionTable.EXACT, alpha, best);
+        }
+
+        bestValue = alpha;
+        return new Point(best / dim, best % dim);
+    }
+
+    /**
+     * Set up the quadrant masks for a board of the given dimension
+     *
+     * @param d         square dimension of the board
+     */
+    private void setDimension(int d) {
+        dim = d;
+        int half = d / 2;
+        for (int q = 0; q < 4; q++) {
+            quadrants[q] = 0;
+        }
+        corners = (1L << BitBoard.square(0, 0, d)) | (1L << BitBoard.square(0, d - 1, d))
+                | (1L << BitBoard.square(d - 1, 0, d)) | (1L << BitBoard.square(d - 1, d - 1, d));
+        for (int i = 0; i < d; i++) {
+            for (int j = 0; j < d; j++) {
+                int q = (i < half ? 0 : 2) + (j < half ? 0 : 1);
+                quadrants[q] |= 1L << BitBoard.square(i, j, d);
+            }
+        }
+    }
+
+    /**
+     * Return the exact value of the position for the player to move, using
+     * negamax with principal variation search. Positions with enough empty
+     * squares are kept in the transposition table.
+     *
+     * @param p         discs of the player to move
+     * @param o         discs of the opponent
+     * @param alpha     lower end of the window
+     * @param beta      upper end of the window
+     * @param passed    did the opponent just pass?
+     * @return          final disc differential for the player to move
+     */
+    private int solve(long p, long o, int alpha, int beta, boolean passed) {
+
+        statesVisited++;
+
+        if ((statesVisited & 1023) == 0 && stop != null && stop.get()) {
+            aborted = true;
+        }
+        if (aborted) {
+            return 0;
+        }
+
+        long empty = BitBoard.empty(p, o, dim);
+        int empties = Long.bitCount(empty);
+
+        if (empties <= 3 && !passed) {
+            if (empties == 0) {
+                leaves++;
+                return finalScore(p, o, 0);
+            } else if (empties == 1) {
+                return solve1(p, o, Long.numberOfTrailingZeros(empty));
+            } else if (empties == 2) {
+                return solve2(p, o, alpha, beta, empty, false);
+            } else {
+                return solve3(p, o, alpha, beta, empty, false);
+            }
+        }
+
+        // The opponent keeps its stable discs, which caps the final margin.
+        // It cannot keep more discs than it has, so most positions skip this.
+        if (alpha >= dim * dim - 2 * Long.bitCount(o)) {
+            int most = dim * dim - 2 * Long.bitCount(BitBoard.stable(o, p, dim));
+            if (most <= alpha) {
+                leaves++;
+                return most;
+            }
+        }
+
+        long moves = BitBoard.moves(p, o, dim);
+
+        if (moves == 0) {
+            if (passed) {
+                leaves++;
+                return finalScore(p, o, empties);
+            }
+            return -solve(o, p, -beta, -alpha, true);
+        }
+
+        long key = 0;
+        int hashMove = TranspositionTable.NO_MOVE;
+
+        if (empties >= TABLE_EMPTIES) {
+            key = key(p, o);
+            long entry = table.probe(key);
+            probes++;
+            if (entry != 0) {
+                hits++;
+                int score = TranspositionTable.score(entry);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && score >= beta)
+                        || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+                hashMove = TranspositionTable.move(entry);
+            }
+        }
+
+        int alphaOrig = alpha;
+        int n = orderMoves(p, o, moves, empties, hashMove);
+        int[] list = moveBuf[empties];
+        int best = -Integer.MAX_VALUE;
+        int bestMove = list[0];
+
+        for (int i = 0; i < n; i++) {
+            int sq = list[i];
+            long flipped = BitBoard.flips(p, o, sq, dim);
+            long np = o & ~flipped;
+            long no = p | flipped | (1L << sq);
+            int value;
+            if (i == 0) {
+                value = -solve(np, no, -beta, -alpha, false);
+            } else {
+                // Prove cheaply that the move is no better than the first
+                value = -solve(np, no, -alpha - 1, -alpha, false);
+                if (value > alpha && value < beta) {
+                    value = -solve(np, no, -beta, -value, false);
+                }
+            }
+            if (aborted) {
+                return 0;
+            }
+            if (value > best) {
+                best = value;
+                bestMove = sq;
+                if (value > alpha) {
+                    alpha = value;
+                    if (alpha >= beta) {
+                        cutoffs++;
+                        if (i == 0) {
+                            firstMoveCutoffs++;
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (empties >= TABLE_EMPTIES) {
+            int bound = (best >= beta) ? TranspositionTable.LOWER
+                    : (best <= alphaOrig) ? TranspositionTable.UPPER : TranspositionTable.EXACT;
+            table.store(key, TranspositionTable.SOLVED, bound, best, bestMove);
+        }
+
+        return best;
+    }
+
+    /**
+     * Return the exact value with three empty squares left. The squares are
+     * tried with the lone square of a quadrant first, for parity.
+     */
+    private int solve3(long p, long o, int alpha, int beta, long empty, boolean passed) {
+
+        statesVisited++;
+
+        int sq1 = Long.numberOfTrailingZeros(empty);
+        int sq2 = Long.numberOfTrailingZeros(empty & (empty - 1));
+        int sq3 = 63 - Long.numberOfLeadingZeros(empty);
+
+        // Put a square that is alone in its quadrant first
+        if (sameQuadrant(sq2, sq3) && !sameQuadrant(sq1, sq2)) {
+            // sq1 is already alone
+        } else if (sameQuadrant(sq1, sq3) && !sameQuadrant(sq1, sq2)) {
+            int t = sq1; sq1 = sq2; sq2 = t;
+        } else if (sameQuadrant(sq1, sq2) && !sameQuadrant(sq1, sq3)) {
+            int t = sq1; sq1 = sq3; sq3 = t;
+        }
+
+        int best = -Integer.MAX_VALUE;
+        int[] squares = { sq1, sq2, sq3 };
+
+        for (int sq : squares) {
+            long flipped = BitBoard.flips(p, o, sq, dim);
+            if (flipped != 0) {
+                long rest = empty & ~(1L << sq);
+                int value = -solve2(o & ~flipped, p | flipped | (1L << sq), -beta, -alpha, rest, false);
+                if (value > best) {
+                    best = value;
+                    if (value > alpha) {
+                        alpha = value;
+                        if (alpha >= beta) {
+                            return best;
+                        }
+                    }
+                }
+            }
+        }
+
+        if (best == -Integer.MAX_VALUE) {
+            if (passed) {
+                leaves++;
+                return finalScore(p, o, 3);
+            }
+            return -solve3(o, p, -beta, -alpha, empty, true);
+        }
+
+        return best;
+    }
+
+    /**
+     * Return the exact value with two empty squares left
+     */
+    private int solve2(long p, long o, int alpha, int beta, long empty, boolean passed) {
+
+        statesVisited++;
+
+        int sq1 = Long.numberOfTrailingZeros(empty);
+        int sq2 = 63 - Long.numberOfLeadingZeros(empty);
+
+        int best = -Integer.MAX_VALUE;
+
+        long flipped = BitBoard.flips(p, o, sq1, dim);
+        if (flipped != 0) {
+            best = -solve1(o & ~flipped, p | flipped | (1L << sq1), sq2);
+            if (best >= beta) {
+                return best;
+            }
+        }
+
+        flipped = BitBoard.flips(p, o, sq2, dim);
+        if (flipped != 0) {
+            best = Math.max(best, -solve1(o & ~flipped, p | flipped | (1L << sq2), sq1));
+        }
+
+        if (best == -Integer.MAX_VALUE) {
+            if (passed) {
+                leaves++;
+                return finalScore(p, o, 2);
+            }
+            return -solve2(o, p, -beta, -alpha, empty, true);
+        }
+
+        return best;
+    }
+
+    /**
+     * Return the exact value with one empty square left. Either the player
+     * to move takes it, or the opponent does, or nobody can.
+     */
+    private int solve1(long p, long o, int sq) {
+
+        statesVisited++;
+        leaves++;
+
+        long flipped = BitBoard.flips(p, o, sq, dim);
+        if (flipped != 0) {
+            int n = Long.bitCount(flipped);
+            return Long.bitCount(p) + n + 1 - (Long.bitCount(o) - n);
+        }
+
+        flipped = BitBoard.flips(o, p, sq, dim);
+        if (flipped != 0) {
+            int n = Long.bitCount(flipped);
+            return Long.bitCount(p) - n - (Long.bitCount(o) + n + 1);
+        }
+
+        return finalScore(p, o, 1);
+    }
+
+    /**
+     * Score a finished game. Empty squares go to the winner.
+     *
+     * @param p         discs of the player to move
+     * @param o         discs of the opponent
+     * @param empties   number of empty squares
+     * @return          final disc differential for the player to move
+     */
+    private static int finalScore(long p, long o, int empties) {
+        int diff = Long.bitCount(p) - Long.bitCount(o);
+        if (diff > 0) {
+            return diff + empties;
+        } else if (diff < 0) {
+            return diff - empties;
+        }
+        return 0;
+    }
+
+    /**
+     * Fill {@code moveBuf[empties]} with the given moves, best first
+     *
+     * @param p         discs of the player to move
+     * @param o         discs of the opponent
+     * @param moves     mask of legal moves
+     * @param empties   number of empty squares, which picks the buffer
+     * @param hashMove  best move stored in the table, searched first
+     * @return          number of moves
+     */
+    private int orderMoves(long p, long o, long moves, int empties, int hashMove) {
+
+        int[] list = moveBuf[empties];
+        int[] keys = keyBuf[empties];
+        int n = 0;
+
+        if (empties > FASTEST_FIRST) {
+            // Fastest first: fewest opponent replies, corners breaking ties
+            while (moves != 0) {
+                int sq = Long.numberOfTrailingZeros(moves);
+                moves &= moves - 1;
+                long flipped = BitBoard.flips(p, o, sq, dim);
+                long np = p | flipped | (1L << sq);
+                long no = o & ~flipped;
+                long replies = BitBoard.moves(no, np, dim);
+                int key = Long.bitCount(replies) * 4 - (isCorner(sq) ? 2 : 0);
+                if (sq == hashMove) {
+                    key = Integer.MIN_VALUE;
+                }
+                list[n] = sq;
+                keys[n] = key;
+                n++;
+            }
+        } else {
+            // Parity: squares in a quadrant with an odd number of empties first
+            long empty = BitBoard.empty(p, o, dim);
+            long odd = 0;
+            for (long q : quadrants) {
+                if ((Long.bitCount(empty & q) & 1) == 1) {
+                    odd |= q;
+                }
+            }
+            while (moves != 0) {
+                int sq = Long.numberOfTrailingZeros(moves);
+                moves &= moves - 1;
+                list[n] = sq;
+                keys[n] = (sq == hashMove) ? -1 : ((odd >>> sq) & 1) == 1 ? 0 : 1;
+                n++;
+            }
+        }
+
+        for (int i = 1; i < n; i++) {
+            int sq = list[i];
+            int key = keys[i];
+            int j = i - 1;
+            while (j >= 0 && keys[j] > key) {
+                list[j + 1] = list[j];
+                keys[j + 1] = keys[j];
+                j--;
+            }
+            list[j + 1] = sq;
+            keys[j + 1] = key;
+        }
+
+        return n;
+    }
+
+    /**
+     * Hash the position for the transposition table
+     *
+     * @param p         discs of the player to move
+     * @param o         discs of the opponent
+     * @return          64-bit key
+     */
+    private static long key(long p, long o) {
+        long h = p * 0x9E3779B97F4A7C15L ^ Long.rotateLeft(o * 0xC2B2AE3D27D4EB4FL, 31);
+        h ^= h >>> 29;
+        h *= 0xBF58476D1CE4E5B9L;
+        return h ^ (h >>> 32);
+    }
+
+    /**
+     * @return          {@code true} if the two squares share a quadrant
+     */
+    private boolean sameQuadrant(int a, int b) {
+        for (long q : quadrants) {
+            if (((q >>> a) & 1) == 1) {
+                return ((q >>> b) & 1) == 1;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return          {@code true} if the square is a corner of the board
+     */
+    private boolean isCorner(int sq) {
+        return ((corners >>> sq) & 1) == 1;
+    }
+}
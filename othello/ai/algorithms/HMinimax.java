@@ -1,5 +1,7 @@
 package othello.ai.algorithms;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import othello.ai.search.Problem;
 
 /**
@@ -11,6 +13,11 @@ public class HMinimax<State, Action, Player> implements SearchAlgorithm<State, A
     private Problem<State, Action, Player> prob;        // Generic Instance of Problem
     private int depthLimit;                             // Depth Limit
     private int statesVisited;                          // Number of States visited
+    private int leaves;                                 // States scored without searching further
+    private int maxDepth;                               // Deepest ply reached
+    private SearchStats stats = new SearchStats();      // Statistics of the last search
+    private AtomicBoolean stop;                         // Raised by another thread to abandon the search
+    private boolean aborted;                            // Was the last search abandoned?
 
     /**
      * Create a new instance of the H-MINIMAX solver
@@ -32,8 +39,11 @@ public class HMinimax<State, Action, Player> implements SearchAlgorithm<State, A
     public Action solve(State s) {
         
         statesVisited = 0;                              // Reset States Visited to 0
+        leaves = 0;
+        maxDepth = 0;
+        aborted = false;
 
-        long startTime = System.currentTimeMillis();    // Store the start time for the timer
+        long startTime = System.nanoTime();             // Store the start time for the timer
 
         int max = Integer.MIN_VALUE;                    // MIN_VALUE to represent -inf
         Action action = null;                           // Store the action that we like best
@@ -41,21 +51,44 @@ public class HMinimax<State, Action, Player> implements SearchAlgorithm<State, A
         int depth = 1;                                  // Depth Level to start at
 
         for (Action a : prob.actions(s)) {
-            int minimaxValue = minValue(prob.result(s, a), p, depth);
+            prob.apply(s, a);
+            int minimaxValue = minValue(s, p, depth);
+            prob.undo(s);
+            if (aborted) {
+                break;                                  // Keep the best of the actions searched in full
+            }
             if (minimaxValue > max) {
                 max = minimaxValue;
                 action = a;
             }
         }
 
-        long finishTime = System.currentTimeMillis();    // Store the end time for the timer
-        float time = (finishTime - startTime) / 1000F;   // Calculate the Elapsed time
+        long time = System.nanoTime() - startTime;      // Calculate the Elapsed time
 
-        System.out.println("Visited " + statesVisited + " states.");
-        System.out.println("Elasped Time: " + time + " s.");
+        stats = new SearchStats();
+        stats.addStates(statesVisited, leaves, maxDepth);
+        stats.addIteration(depthLimit, statesVisited, time);
+        stats.setTime(time);
 
         return action;
     }
+
+    @Override
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Abandon the search as soon as the given signal is raised. The search
+     * then returns the best of the root's actions it finished searching, or
+     * {@code null} if it had not finished any.
+     *
+     * @param stop      signal to watch
+     */
+    @Override
+    public void setStopSignal(AtomicBoolean stop) {
+        this.stop = stop;
+    }
     
     /**
      * Return the maximum minimax value
@@ -68,10 +101,20 @@ public class HMinimax<State, Action, Player> implements SearchAlgorithm<State, A
     private int maxValue(State s, Player p, int depth) {
         
         statesVisited++;
+        maxDepth = Math.max(maxDepth, depth);
+
+        if ((statesVisited & 1023) == 0 && stop != null && stop.get()) {
+            aborted = true;
+        }
+        if (aborted) {
+            return 0;
+        }
 
         if (cutoff(depth)) {
-            return prob.heuristic(s);
+            leaves++;
+            return prob.heuristic(s, p);
         } else if (prob.isTerminal(s)) {
+            leaves++;
             return prob.utility(s, p);
         }
 
@@ -79,7 +122,9 @@ public class HMinimax<State, Action, Player> implements SearchAlgorithm<State, A
         depth++;
 
         for (Action a : prob.actions(s)) {
-            max = Math.max(max, minValue(prob.result(s, a), p, depth));
+            prob.apply(s, a);
+            max = Math.max(max, minValue(s, p, depth));
+            prob.undo(s);
         }
 
         return max;
@@ -96,10 +141,20 @@ public class HMinimax<State, Action, Player> implements SearchAlgorithm<State, A
     private int minValue(State s, Player p, int depth) {
         
         statesVisited++;
+        maxDepth = Math.max(maxDepth, depth);
+
+        if ((statesVisited & 1023) == 0 && stop != null && stop.get()) {
+            aborted = true;
+        }
+        if (aborted) {
+            return 0;
+        }
 
         if (cutoff(depth)) {
-            return prob.heuristic(s);
+            leaves++;
+            return prob.heuristic(s, p);
         } else if (prob.isTerminal(s)) {
+            leaves++;
             return prob.utility(s, p);
         }
 
@@ -107,7 +162,9 @@ public class HMinimax<State, Action, Player> implements SearchAlgorithm<State, A
         depth++;
 
         for (Action a : prob.actions(s)) {
-            min = Math.min(min, maxValue(prob.result(s, a), p, depth));
+            prob.apply(s, a);
+            min = Math.min(min, maxValue(s, p, depth));
+            prob.undo(s);
         }
 
         return min;
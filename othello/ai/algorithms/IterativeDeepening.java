@@ -0,0 +1,144 @@
+package othello.ai.algorithms;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import othello.ai.search.EncodedProblem;
+import othello.ai.search.MoveOrdering;
+import othello.ai.search.PrimitiveProblem;
+import othello.ai.search.Problem;
+import othello.ai.search.TranspositionTable;
+
+/**
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-17-2021
+ */
+public class IterativeDeepening<State, Action, Player> implements SearchAlgorithm<State, Action> {
+
+    private static final int MAX_DEPTH = 64;            // No game lasts longer than this many plies
+
+    private Problem<State, Action, Player> prob;        // Generic Instance of Problem
+    private long timeLimit;                             // Time allowed per move, in milliseconds
+    private TranspositionTable table;                   // Shared between iterations
+    private AtomicBoolean stop;                         // Raised by another thread to end the search early, or null
+    private SearchListener<Action> listener;            // Told about each completed iteration, or null
+    private int completedDepth;                         // Depth of the last completed iteration
+    private SearchStats stats = new SearchStats();      // Statistics of the last search
+
+    /**
+     * Create a new instance of H-MINIMAX with ALPHA-BETA cutoff that deepens
+     * one ply at a time until the time limit runs out
+     *
+     * @param problem       generic instance of {@code Problem}
+     * @param timeLimit     time allowed per move, in milliseconds
+     * @param table         transposition table shared between iterations
+     */
+    public IterativeDeepening(Problem<State, Action, Player> problem, long timeLimit, TranspositionTable table) {
+        this.prob = problem;
+        this.timeLimit = timeLimit;
+        this.table = table;
+    }
+
+    /**
+     * Watch a flag that another thread may raise to end the search before its
+     * time limit. The search then stops as if time had run out, and plays the
+     * move of the last completed iteration.
+     *
+     * @param stop      signal to watch
+     */
+    @Override
+    public void setStopSignal(AtomicBoolean stop) {
+        this.stop = stop;
+    }
+
+    /**
+     * Report the move and value of every iteration as it completes
+     *
+     * @param listener  told about each completed iteration
+     */
+    @Override
+    public void setListener(SearchListener<Action> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Solve for the next best state. Each iteration searches one ply deeper
+     * than the last. The best move of every iteration is stored in the
+     * transposition table, so the next iteration searches the previous
+     * principal variation first. When time runs out the unfinished iteration
+     * is thrown away and the move from the last completed one is played.
+     *
+     * @param s         current {@code State}
+     */
+    @Override
+    public Action solve(State s) {
+
+        long startTime = System.nanoTime();             // Store the start time for the timer
+        long deadline = startTime + timeLimit * 1000000L;
+
+        Action action = null;                           // Best action of the last completed iteration
+        completedDepth = 0;
+        stats = new SearchStats();
+
+        // One encoding of the problem for every iteration, so the orderer and the searches agree
+        PrimitiveProblem<State, Action, Player> encoded = EncodedProblem.of(prob);
+        MoveOrdering<State, Action, Player> ordering = new MoveOrdering<>(encoded);
+
+        for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+
+            MinimaxAlphaBeta<State, Action, Player> search = new MinimaxAlphaBeta<>(encoded, depth, table);
+            search.setDeadline(deadline);
+            search.setStopSignal(stop);
+            search.setMoveOrdering(ordering);
+
+            long iterationStart = System.nanoTime();
+            Action a = search.search(s);
+            stats.add(search.getStats());
+
+            if (search.wasAborted()) {
+                break;
+            }
+
+            stats.addIteration(depth, search.getStatesVisited(), System.nanoTime() - iterationStart);
+
+            action = a;
+            completedDepth = depth;
+
+            if (listener != null && a != null) {
+                listener.iterationCompleted(depth, a, search.getBestValue());
+            }
+
+            // Deeper iterations cannot change a tree that was searched to the end
+            if (a == null || !search.reachedDepthLimit()) {
+                break;
+            }
+        }
+
+        // Even the first iteration ran out of time, so play the first legal move
+        if (action == null && !prob.actions(s).isEmpty()) {
+            action = prob.actions(s).get(0);
+        }
+
+        stats.setTime(System.nanoTime() - startTime);
+
+        return action;
+    }
+
+    /**
+     * Returns the statistics of the last search. The counts include the
+     * iteration that ran out of time, but only the completed iterations are
+     * listed.
+     *
+     * @return          statistics of the last search
+     */
+    @Override
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    /**
+     * @return          depth of the last completed iteration of the last search
+     */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+}
@@ -0,0 +1,210 @@
+package othello.ai.algorithms;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import othello.ai.search.EncodedProblem;
+import othello.ai.search.MoveOrdering;
+import othello.ai.search.PrimitiveProblem;
+import othello.ai.search.Problem;
+import othello.ai.search.TranspositionTable;
+
+/**
+ * Parallel H-MINIMAX with ALPHA-BETA cutoff in the style of Lazy SMP. Every
+ * thread runs its own iterative deepening search of the same root on its own
+ * copy of the state, and all of them share one lock-free transposition table.
+ * Each helper tries the root's actions in a different order, so the threads
+ * spread out over the tree and fill the table for each other. The first
+ * thread to finish an iteration at the depth limit supplies the answer.
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-17-2021
+ */
+public class LazySMP<State, Action, Player> implements SearchAlgorithm<State, Action> {
+
+    private Problem<State, Action, Player> prob;        // Generic Instance of Problem
+    private int depthLimit;                             // Depth Limit
+    private int threads;                                // Number of searching threads
+    private TranspositionTable table;                   // Shared by every thread
+
+    private AtomicBoolean finished;                     // Raised once an answer is known
+    private AtomicBoolean stop;                         // Raised by another thread to end the search early, or null
+    private SearchListener<Action> listener;            // Told about each iteration the calling thread completes, or null
+    private AtomicLong statesVisited;                   // States visited by all threads
+    private SearchStats stats = new SearchStats();      // Statistics of every thread's searches
+    private volatile Action result;                     // Answer of the first thread to finish
+    private Action completed;                           // Answer of the calling thread's last completed iteration
+
+    /**
+     * Create a new instance of the parallel H-MINIMAX with ALPHA-BETA cutoff
+     *
+     * @param problem       generic instance of {@code Problem}
+     * @param lim           depth limit
+     * @param threads       number of searching threads, including the caller's
+     * @param table         transposition table shared by the threads
+     */
+    public LazySMP(Problem<State, Action, Player> problem, int lim, int threads, TranspositionTable table) {
+        this.prob = problem;
+        this.depthLimit = lim;
+        this.threads = Math.max(1, threads);
+        this.table = table;
+    }
+
+    /**
+     * Watch a flag that another thread may raise to end the search early.
+     * Every thread then gives up, and the move of the calling thread's last
+     * completed iteration is played.
+     *
+     * @param stop      signal to watch
+     */
+    @Override
+    public void setStopSignal(AtomicBoolean stop) {
+        this.stop = stop;
+    }
+
+    /**
+     * Report each iteration the calling thread completes. The helpers'
+     * iterations are not reported.
+     *
+     * @param listener  told about each completed iteration
+     */
+    @Override
+    public void setListener(SearchListener<Action> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Solve for the next best state
+     *
+     * @param s         current {@code State}
+     */
+    @Override
+    public Action solve(State s) {
+
+        long startTime = System.nanoTime();             // Store the start time for the timer
+
+        Action action = search(s);
+
+        stats.setTime(System.nanoTime() - startTime);
+
+        return action;
+    }
+
+    /**
+     * Returns the statistics of the last search. The counts are summed over
+     * every thread, while the iterations listed are those of the calling
+     * thread alone.
+     *
+     * @return          statistics of the last search
+     */
+    @Override
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    /**
+     * @return          number of states visited by every thread in the last search
+     */
+    public long getStatesVisited() {
+        return statesVisited.get();
+    }
+
+    /**
+     * Search for the best action without reporting on the search
+     *
+     * @param s         current {@code State}
+     * @return          best action, or {@code null} if there is none
+     */
+    Action search(State s) {
+
+        finished = new AtomicBoolean();
+        statesVisited = new AtomicLong();
+        stats = new SearchStats();
+        result = null;
+        completed = null;
+
+        Thread[] helpers = new Thread[threads - 1];
+
+        for (int i = 0; i < helpers.length; i++) {
+            int index = i + 1;
+            State copy = prob.copy(s);
+            helpers[i] = new Thread(() -> iterate(copy, index), "lazy-smp-" + index);
+            helpers[i].start();
+        }
+
+        // The calling thread searches too, on its own copy so the
+        // caller's state is never touched by another thread
+        iterate(prob.copy(s), 0);
+
+        for (Thread helper : helpers) {
+            try {
+                helper.join();
+            } catch (InterruptedException e) {
+                finished.set(true);
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // Stopped before any thread finished the depth limit
+        if (result == null) {
+            return completed;
+        }
+
+        return result;
+    }
+
+    /**
+     * Deepen one ply at a time until some thread finishes the depth limit
+     *
+     * @param s         this thread's copy of the root
+     * @param index     thread number, {@code 0} for the calling thread
+     */
+    private void iterate(State s, int index) {
+
+        // This thread's own encoding of the problem, shared by its orderer and searches
+        PrimitiveProblem<State, Action, Player> encoded = EncodedProblem.of(prob);
+        MoveOrdering<State, Action, Player> ordering = new MoveOrdering<>(encoded);
+
+        for (int depth = 1; depth <= depthLimit && !finished.get(); depth++) {
+
+            MinimaxAlphaBeta<State, Action, Player> search = new MinimaxAlphaBeta<>(encoded, depth, table);
+            search.setStopSignal(stop);
+            search.setFinishedSignal(finished);
+            search.setRootShift(index);
+            search.setMoveOrdering(ordering);
+
+            long iterationStart = System.nanoTime();
+            Action a = search.search(s);
+            statesVisited.addAndGet(search.getStatesVisited());
+
+            synchronized (stats) {
+                stats.add(search.getStats());
+                if (index == 0 && !search.wasAborted()) {
+                    stats.addIteration(depth, search.getStatesVisited(), System.nanoTime() - iterationStart);
+                }
+            }
+
+            if (search.wasAborted()) {
+                return;
+            }
+
+            if (index == 0 && a != null) {
+                completed = a;
+                if (listener != null) {
+                    listener.iterationCompleted(depth, a, search.getBestValue());
+                }
+            }
+
+            boolean complete = a == null || !search.reachedDepthLimit();
+
+            if ((depth == depthLimit || complete) && finished.compareAndSet(false, true)) {
+                result = a;
+                return;
+            }
+
+            if (complete) {
+                return;
+            }
+        }
+    }
+}
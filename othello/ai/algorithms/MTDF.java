@@ -0,0 +1,144 @@
+package othello.ai.algorithms;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import othello.ai.search.Problem;
+import othello.ai.search.TranspositionTable;
+
+/**
+ * H-MINIMAX with MTD(f). The value of the root is found with a series of null
+ * window searches, each one proving the value is above or below a guess. The
+ * bounds close in on the true value. The transposition table carries each
+ * search's work over to the next, so the repeated searches cost little more
+ * than a single one.
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-17-2021
+ */
+public class MTDF<State, Action, Player> implements SearchAlgorithm<State, Action> {
+
+    private PrincipalVariation<State, Action, Player> search;   // Null-window searches of the root
+    private int firstGuess;                                     // Where the first window is placed
+    private int bestValue;                                      // Value of the last best action
+    private int passes;                                         // Null-window searches in the last solve
+    private int depthLimit;                                     // Depth limit of every pass
+    private SearchStats stats = new SearchStats();              // Statistics of the last search
+
+    /**
+     * Create a new instance of the MTD(f) solver
+     *
+     * @param problem       generic instance of {@code Problem}
+     * @param lim           depth limit
+     * @param table         transposition table to read and write
+     */
+    public MTDF(Problem<State, Action, Player> problem, int lim, TranspositionTable table) {
+        this.search = new PrincipalVariation<>(problem, lim, table);
+        this.depthLimit = lim;
+    }
+
+    /**
+     * Place the first null window at the given value, typically the value
+     * found by the previous search
+     *
+     * @param guess     first guess at the value of the root
+     */
+    public void setFirstGuess(int guess) {
+        this.firstGuess = guess;
+    }
+
+    /**
+     * Abandon the search as soon as the given signal is raised. The search
+     * then returns the action of the last pass that proved a lower bound on
+     * the root, or {@code null} if no pass had.
+     *
+     * @param stop      signal to watch
+     */
+    @Override
+    public void setStopSignal(AtomicBoolean stop) {
+        search.setStopSignal(stop);
+    }
+
+    /**
+     * Solve for the next best state
+     *
+     * @param s         current {@code State}
+     */
+    @Override
+    public Action solve(State s) {
+
+        long startTime = System.nanoTime();             // Store the start time for the timer
+
+        search.reset();
+
+        int g = firstGuess;
+        int lower = Integer.MIN_VALUE;
+        int upper = Integer.MAX_VALUE;
+        Action action = null;
+        passes = 0;
+
+        while (lower < upper) {
+
+            int beta = (g == lower) ? g + 1 : g;
+
+            int value = search.rootValue(s, beta - 1, beta);
+            passes++;
+
+            if (search.wasAborted()) {
+                break;
+            }
+
+            g = value;
+
+            if (g < beta) {
+                upper = g;
+            } else {
+                lower = g;
+                // The root is worth at least g, and this action proves it
+                action = search.getBestAction();
+            }
+        }
+
+        // Every search failed low, so no action beat the lowest possible value
+        if (action == null && !search.wasAborted()) {
+            action = search.getBestAction();
+        }
+
+        bestValue = g;
+
+        long time = System.nanoTime() - startTime;      // Calculate the Elapsed time
+
+        // The passes all search to the same depth, so together they are one iteration
+        stats = new SearchStats();
+        stats.add(search.getStats());
+        stats.addIteration(depthLimit, search.getStatesVisited(), time);
+        stats.setTime(time);
+
+        return action;
+    }
+
+    @Override
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    /**
+     * @return          number of null-window searches in the last search
+     */
+    public int getPasses() {
+        return passes;
+    }
+
+    /**
+     * @return          number of states visited by the last search
+     */
+    public int getStatesVisited() {
+        return search.getStatesVisited();
+    }
+
+    /**
+     * @return          minimax value of the action returned by the last search
+     */
+    public int getBestValue() {
+        return bestValue;
+    }
+}
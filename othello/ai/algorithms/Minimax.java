@@ -1,5 +1,7 @@
 package othello.ai.algorithms;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import othello.ai.search.Problem;
 
 /**
@@ -10,6 +12,11 @@ public class Minimax<State, Action, Player> implements SearchAlgorithm<State, Ac
 
     private Problem<State, Action, Player> prob;
     private int statesVisited;
+    private int leaves;                                 // Finished games scored
+    private int maxDepth;                               // Deepest ply reached
+    private SearchStats stats = new SearchStats();      // Statistics of the last search
+    private AtomicBoolean stop;                         // Raised by another thread to abandon the search
+    private boolean aborted;                            // Was the last search abandoned?
 
     /**
      * Create a new instance of the MINIMAX solver
@@ -31,49 +38,87 @@ public class Minimax<State, Action, Player> implements SearchAlgorithm<State, Ac
     public Action solve(State s) {
         
         statesVisited = 0;                              // Reset States Visited to 0
+        leaves = 0;
+        maxDepth = 0;
+        aborted = false;
 
-        long startTime = System.currentTimeMillis();    // Store the start time for the timer
+        long startTime = System.nanoTime();             // Store the start time for the timer
 
         int max = Integer.MIN_VALUE;                    // MIN_VALUE to represent -inf
         Action action = null;                           // Store the action that we like best
         Player p = prob.whoseTurn(s);                   // Whose turn is it in this state?
 
         for (Action a : prob.actions(s)) {
-            int minimaxValue = minValue(prob.result(s, a), p);
+            prob.apply(s, a);
+            int minimaxValue = minValue(s, p, 1);
+            prob.undo(s);
+            if (aborted) {
+                break;                                  // Keep the best of the actions searched in full
+            }
             if (minimaxValue > max) {
                 max = minimaxValue;
                 action = a;
             }
         }
 
-        long finishTime = System.currentTimeMillis();    // Store the end time for the timer
-        float time = (finishTime - startTime) / 1000F;   // Calculate the Elapsed time
+        long time = System.nanoTime() - startTime;      // Calculate the Elapsed time
 
-        System.out.println("Visited " + statesVisited + " states.");
-        System.out.println("Elasped Time: " + time + " s.");
+        stats = new SearchStats();
+        stats.addStates(statesVisited, leaves, maxDepth);
+        stats.addIteration(maxDepth, statesVisited, time);
+        stats.setTime(time);
 
         return action;
     }
 
+    @Override
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Give up the search once the given signal is raised, keeping the best
+     * root action whose whole subtree had been searched, or {@code null} if
+     * there was none yet.
+     *
+     * @param stop      signal to watch
+     */
+    @Override
+    public void setStopSignal(AtomicBoolean stop) {
+        this.stop = stop;
+    }
+
     /**
      * Returns the maximum value backed up the tree for the given state
      * 
      * @param s     {@code State} given state
      * @param p     current turn
+     * @param depth ply of the state below the root
      * @return      max value of the subtree
      */
-    private int maxValue(State s, Player p) {
+    private int maxValue(State s, Player p, int depth) {
 		
         statesVisited++;
+        maxDepth = Math.max(maxDepth, depth);
+
+        if ((statesVisited & 1023) == 0 && stop != null && stop.get()) {
+            aborted = true;
+        }
+        if (aborted) {
+            return 0;
+        }
 
 		if (prob.isTerminal(s)) {
+			leaves++;
 			return prob.utility(s, p);
 		} 
 		
 		int max = Integer.MIN_VALUE;
 
 		for (Action a : prob.actions(s)) {
-			max = Math.max(max, minValue(prob.result(s, a), p));
+			prob.apply(s, a);
+			max = Math.max(max, minValue(s, p, depth + 1));
+			prob.undo(s);
 		}
 
 		return max;
@@ -85,20 +130,32 @@ public class Minimax<State, Action, Player> implements SearchAlgorithm<State, Ac
      * 
      * @param s     {@code State} given state
      * @param p     current turn
+     * @param depth ply of the state below the root
      * @return      min value of the subtree
      */
-	private int minValue(State s, Player p) {
+	private int minValue(State s, Player p, int depth) {
 		
         statesVisited++;
+        maxDepth = Math.max(maxDepth, depth);
+
+        if ((statesVisited & 1023) == 0 && stop != null && stop.get()) {
+            aborted = true;
+        }
+        if (aborted) {
+            return 0;
+        }
 
 		if (prob.isTerminal(s)) {
+			leaves++;
 			return prob.utility(s, p);
 		} 
 		
 		int min = Integer.MAX_VALUE;
 
 		for (Action a : prob.actions(s)) {
-			min = Math.min(min, maxValue(prob.result(s, a), p));
+			prob.apply(s, a);
+			min = Math.min(min, maxValue(s, p, depth + 1));
+			prob.undo(s);
 		}
 
 		return min;
@@ -1,16 +1,20 @@
 package othello.ai.algorithms;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import othello.ai.search.MoveOrdering;
 import othello.ai.search.Problem;
+import othello.ai.search.TranspositionTable;
 
 /**
  * @author Emma Campbell & Emma Schechter
  * @since 02-17-2021
  */
-public class MinimaxAlphaBeta<State, Action, Player> implements SearchAlgorithm<State, Action> {
+public class MinimaxAlphaBeta<State, Action, Player> extends AlphaBetaSearch<State, Action, Player> {
 
-    private Problem<State, Action, Player> prob;
-    private int depthLimit;
-    private int statesVisited;
+    private long deadline = Long.MAX_VALUE;             // System.nanoTime() at which to give up
+    private AtomicBoolean finished;                     // Raised once a parallel search has its answer, or null
+    private int rootShift;                              // Rotation applied to the root's move order
 
     /**
      * Return a new instance of the H-MINIMAX with ALPHA-BETA cutoff
@@ -19,8 +23,19 @@ public class MinimaxAlphaBeta<State, Action, Player> implements SearchAlgorithm<
      * @param lim           depth limit
      */
     public MinimaxAlphaBeta(Problem<State, Action, Player> problem, int lim) {
-        this.prob = problem;
-        this.depthLimit = lim;
+        this(problem, lim, new TranspositionTable(18));
+    }
+
+    /**
+     * Return a new instance of the H-MINIMAX with ALPHA-BETA cutoff that
+     * remembers positions in the given transposition table
+     * 
+     * @param problem       generic instance of {@code Problem}
+     * @param lim           depth limit
+     * @param table         transposition table to read and write
+     */
+    public MinimaxAlphaBeta(Problem<State, Action, Player> problem, int lim, TranspositionTable table) {
+        super(problem, lim, table);
     }
 
     /**
@@ -31,111 +46,164 @@ public class MinimaxAlphaBeta<State, Action, Player> implements SearchAlgorithm<
     @Override
     public Action solve(State s) {
         
-        statesVisited = 0;                              // Reset States Visited to 0
+        long startTime = System.nanoTime();             // Store the start time for the timer
 
-        long startTime = System.currentTimeMillis();    // Store the start time for the timer
+        Action action = search(s);
 
-        int max = Integer.MIN_VALUE;                    // MIN_VALUE to represent -inf
-        Action action = null;                           // Store the action that we like best
-        Player p = prob.whoseTurn(s);                   // Whose turn is it in this state?
-        int depth = 1;                                  // Depth Level to start at
+        nanos = System.nanoTime() - startTime;          // Calculate the Elapsed time
 
-        for (Action a : prob.actions(s)) {
-            int minimaxValue = minValue(prob.result(s, a), p, depth, Integer.MIN_VALUE, Integer.MAX_VALUE);
-            if (minimaxValue > max) {
-                max = minimaxValue;
-                action = a;
-            }
-        }
+        return action;
+    }
 
-        long finishTime = System.currentTimeMillis();    // Store the end time for the timer
-        float time = (finishTime - startTime) / 1000F;   // Calculate the Elapsed time
+    /**
+     * Stop searching once {@code System.nanoTime()} passes the given deadline.
+     * A search that runs out of time returns early and {@code wasAborted()}
+     * reports {@code true}; its result must then be discarded.
+     * 
+     * @param deadline  deadline in {@code System.nanoTime()} units
+     */
+    public void setDeadline(long deadline) {
+        this.deadline = deadline;
+    }
 
-        System.out.println("Visited " + statesVisited + " states.");
-        System.out.println("Elasped Time: " + time + " s.");
+    /**
+     * Abandon the search as well when a second signal is raised. Used by
+     * parallel searches, whose threads stop one another this way while
+     * still watching the caller's signal.
+     * 
+     * @param finished  second signal to watch
+     */
+    void setFinishedSignal(AtomicBoolean finished) {
+        this.finished = finished;
+    }
 
-        return action;
+    /**
+     * Use the given move orderer, so that killer moves and history scores
+     * carry over from earlier searches
+     * 
+     * @param ordering  move orderer to use
+     */
+    public void setMoveOrdering(MoveOrdering<State, Action, Player> ordering) {
+        this.ordering = ordering;
     }
 
     /**
-     * Return the minimum minimax value 
+     * Rotate the order in which the root's actions are tried, after the best
+     * move from the table. Used to make parallel searches of the same root
+     * diverge.
      * 
-     * @param s             current {@code State}
-     * @param p             current player
-     * @param depth         current depth
-     * @return              minimum minimax value
+     * @param shift     number of places to rotate by
      */
-    private int minValue(State s, Player p, int depth, int alpha, int beta) {
-        
-        statesVisited++;
+    void setRootShift(int shift) {
+        this.rootShift = shift;
+    }
 
-        if (cutoff(depth)) {
-           return prob.heuristic(s);
-        } else if (prob.isTerminal(s)) {
-            return prob.utility(s, p);
-        }
+    /**
+     * @return          {@code true} if the last search stopped at the depth limit
+     *                  anywhere in the tree, {@code false} if it saw every terminal state
+     */
+    public boolean reachedDepthLimit() {
+        return reachedLimit;
+    }
+
+    /**
+     * Search for the best action without reporting on the search
+     * 
+     * @param s         current {@code State}
+     * @return          best action, or {@code null} if there is none
+     */
+    Action search(State s) {
 
-        depth++;
+        reset();
+
+        int max = Integer.MIN_VALUE;                    // MIN_VALUE to represent -inf
+        Player p = prob.whoseTurn(s);                   // Whose turn is it in this state?
+        int depth = 1;                                  // Depth Level to start at
 
-        int min = Integer.MAX_VALUE;
+        long key = prob.hash(s);
+        long entry = probe(key);
+        int best = TranspositionTable.NO_MOVE;
 
-        for (Action a : prob.actions(s)) {
-            
-            min = Math.min(min, maxValue(prob.result(s, a), p, depth, alpha, beta));
+        int[] moves = moveBuf[0];
+        int n = orderedActions(s, entry, 0);
+        if (rootShift != 0 && n > 2) {
+            rotate(moves, 1, n, rootShift);
+        }
 
-            if (min <= alpha) {
-                return min;
+        for (int i = 0; i < n; i++) {
+            prob.apply(s, moves[i]);
+            int minimaxValue = minValue(s, p, depth, max, Integer.MAX_VALUE);
+            prob.undo(s);
+            if (aborted) {
+                return null;
+            }
+            if (minimaxValue > max || best == TranspositionTable.NO_MOVE) {
+                max = minimaxValue;
+                best = moves[i];
             }
+        }
 
-            beta = Math.min(beta, min);
+        if (best != TranspositionTable.NO_MOVE) {
+            table.store(key, storedDepth(depthLimit, false), TranspositionTable.EXACT, max, best);
         }
 
-        return min;
+        bestValue = max;
+        return (best != TranspositionTable.NO_MOVE) ? prob.decode(best) : null;
     }
-    
+
     /**
-     * Return the maximum minimax value
+     * Search the given state to the depth limit for player {@code p}, whoever
+     * is to move, without choosing an action. Like every value in the table,
+     * the values this stores are from {@code p}'s point of view, so a later
+     * search for {@code p}'s move can reuse them. This lets a player search
+     * on its opponent's time.
      * 
-     * @param s             current {@code State}
-     * @param p             current player
-     * @param depth         current depth
-     * @return              maximum minimax value
+     * @param s         current {@code State}
+     * @param p         player whose point of view the values are from
+     * @return          minimax value of the state for {@code p}
      */
-    private int maxValue(State s, Player p, int depth, int alpha, int beta) {
-        
-        statesVisited++;
-
-        if (cutoff(depth)) {
-            return prob.heuristic(s);
-        } else if (prob.isTerminal(s)) {
-            return prob.utility(s, p);
-        }
-
-        depth++;
+    public int value(State s, Player p) {
 
-        int max = Integer.MIN_VALUE;
+        reset();
 
-        for (Action a : prob.actions(s)) {
-            
-            max = Math.max(max, minValue(prob.result(s, a), p, depth, alpha, beta));
-
-            if (max >= beta) {
-                return max;
-            }
-
-            alpha = Math.max(alpha, max);
+        if (prob.whoseTurn(s).equals(p)) {
+            return maxValue(s, p, 0, Integer.MIN_VALUE, Integer.MAX_VALUE);
         }
+        return minValue(s, p, 0, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
 
-        return max;
-    } 
+    /**
+     * Has the deadline passed, or has another thread asked us to stop?
+     * 
+     * @return          {@code true} if the search should be abandoned
+     */
+    @Override
+    boolean outOfTime() {
+        return System.nanoTime() - deadline > 0 || (stop != null && stop.get())
+                || (finished != null && finished.get());
+    }
 
     /**
-     * Have we reached the depth limit?
+     * Rotate part of a move buffer to the right, as {@code Collections.rotate}
+     * does for a list
      * 
-     * @param depth     current depth
-     * @return          {@code true} if depth >= depthLimit, {@code false} otherwise.
+     * @param moves     move buffer
+     * @param from      first index of the part, inclusive
+     * @param to        last index of the part, exclusive
+     * @param shift     number of places to rotate by
      */
-    private boolean cutoff(int depth) {
-        return depth >= depthLimit;
+    private static void rotate(int[] moves, int from, int to, int shift) {
+        int k = shift % (to - from);
+        reverse(moves, from, to);
+        reverse(moves, from, from + k);
+        reverse(moves, from + k, to);
+    }
+
+    private static void reverse(int[] moves, int from, int to) {
+        for (int i = from, j = to - 1; i < j; i++, j--) {
+            int t = moves[i];
+            moves[i] = moves[j];
+            moves[j] = t;
+        }
     }
 }
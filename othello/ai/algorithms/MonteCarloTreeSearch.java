@@ -0,0 +1,423 @@
+package othello.ai.algorithms;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import othello.ai.search.EncodedProblem;
+import othello.ai.search.PrimitiveProblem;
+import othello.ai.search.Problem;
+
+/**
+ * Monte Carlo Tree Search with the UCT selection rule. Instead of scoring
+ * positions with a heuristic at a fixed depth, it plays many games to the end
+ * with random moves and grows a tree towards the moves that win most often.
+ * Each playout walks down the tree, choosing at every node the child with the
+ * best upper confidence bound on its win rate, adds the children of the node
+ * it stops at, plays a random game from there and counts the result in every
+ * node it passed.
+ * <p>
+ * Several threads grow the same tree at once, each on its own copy of the
+ * root. A thread counts its visit to a node on the way down but its result
+ * only on the way back up, so until then the visit counts as a loss. This
+ * virtual loss steers the other threads away from the line it is exploring.
+ * <p>
+ * The tree is kept in parallel arrays indexed by node number, with the
+ * children of a node stored next to each other, rather than in an object per
+ * node. Nodes are never freed during a search; once the arrays are full the
+ * tree stops growing and the playouts carry on from its leaves.
+ * <p>
+ * With progressive bias switched on, the heuristic value of each child is
+ * added to its bound with a weight that fades as the child is visited, so
+ * the heuristic guides the first few visits and the playouts decide the rest.
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-24-2021
+ */
+public class MonteCarloTreeSearch<State, Action, Player> implements SearchAlgorithm<State, Action> {
+
+    private static final int UNEXPANDED = 0;            // Child index of a node with no children yet
+    private static final int EXPANDING = -1;            // Child index while a thread adds the children
+    private static final int TERMINAL = -2;             // Child index of a finished game
+    private static final double EXPLORATION = 0.7;      // Weight of the exploration term of UCT
+    private static final int MAX_PLIES = 256;           // Longer than any game, passes included
+
+    private PrimitiveProblem<State, Action, Player> prob;
+    private long timeLimit;                             // Time allowed per move, in milliseconds
+    private int threads;                                // Number of threads growing the tree
+    private long playoutLimit;                          // Playouts allowed per move, or 0 for no limit
+    private int capacity = 1 << 20;                     // Nodes the tree may hold
+    private double biasWeight;                          // Weight of the progressive bias, 0 for none
+    private double biasScale = 1;                       // Heuristic value at which the bias is three quarters full
+
+    // The tree, indexed by node. Node 0 is the root.
+    private AtomicIntegerArray firstChild;              // First child, or UNEXPANDED, EXPANDING or TERMINAL
+    private int[] childCount;                           // Number of children
+    private byte[] move;                                // Encoded move leading to the node
+    private float[] prior;                              // Heuristic value of the node for the player who moved into it
+    private AtomicIntegerArray visits;                  // Playouts through the node, including unfinished ones
+    private AtomicIntegerArray rewards;                 // Half points won by the player who moved into the node
+    private AtomicLong size;                            // Nodes in use
+
+    private AtomicLong playouts;                        // Playouts started by every thread
+    private long deadline;                              // System.nanoTime() at which to stop
+    private AtomicBoolean stop;                         // Raised by another thread to stop early, or null
+    private Player rootPlayer;                          // Player to move at the root
+    private int maxDepth;                               // Deepest node reached by any thread
+    private long plies;                                 // Moves made in the tree by every thread
+    private SearchStats stats = new SearchStats();      // Statistics of the last search
+    private double winRate;                             // Win rate of the action returned by the last search
+
+    /**
+     * Create a new instance of the MCTS solver
+     *
+     * @param problem       generic instance of {@code Problem}
+     * @param timeLimit     time allowed per move, in milliseconds
+     * @param threads       number of threads growing the tree, including the caller's
+     */
+    public MonteCarloTreeSearch(Problem<State, Action, Player> problem, long timeLimit, int threads) {
+        this.prob = EncodedProblem.of(problem);
+        this.timeLimit = timeLimit;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Stop each search after the given number of playouts, even if there is
+     * time left
+     *
+     * @param playouts  playouts allowed per move, or {@code 0} for no limit
+     */
+    public void setPlayoutLimit(long playouts) {
+        this.playoutLimit = playouts;
+    }
+
+    /**
+     * Set the largest number of nodes the tree may hold. Each node takes
+     * about eighteen bytes.
+     *
+     * @param nodes     nodes the tree may hold
+     */
+    public void setCapacity(int nodes) {
+        this.capacity = nodes;
+    }
+
+    /**
+     * Stop growing the tree as soon as the given signal is raised, as if time
+     * had run out. The most visited action so far is still returned.
+     *
+     * @param stop      signal to watch
+     */
+    @Override
+    public void setStopSignal(AtomicBoolean stop) {
+        this.stop = stop;
+    }
+
+    /**
+     * Guide the first visits of every child with the problem's heuristic
+     *
+     * @param weight    weight of the bias relative to the win rate, or {@code 0} for none
+     * @param scale     heuristic value at which the bias is three quarters of its weight
+     */
+    public void setProgressiveBias(double weight, double scale) {
+        this.biasWeight = weight;
+        this.biasScale = scale;
+    }
+
+    /**
+     * Solve for the next best state
+     *
+     * @param s         current {@code State}
+     */
+    @Override
+    public Action solve(State s) {
+
+        long startTime = System.nanoTime();             // Store the start time for the timer
+        deadline = startTime + timeLimit * 1000000L;
+
+        allocate();
+        rootPlayer = prob.whoseTurn(s);
+        maxDepth = 0;
+        plies = 0;
+        playouts = new AtomicLong();
+
+        Action action = null;
+        winRate = 0;
+
+        expand(0, s, new int[PrimitiveProblem.MAX_ACTIONS]);
+
+        // Search only if there is a choice to make
+        if (childCount[0] > 1) {
+            run(s);
+        }
+
+        int best = bestChild();
+        if (best >= 0) {
+            action = prob.decode(move[best] & 0xFF);
+            int n = visits.get(best);
+            winRate = (n == 0) ? 0 : rewards.get(best) / (2.0 * n);
+        }
+
+        long time = System.nanoTime() - startTime;      // Calculate the Elapsed time
+
+        stats = new SearchStats();
+        stats.addStates(plies, playouts.get(), maxDepth);
+        stats.addIteration(maxDepth, plies, time);
+        stats.setTime(time);
+
+        return action;
+    }
+
+    @Override
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    /**
+     * @return          number of playouts in the last search
+     */
+    public long getPlayouts() {
+        return playouts.get();
+    }
+
+    /**
+     * @return          playouts per second in the last search
+     */
+    public double getPlayoutsPerSecond() {
+        return (stats.getTime() == 0) ? 0 : playouts.get() * 1e9 / stats.getTime();
+    }
+
+    /**
+     * @return          fraction of the playouts through the returned action
+     *                  that its player won, counting draws as half
+     */
+    public double getWinRate() {
+        return winRate;
+    }
+
+    /**
+     * Create an empty tree
+     */
+    private void allocate() {
+        if (move == null || move.length != capacity) {
+            firstChild = new AtomicIntegerArray(capacity);
+            childCount = new int[capacity];
+            move = new byte[capacity];
+            prior = new float[capacity];
+            visits = new AtomicIntegerArray(capacity);
+            rewards = new AtomicIntegerArray(capacity);
+        } else {
+            // Failed expansions still count their nodes, so the count may pass the end
+            long used = Math.min(size.get(), capacity);
+            for (int i = 0; i < used; i++) {
+                firstChild.set(i, UNEXPANDED);
+                visits.set(i, 0);
+                rewards.set(i, 0);
+            }
+        }
+        size = new AtomicLong(1);
+    }
+
+    /**
+     * Grow the tree on every thread until the time or the playouts run out
+     *
+     * @param s         current {@code State}
+     */
+    private void run(State s) {
+
+        Thread[] helpers = new Thread[threads - 1];
+
+        for (int i = 0; i < helpers.length; i++) {
+            State copy = prob.copy(s);
+            helpers[i] = new Thread(() -> grow(copy), "mcts-" + (i + 1));
+            helpers[i].start();
+        }
+
+        // The calling thread grows the tree too, on its own copy
+        grow(prob.copy(s));
+
+        for (Thread helper : helpers) {
+            try {
+                helper.join();
+            } catch (InterruptedException e) {
+                deadline = System.nanoTime();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Play one playout after another from this thread's copy of the root
+     *
+     * @param s         this thread's copy of the root
+     */
+    private void grow(State s) {
+
+        int[] moves = new int[PrimitiveProblem.MAX_ACTIONS];
+        int[] path = new int[MAX_PLIES];                // Nodes visited below the root
+        boolean[] byRoot = new boolean[MAX_PLIES];      // Was each of them moved into by the root player?
+        int deepest = 0;
+        long played = 0;
+
+        while (System.nanoTime() - deadline < 0 && (stop == null || !stop.get())) {
+
+            if (playouts.getAndIncrement() >= playoutLimit && playoutLimit != 0) {
+                playouts.decrementAndGet();
+                break;
+            }
+
+            // Walk down the tree, counting each visit now and its result later
+            int node = 0;
+            int depth = 0;
+            visits.incrementAndGet(0);
+
+            while (true) {
+                int first = firstChild.get(node);
+                if (first == UNEXPANDED && visits.get(node) > 1) {
+                    expand(node, s, moves);
+                    first = firstChild.get(node);
+                }
+                if (first <= 0) {
+                    break;
+                }
+                int child = select(node, first);
+                byRoot[depth] = prob.whoseTurn(s).equals(rootPlayer);
+                prob.apply(s, move[child] & 0xFF);
+                path[depth++] = child;
+                visits.incrementAndGet(child);
+                node = child;
+            }
+
+            // Play the game out at random
+            int utility = prob.playout(s, rootPlayer);
+            int reward = (utility > 0) ? 2 : (utility == 0) ? 1 : 0;
+
+            for (int i = depth - 1; i >= 0; i--) {
+                rewards.addAndGet(path[i], byRoot[i] ? reward : 2 - reward);
+                prob.undo(s);
+            }
+
+            deepest = Math.max(deepest, depth);
+            played += depth;
+        }
+
+        synchronized (this) {
+            maxDepth = Math.max(maxDepth, deepest);
+            plies += played;
+        }
+    }
+
+    /**
+     * Add the children of a node, unless another thread is already doing so
+     * or the tree is full
+     *
+     * @param node      node to expand
+     * @param s         state of the node
+     * @param moves     buffer for the node's moves
+     */
+    private void expand(int node, State s, int[] moves) {
+
+        if (!firstChild.compareAndSet(node, UNEXPANDED, EXPANDING)) {
+            return;
+        }
+
+        int n = prob.actions(s, moves);
+        if (n == 0) {
+            firstChild.set(node, TERMINAL);
+            return;
+        }
+
+        long first = size.getAndAdd(n);
+        if (first + n > capacity) {
+            // Leave the node a leaf for good, so nobody tries again
+            firstChild.set(node, TERMINAL);
+            return;
+        }
+
+        for (int i = 0; i < n; i++) {
+            int child = (int) first + i;
+            move[child] = (byte) moves[i];
+            firstChild.set(child, UNEXPANDED);
+            childCount[child] = 0;
+            prior[child] = (biasWeight == 0) ? 0 : prior(s, moves[i]);
+        }
+
+        childCount[node] = n;
+        firstChild.set(node, (int) first);
+    }
+
+    /**
+     * Returns the heuristic value of a move for the player making it, squashed
+     * into the range from {@code -1} to {@code 1}
+     *
+     * @param s         current {@code State}
+     * @param m         encoded move
+     * @return          squashed heuristic value of the move
+     */
+    private float prior(State s, int m) {
+        Player mover = prob.whoseTurn(s);
+        prob.apply(s, m);
+        double h = 0;
+        if (!prob.isTerminal(s)) {
+            h = prob.heuristic(s);                      // Scored for the player to move next
+            h = prob.whoseTurn(s).equals(mover) ? h : -h;
+        }
+        prob.undo(s);
+        return (float) Math.tanh(h / biasScale);
+    }
+
+    /**
+     * Choose the child with the largest upper confidence bound. Children no
+     * thread has visited yet come first, in order of their heuristic value.
+     *
+     * @param node      expanded node
+     * @param first     index of its first child
+     * @return          index of the chosen child
+     */
+    private int select(int node, int first) {
+
+        int n = childCount[node];
+        double logN = Math.log(Math.max(1, visits.get(node)));
+
+        int best = first;
+        double bestScore = Double.NEGATIVE_INFINITY;
+
+        for (int c = first; c < first + n; c++) {
+            int v = visits.get(c);
+            double score;
+            if (v == 0) {
+                score = 1e9 + prior[c];
+            } else {
+                score = rewards.get(c) / (2.0 * v)
+                        + EXPLORATION * Math.sqrt(logN / v)
+                        + biasWeight * prior[c] / (v + 1);
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                best = c;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * @return          most visited child of the root, or {@code -1} if it has none
+     */
+    private int bestChild() {
+
+        int first = firstChild.get(0);
+        if (first <= 0) {
+            return -1;
+        }
+
+        int best = first;
+        for (int c = first + 1; c < first + childCount[0]; c++) {
+            if (visits.get(c) > visits.get(best)
+                    || (visits.get(c) == visits.get(best) && rewards.get(c) > rewards.get(best))) {
+                best = c;
+            }
+        }
+
+        return best;
+    }
+}
@@ -0,0 +1,298 @@
+package othello.ai.algorithms;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import othello.ai.search.EncodedProblem;
+import othello.ai.search.PrimitiveProblem;
+import othello.ai.search.Problem;
+import othello.ai.search.TranspositionTable;
+
+/**
+ * Analysis of the root that finds the best few actions rather than only the
+ * best one, each with its value and expected line of play. The root is
+ * searched one ply deeper at a time with {@code PrincipalVariation}, sharing
+ * one transposition table, and each iteration tries the actions in the order
+ * the last one ranked them.
+ * <p>
+ * The first {@code lines} actions of an iteration are searched with the full
+ * window, since their exact values are wanted. Every later action is first
+ * tested with a null window just above the worst value kept so far, which
+ * proves cheaply that most of them do not belong among the best; only an
+ * action that fails high is searched again, with a window from that value
+ * up, and takes its place in the list. Analysing all the actions costs little
+ * more than one search of the root, and asking for a single line is the same
+ * as an ordinary principal variation search.
+ * <p>
+ * The line of play after each action is read back from the table as soon as
+ * the action has its exact value, before later actions can overwrite it.
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-24-2021
+ */
+public class MultiPV<State, Action, Player> implements SearchAlgorithm<State, Action> {
+
+    private PrimitiveProblem<State, Action, Player> prob;
+    private int depthLimit;                             // Depth of the last iteration
+    private int lineCount;                              // Number of best actions wanted
+    private TranspositionTable table;                   // Shared by every iteration
+    private AtomicBoolean stop;                         // Raised by another thread to end the search early, or null
+    private SearchListener<Action> listener;            // Told about each completed iteration, or null
+    private List<ScoredLine<Action>> lines = new ArrayList<>();    // Lines of the last completed iteration
+    private int completedDepth;                         // Depth of the last completed iteration
+    private SearchStats stats = new SearchStats();      // Statistics of the last search
+
+    /**
+     * Create a new instance of the multiple line analysis
+     *
+     * @param problem       generic instance of {@code Problem}
+     * @param lim           depth limit
+     * @param lines         number of best actions wanted, or more than there
+     *                      are actions for every one of them
+     * @param table         transposition table shared between iterations
+     */
+    public MultiPV(Problem<State, Action, Player> problem, int lim, int lines, TranspositionTable table) {
+        this.prob = EncodedProblem.of(problem);
+        this.depthLimit = lim;
+        this.lineCount = Math.max(1, lines);
+        this.table = table;
+    }
+
+    /**
+     * Abandon the analysis as soon as the given signal is raised. The lines
+     * of the last completed iteration are kept.
+     *
+     * @param stop      signal to watch
+     */
+    @Override
+    public void setStopSignal(AtomicBoolean stop) {
+        this.stop = stop;
+    }
+
+    /**
+     * Report the best line of every iteration as it completes
+     *
+     * @param listener  told about each completed iteration
+     */
+    @Override
+    public void setListener(SearchListener<Action> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Analyse the root and return its best action. The other lines are
+     * returned by {@code getLines}.
+     *
+     * @param s         current {@code State}
+     * @return          best action, or {@code null} if there is none
+     */
+    @Override
+    public Action solve(State s) {
+
+        long startTime = System.nanoTime();             // Store the start time for the timer
+
+        stats = new SearchStats();
+        lines = new ArrayList<>();
+        completedDepth = 0;
+
+        int[] moves = new int[PrimitiveProblem.MAX_ACTIONS];
+        int[] values = new int[PrimitiveProblem.MAX_ACTIONS];
+        int n = prob.actions(s, moves);
+
+        // Before the first iteration the problem's own ranking is all there is
+        for (int i = 0; i < n; i++) {
+            values[i] = prob.priority(moves[i]);
+        }
+        sort(moves, values, n);
+
+        long key = prob.hash(s);
+
+        for (int depth = 1; depth <= depthLimit && n > 0; depth++) {
+
+            PrincipalVariation<State, Action, Player> search = new PrincipalVariation<>(prob, depth, table);
+            search.setStopSignal(stop);
+
+            long iterationStart = System.nanoTime();
+            List<ScoredLine<Action>> found = searchRoot(search, s, moves, values, n, depth);
+            stats.add(search.getStats());
+
+            if (found == null) {
+                break;
+            }
+
+            stats.addIteration(depth, search.getStatesVisited(), System.nanoTime() - iterationStart);
+
+            lines = found;
+            completedDepth = depth;
+
+            // The next iteration tries the actions best first, starting with the best line's
+            sort(moves, values, n);
+
+            ScoredLine<Action> best = found.get(0);
+            table.store(key, depth, TranspositionTable.EXACT, best.getValue(), moves[0]);
+
+            if (listener != null) {
+                listener.iterationCompleted(depth, best.getAction(), best.getValue());
+            }
+        }
+
+        stats.setTime(System.nanoTime() - startTime);
+
+        return lines.isEmpty() ? null : lines.get(0).getAction();
+    }
+
+    @Override
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    /**
+     * @return          best lines of the last search, best first, each with
+     *                  its exact value at the depth of the last completed
+     *                  iteration
+     */
+    public List<ScoredLine<Action>> getLines() {
+        return lines;
+    }
+
+    /**
+     * @return          depth of the last completed iteration of the last search
+     */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * Search every action of the root to one depth, keeping the best lines
+     *
+     * @param search    search to the depth of this iteration
+     * @param s         current {@code State}
+     * @param moves     encoded actions of the root, in the order to search them
+     * @param values    filled with the value of each action, or for the
+     *                  actions that are not among the best an upper bound on it
+     * @param n         number of actions
+     * @param depth     depth of this iteration
+     * @return          best lines, best first, or {@code null} if the search was stopped
+     */
+    private List<ScoredLine<Action>> searchRoot(PrincipalVariation<State, Action, Player> search, State s,
+            int[] moves, int[] values, int n, int depth) {
+
+        int k = Math.min(lineCount, n);
+        List<ScoredLine<Action>> best = new ArrayList<>(k + 1);     // Kept best first
+
+        for (int i = 0; i < n; i++) {
+
+            int move = moves[i];
+            int value;
+
+            if (best.size() < k) {
+                value = search.actionValue(s, move, Integer.MIN_VALUE, Integer.MAX_VALUE);
+            } else {
+                // Only an action better than the worst line kept needs an exact value
+                int worst = best.get(k - 1).getValue();
+                value = search.actionValue(s, move, worst, worst + 1);
+                if (value > worst && !search.wasAborted()) {
+                    value = search.actionValue(s, move, worst, Integer.MAX_VALUE);
+                }
+            }
+
+            if (search.wasAborted()) {
+                return null;
+            }
+
+            values[i] = value;
+
+            if (best.size() < k || value > best.get(k - 1).getValue()) {
+                int at = 0;
+                while (at < best.size() && best.get(at).getValue() >= value) {
+                    at++;
+                }
+                best.add(at, new ScoredLine<>(prob.decode(move), value, variation(s, move, depth)));
+                if (best.size() > k) {
+                    best.remove(k);
+                }
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Read the expected line of play after an action back from the table
+     *
+     * @param s         current {@code State}, left as it was
+     * @param move      encoded action that starts the line
+     * @param depth     longest line to read
+     * @return          the line, starting with the action
+     */
+    private List<Action> variation(State s, int move, int depth) {
+
+        List<Action> line = new ArrayList<>(depth);
+        int[] legal = new int[PrimitiveProblem.MAX_ACTIONS];
+
+        line.add(prob.decode(move));
+        prob.apply(s, move);
+        int played = 1;
+
+        while (played < depth) {
+
+            long entry = table.probe(prob.hash(s));
+            if (entry == 0) {
+                break;
+            }
+
+            // A hash collision could name a move that is not legal here
+            int next = TranspositionTable.move(entry);
+            int n = prob.actions(s, legal);
+            if (indexOf(legal, n, next) < 0) {
+                break;
+            }
+
+            line.add(prob.decode(next));
+            prob.apply(s, next);
+            played++;
+        }
+
+        for (int i = 0; i < played; i++) {
+            prob.undo(s);
+        }
+
+        return line;
+    }
+
+    /**
+     * @return          index of the move among the first {@code n}, or {@code -1}
+     */
+    private static int indexOf(int[] moves, int n, int move) {
+        for (int i = 0; i < n; i++) {
+            if (moves[i] == move) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Sort the moves by value, highest first, keeping the order of equal
+     * values. There are never more than a few dozen.
+     *
+     * @param moves     encoded moves
+     * @param values    value of each move, sorted along with them
+     * @param n         number of moves
+     */
+    private static void sort(int[] moves, int[] values, int n) {
+        for (int i = 1; i < n; i++) {
+            int m = moves[i];
+            int v = values[i];
+            int j = i - 1;
+            while (j >= 0 && values[j] < v) {
+                moves[j + 1] = moves[j];
+                values[j + 1] = values[j];
+                j--;
+            }
+            moves[j + 1] = m;
+            values[j + 1] = v;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package othello.ai.algorithms;
+
+import othello.ai.search.Problem;
+import othello.ai.search.TranspositionTable;
+
+/**
+ * H-MINIMAX with Principal Variation Search (NegaScout). The first action of
+ * every state is searched with the full alpha-beta window. Every later action
+ * is only tested against a null window, which proves cheaply that it is no
+ * better than the first. If the test fails the action is searched again with
+ * the full window. With good move ordering the first action is usually best,
+ * so most of the tree is covered by the cheaper null-window searches.
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-17-2021
+ */
+public class PrincipalVariation<State, Action, Player> extends AlphaBetaSearch<State, Action, Player> {
+
+    private Action bestAction;                          // Best action found by the last root search
+
+    /**
+     * Create a new instance of the PVS solver
+     *
+     * @param problem       generic instance of {@code Problem}
+     * @param lim           depth limit
+     * @param table         transposition table to read and write
+     */
+    public PrincipalVariation(Problem<State, Action, Player> problem, int lim, TranspositionTable table) {
+        super(problem, lim, table);
+        reset();
+    }
+
+    /**
+     * Solve for the next best state
+     *
+     * @param s         current {@code State}
+     */
+    @Override
+    public Action solve(State s) {
+
+        long startTime = System.nanoTime();             // Store the start time for the timer
+
+        reset();
+        bestValue = rootValue(s, Integer.MIN_VALUE, Integer.MAX_VALUE);
+
+        nanos = System.nanoTime() - startTime;          // Calculate the Elapsed time
+
+        return bestAction;
+    }
+
+    /**
+     * @return          best action found by the last call to {@code rootValue}
+     */
+    Action getBestAction() {
+        return bestAction;
+    }
+
+    /**
+     * Search the root with the given window. Like the rest of the search this
+     * fails soft: a value outside the window is still a bound on the true
+     * value, which is what MTD(f) relies on.
+     *
+     * @param s         current {@code State}
+     * @param alpha     lower end of the window
+     * @param beta      upper end of the window
+     * @return          value of the root
+     */
+    int rootValue(State s, int alpha, int beta) {
+
+        Player p = prob.whoseTurn(s);
+        int depth = 1;
+
+        long key = prob.hash(s);
+        long entry = probe(key);
+
+        int alphaOrig = alpha;
+        int max = Integer.MIN_VALUE;
+        int best = TranspositionTable.NO_MOVE;
+        bestAction = null;
+        aborted = false;
+
+        int[] moves = moveBuf[0];
+        int n = orderedActions(s, entry, 0);
+
+        for (int i = 0; i < n; i++) {
+
+            prob.apply(s, moves[i]);
+            int value = childOfMax(s, p, depth, alpha, beta, i == 0);
+            prob.undo(s);
+
+            if (aborted) {
+                break;
+            }
+
+            if (value > max || best == TranspositionTable.NO_MOVE) {
+                max = value;
+                best = moves[i];
+            }
+
+            if (max >= beta) {
+                countCutoff(i);
+                break;
+            }
+
+            alpha = Math.max(alpha, max);
+        }
+
+        if (best != TranspositionTable.NO_MOVE) {
+            bestAction = prob.decode(best);
+        }
+
+        // Only a root whose every action was searched has a value worth keeping
+        if (best != TranspositionTable.NO_MOVE && !aborted) {
+            int bound = (max >= beta) ? TranspositionTable.LOWER
+                    : (max <= alphaOrig) ? TranspositionTable.UPPER : TranspositionTable.EXACT;
+            table.store(key, depthLimit, bound, max, best);
+        }
+
+        return max;
+    }
+
+    /**
+     * Search a single action of the root with the given window, leaving the
+     * root as it was. Used by searches that need the value of more than the
+     * best action; nothing is stored for the root itself.
+     *
+     * @param s         current {@code State}
+     * @param move      encoded action to search
+     * @param alpha     lower end of the window
+     * @param beta      upper end of the window
+     * @return          value of the action for the player to move, or a bound
+     *                  on it outside the window
+     */
+    int actionValue(State s, int move, int alpha, int beta) {
+        Player p = prob.whoseTurn(s);
+        prob.apply(s, move);
+        int value = minValue(s, p, 1, alpha, beta);
+        prob.undo(s);
+        return value;
+    }
+
+    /**
+     * Search a child of a max node. Every child but the first is first tested
+     * with a null window just above alpha.
+     *
+     * @param s         child {@code State}
+     * @param p         current player
+     * @param depth     depth of the child
+     * @param alpha     lower end of the parent's window
+     * @param beta      upper end of the parent's window
+     * @param first     is this the first child searched?
+     * @return          value of the child, or a bound on it outside the window
+     */
+    @Override
+    int childOfMax(State s, Player p, int depth, int alpha, int beta, boolean first) {
+        if (first) {
+            return minValue(s, p, depth, alpha, beta);
+        }
+        int value = minValue(s, p, depth, alpha, alpha + 1);
+        if (value > alpha && value < beta) {
+            value = minValue(s, p, depth, alpha, beta);
+        }
+        return value;
+    }
+
+    /**
+     * Search a child of a min node. Every child but the first is first tested
+     * with a null window just below beta.
+     *
+     * @param s         child {@code State}
+     * @param p         current player
+     * @param depth     depth of the child
+     * @param alpha     lower end of the parent's window
+     * @param beta      upper end of the parent's window
+     * @param first     is this the first child searched?
+     * @return          value of the child, or a bound on it outside the window
+     */
+    @Override
+    int childOfMin(State s, Player p, int depth, int alpha, int beta, boolean first) {
+        if (first) {
+            return maxValue(s, p, depth, alpha, beta);
+        }
+        int value = maxValue(s, p, depth, beta - 1, beta);
+        if (value < beta && value > alpha) {
+            value = maxValue(s, p, depth, alpha, beta);
+        }
+        return value;
+    }
+}
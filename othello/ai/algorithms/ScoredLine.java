@@ -0,0 +1,52 @@
+package othello.ai.algorithms;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One action of the root with its minimax value and the line of play the
+ * search expects to follow it
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-24-2021
+ */
+public class ScoredLine<Action> {
+
+    private final Action action;
+    private final int value;
+    private final List<Action> variation;
+
+    /**
+     * @param action    action of the root, or {@code null} for a pass
+     * @param value     minimax value of the action for the player to move
+     * @param variation expected line of play, starting with the action, with
+     *                  {@code null} for every pass
+     */
+    public ScoredLine(Action action, int value, List<Action> variation) {
+        this.action = action;
+        this.value = value;
+        this.variation = Collections.unmodifiableList(variation);
+    }
+
+    /**
+     * @return          action of the root, or {@code null} for a pass
+     */
+    public Action getAction() {
+        return action;
+    }
+
+    /**
+     * @return          minimax value of the action for the player to move
+     */
+    public int getValue() {
+        return value;
+    }
+
+    /**
+     * @return          expected line of play, starting with the action, with
+     *                  {@code null} for every pass
+     */
+    public List<Action> getVariation() {
+        return variation;
+    }
+}
@@ -1,5 +1,7 @@
 package othello.ai.algorithms;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * @author  Emma Campbell & Emma Schechter
  * @since   02-14-2021
@@ -14,5 +16,42 @@ public interface SearchAlgorithm<State, Action> {
      * @return      next desirable action 
      */
     public Action solve(State s);
+
+    /**
+     * @return      statistics of the last call to {@code solve}
+     */
+    public SearchStats getStats();
+
+    /**
+     * Watch a flag that another thread may raise to end the search early.
+     * Every search checks it often enough to stop within a few milliseconds,
+     * and then returns the best action it can still vouch for, or
+     * {@code null} if it has none.
+     * 
+     * @param stop  signal to watch, or {@code null} to search to the end
+     */
+    public void setStopSignal(AtomicBoolean stop);
+
+    /**
+     * Report every iteration of the search as it completes. Only the
+     * searches that deepen one ply at a time have iterations to report; the
+     * others ignore the listener.
+     * 
+     * @param listener  told about each completed iteration, on the searching thread
+     */
+    public default void setListener(SearchListener<Action> listener) {
+    }
+
+    /**
+     * Solve for the next action and return it together with the statistics
+     * of the search that chose it
+     * 
+     * @param s     state the game is currently in
+     * @return      next desirable action and how it was found
+     */
+    public default SearchResult<Action> analyze(State s) {
+        Action action = solve(s);
+        return new SearchResult<>(action, getStats());
+    }
     
 }
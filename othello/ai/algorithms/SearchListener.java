@@ -0,0 +1,21 @@
+package othello.ai.algorithms;
+
+/**
+ * Told about each iteration of a deepening search as soon as it completes,
+ * so the best action so far can be shown, or kept in case the search is
+ * stopped before it finishes.
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-24-2021
+ */
+public interface SearchListener<Action> {
+
+    /**
+     * Called on the searching thread after each completed iteration
+     *
+     * @param depth     depth of the iteration
+     * @param action    best action the iteration found
+     * @param value     minimax value of that action for the player to move
+     */
+    public void iterationCompleted(int depth, Action action, int value);
+}
@@ -0,0 +1,37 @@
+package othello.ai.algorithms;
+
+/**
+ * An action chosen by a search, together with the statistics of the search
+ * that chose it
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-24-2021
+ */
+public class SearchResult<Action> {
+
+    private final Action action;
+    private final SearchStats stats;
+
+    /**
+     * @param action    chosen action, or {@code null} if there was none
+     * @param stats     statistics of the search
+     */
+    public SearchResult(Action action, SearchStats stats) {
+        this.action = action;
+        this.stats = stats;
+    }
+
+    /**
+     * @return          chosen action, or {@code null} if there was none
+     */
+    public Action getAction() {
+        return action;
+    }
+
+    /**
+     * @return          statistics of the search
+     */
+    public SearchStats getStats() {
+        return stats;
+    }
+}
@@ -0,0 +1,269 @@
+package othello.ai.algorithms;
+
+import java.util.Arrays;
+
+/**
+ * What a search did to choose its action: how many states it visited and
+ * scored, how long it took, how well the transposition table and the move
+ * ordering served it, and how deep it went. A search that deepens one ply at
+ * a time also records each iteration, so the growth of the tree from one
+ * depth to the next can be followed.
+ * <p>
+ * The algorithms count in their own fields while they search and copy the
+ * counts here once the search is over, so the inner loops are not slowed
+ * down by keeping them. Counts an algorithm does not keep, such as table
+ * probes for a search with no table, are left at {@code 0}.
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-24-2021
+ */
+public class SearchStats {
+
+    private long statesVisited;                         // States entered by the search
+    private long leaves;                                // States scored by the heuristic or the final score
+    private long probes;                                // Transposition table lookups
+    private long hits;                                  // Lookups that found their state
+    private long cutoffs;                               // Alpha-beta cutoffs
+    private long firstMoveCutoffs;                      // Cutoffs caused by the first action tried
+    private int maxDepth;                               // Deepest ply below the root reached
+    private long nanos;                                 // Time taken by the whole search
+
+    private int iterations;                             // Iterations recorded so far
+    private int[] iterationDepth = new int[8];          // Depth limit of each iteration
+    private long[] iterationStates = new long[8];       // States visited by each iteration
+    private long[] iterationNanos = new long[8];        // Time taken by each iteration
+
+    /**
+     * Add the states visited and scored by a search, or by one part of it
+     *
+     * @param states    states visited
+     * @param leaves    states scored without searching any further
+     * @param depth     deepest ply below the root reached
+     */
+    void addStates(long states, long leaves, int depth) {
+        this.statesVisited += states;
+        this.leaves += leaves;
+        this.maxDepth = Math.max(this.maxDepth, depth);
+    }
+
+    /**
+     * Add the transposition table lookups of a search
+     *
+     * @param probes    lookups made
+     * @param hits      lookups that found their state
+     */
+    void addProbes(long probes, long hits) {
+        this.probes += probes;
+        this.hits += hits;
+    }
+
+    /**
+     * Add the alpha-beta cutoffs of a search
+     *
+     * @param cutoffs   cutoffs made
+     * @param first     cutoffs caused by the first action tried
+     */
+    void addCutoffs(long cutoffs, long first) {
+        this.cutoffs += cutoffs;
+        this.firstMoveCutoffs += first;
+    }
+
+    /**
+     * Record one iteration of a search that deepens one ply at a time. A
+     * search to a single depth records itself as its only iteration.
+     *
+     * @param depth     depth limit of the iteration
+     * @param states    states visited by the iteration
+     * @param nanos     time taken by the iteration, in nanoseconds
+     */
+    void addIteration(int depth, long states, long nanos) {
+        if (iterations == iterationDepth.length) {
+            iterationDepth = Arrays.copyOf(iterationDepth, 2 * iterations);
+            iterationStates = Arrays.copyOf(iterationStates, 2 * iterations);
+            iterationNanos = Arrays.copyOf(iterationNanos, 2 * iterations);
+        }
+        iterationDepth[iterations] = depth;
+        iterationStates[iterations] = states;
+        iterationNanos[iterations] = nanos;
+        iterations++;
+    }
+
+    /**
+     * Add every count of another search, such as another thread's share of
+     * the same search. Its iterations are not added.
+     *
+     * @param other     statistics of the other search
+     */
+    void add(SearchStats other) {
+        addStates(other.statesVisited, other.leaves, other.maxDepth);
+        addProbes(other.probes, other.hits);
+        addCutoffs(other.cutoffs, other.firstMoveCutoffs);
+    }
+
+    /**
+     * @param nanos     time taken by the whole search, in nanoseconds
+     */
+    void setTime(long nanos) {
+        this.nanos = nanos;
+    }
+
+    /**
+     * @return          number of states visited
+     */
+    public long getStatesVisited() {
+        return statesVisited;
+    }
+
+    /**
+     * @return          number of states scored by the heuristic, or by the
+     *                  final score of a finished game, instead of being searched
+     */
+    public long getLeafEvaluations() {
+        return leaves;
+    }
+
+    /**
+     * @return          time taken by the search, in nanoseconds
+     */
+    public long getTime() {
+        return nanos;
+    }
+
+    /**
+     * @return          states visited per second of search
+     */
+    public double getStatesPerSecond() {
+        return (nanos == 0) ? 0 : statesVisited * 1e9 / nanos;
+    }
+
+    /**
+     * @return          number of transposition table lookups
+     */
+    public long getTableProbes() {
+        return probes;
+    }
+
+    /**
+     * @return          number of table lookups that found their state
+     */
+    public long getTableHits() {
+        return hits;
+    }
+
+    /**
+     * @return          fraction of table lookups that found their state
+     */
+    public double getHitRate() {
+        return (probes == 0) ? 0 : (double) hits / probes;
+    }
+
+    /**
+     * @return          number of alpha-beta cutoffs
+     */
+    public long getCutoffs() {
+        return cutoffs;
+    }
+
+    /**
+     * @return          number of cutoffs caused by the first action tried
+     */
+    public long getFirstMoveCutoffs() {
+        return firstMoveCutoffs;
+    }
+
+    /**
+     * @return          fraction of cutoffs caused by the first action tried
+     */
+    public double getFirstMoveCutoffRate() {
+        return (cutoffs == 0) ? 0 : (double) firstMoveCutoffs / cutoffs;
+    }
+
+    /**
+     * @return          deepest ply below the root the search reached
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * @return          number of iterations recorded
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * @param i         iteration, from {@code 0}
+     * @return          depth limit of the iteration
+     */
+    public int getIterationDepth(int i) {
+        return iterationDepth[i];
+    }
+
+    /**
+     * @param i         iteration, from {@code 0}
+     * @return          states visited by the iteration
+     */
+    public long getIterationStates(int i) {
+        return iterationStates[i];
+    }
+
+    /**
+     * @param i         iteration, from {@code 0}
+     * @return          time taken by the iteration, in nanoseconds
+     */
+    public long getIterationTime(int i) {
+        return iterationNanos[i];
+    }
+
+    /**
+     * Returns the effective branching factor of an iteration: how many times
+     * larger its tree was than the previous iteration's, or for the first
+     * iteration the branching factor of a uniform tree of its size and depth
+     *
+     * @param i         iteration, from {@code 0}
+     * @return          effective branching factor, or {@code 0} if unknown
+     */
+    public double getBranchingFactor(int i) {
+        if (i > 0 && iterationStates[i - 1] > 0) {
+            return (double) iterationStates[i] / iterationStates[i - 1];
+        }
+        if (i == 0 && iterationDepth[0] > 0) {
+            return Math.pow(iterationStates[0], 1.0 / iterationDepth[0]);
+        }
+        return 0;
+    }
+
+    /**
+     * @return          summary of the search, one count per line
+     */
+    @Override
+    public String toString() {
+
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("Visited ").append(statesVisited).append(" states, scored ").append(leaves)
+          .append(", ").append(Math.round(getStatesPerSecond())).append(" states/s.\n");
+        if (probes > 0) {
+            sb.append("Table hit rate: ").append(String.format("%.1f", 100 * getHitRate()))
+              .append(" % of ").append(probes).append(" probes.\n");
+        }
+        if (cutoffs > 0) {
+            sb.append("First-move cutoffs: ").append(String.format("%.1f", 100 * getFirstMoveCutoffRate()))
+              .append(" % of ").append(cutoffs).append(" cutoffs.\n");
+        }
+        if (iterations > 1) {
+            sb.append("Depth / states / branching / ms:");
+            for (int i = 0; i < iterations; i++) {
+                sb.append(' ').append(iterationDepth[i]).append('/').append(iterationStates[i])
+                  .append('/').append(String.format("%.1f", getBranchingFactor(i)))
+                  .append('/').append(iterationNanos[i] / 1000000);
+            }
+            sb.append('\n');
+        }
+        sb.append("Reached depth ").append(maxDepth).append(".\n");
+        sb.append("Elapsed Time: ").append(nanos / 1e9F).append(" s.");
+
+        return sb.toString();
+    }
+}
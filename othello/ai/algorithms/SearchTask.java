@@ -0,0 +1,253 @@
+package othello.ai.algorithms;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import othello.ai.search.Problem;
+
+/**
+ * A search running in the background, started by {@code start}. The result
+ * is a {@code CompletableFuture}, so the caller may wait for it, poll it or
+ * chain more work onto it, and meanwhile the best action of every completed
+ * iteration is passed to a listener as soon as it is known.
+ * <p>
+ * The search may be cut short in two ways. {@code cancel} asks it to stop
+ * now, and the time limit given to {@code start} does the same once it runs
+ * out. Either way the search is told through its stop signal, and answers
+ * with the best action it can vouch for. Should it fail to answer within
+ * {@code GRACE} milliseconds of being told, the task answers for it and
+ * leaves it to finish on its own. The answer is the search's own action if
+ * there is one, otherwise the action of the last completed iteration,
+ * otherwise the legal action the problem ranks first, so the task always
+ * answers with a legal action unless there is none at all.
+ * <p>
+ * The search runs on its own copy of the state, so an abandoned search can
+ * never touch the caller's state, but it may still be using the search
+ * object itself until {@code isSearching} turns {@code false}.
+ * <p>
+ * Each search runs on a new thread of its own unless {@code start} is given
+ * an executor, such as a fixed pool shared by many searches. A search that
+ * is abandoned goes on holding its pool thread until it finishes, so the
+ * pool, not the callers, bounds how many searches run at once.
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-24-2021
+ */
+public class SearchTask<Action> {
+
+    static final long GRACE = 100;                      // Milliseconds a stopped search has to answer
+
+    // Runs each search on a new daemon thread of its own
+    private static final Executor NEW_THREAD = r -> {
+        Thread t = new Thread(r, "search");
+        t.setDaemon(true);
+        t.start();
+    };
+
+    // One daemon thread for every task's time limit
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "search-timer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final CompletableFuture<SearchResult<Action>> result = new CompletableFuture<>();
+    private final AtomicBoolean stop = new AtomicBoolean();
+    private final Action fallback;                      // Legal action ranked first, or null
+    private volatile boolean searching = true;          // Until the search returns or fails
+    private volatile Action bestSoFar;                  // Action of the last completed iteration, or null
+    private volatile int bestValue;                     // Its minimax value
+    private volatile int completedDepth;                // Depth of the last completed iteration
+
+    private SearchTask(Action fallback) {
+        this.fallback = fallback;
+    }
+
+    /**
+     * Start searching the given state on a new thread
+     *
+     * @see #start(Problem, SearchAlgorithm, Object, long, SearchListener, Executor)
+     */
+    public static <State, Action, Player> SearchTask<Action> start(Problem<State, Action, Player> problem,
+            SearchAlgorithm<State, Action> search, State s, long timeLimit, SearchListener<Action> listener) {
+        return start(problem, search, s, timeLimit, listener, NEW_THREAD);
+    }
+
+    /**
+     * Start searching the given state on the given executor. The time limit
+     * counts from when the search starts running, not from when it is queued.
+     *
+     * @param problem       problem the search solves, used to copy the state
+     *                      and to find a legal action to fall back on
+     * @param search        search to run. It must not be used for anything
+     *                      else until the task is done.
+     * @param s             state to search. It is copied before the search
+     *                      starts, so the caller may change it at once.
+     * @param timeLimit     milliseconds after which the search is stopped,
+     *                      or {@code 0} for no limit
+     * @param listener      told about each completed iteration on the
+     *                      searching thread, or {@code null}
+     * @param executor      runs the search
+     * @return              the running task
+     * @throws RejectedExecutionException   if the executor will not run the search
+     */
+    public static <State, Action, Player> SearchTask<Action> start(Problem<State, Action, Player> problem,
+            SearchAlgorithm<State, Action> search, State s, long timeLimit, SearchListener<Action> listener,
+            Executor executor) {
+
+        SearchTask<Action> task = new SearchTask<>(firstChoice(problem, s));
+        State copy = problem.copy(s);
+
+        search.setStopSignal(task.stop);
+        search.setListener((depth, action, value) -> {
+            task.bestValue = value;
+            task.completedDepth = depth;
+            task.bestSoFar = action;
+            if (listener != null) {
+                listener.iterationCompleted(depth, action, value);
+            }
+        });
+
+        try {
+            executor.execute(() -> {
+                if (timeLimit > 0) {
+                    ScheduledFuture<?> timer = TIMER.schedule(task::cancel, timeLimit, TimeUnit.MILLISECONDS);
+                    task.result.whenComplete((r, e) -> timer.cancel(false));
+                }
+                try {
+                    SearchResult<Action> r = search.analyze(copy);
+                    task.searching = false;
+                    task.result.complete(new SearchResult<>(task.answer(r.getAction()), r.getStats()));
+                } catch (RuntimeException | Error e) {
+                    task.searching = false;
+                    task.result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            task.searching = false;
+            throw e;
+        }
+
+        return task;
+    }
+
+    /**
+     * @return          the search's answer, once it has one
+     */
+    public CompletableFuture<SearchResult<Action>> getResult() {
+        return result;
+    }
+
+    /**
+     * Wait for the answer
+     *
+     * @return          the chosen action, or {@code null} if there is no legal action
+     */
+    public Action join() {
+        return result.join().getAction();
+    }
+
+    /**
+     * Stop the search now. It answers with the best action it has, and if it
+     * takes longer than {@code GRACE} milliseconds the task answers for it.
+     * Cancelling a task that is done already does nothing.
+     */
+    public void cancel() {
+        if (result.isDone() || stop.getAndSet(true)) {
+            return;
+        }
+        TIMER.schedule(this::abandon, GRACE, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return          {@code true} if the search was stopped by {@code cancel}
+     *                  or by running out of time
+     */
+    public boolean wasStopped() {
+        return stop.get();
+    }
+
+    /**
+     * @return          {@code true} while the search is still running or
+     *                  waiting to run, which after an abandoned search may be
+     *                  after the task is done
+     */
+    public boolean isSearching() {
+        return searching;
+    }
+
+    /**
+     * @return          action of the last completed iteration, or {@code null}
+     *                  if none has completed yet
+     */
+    public Action getBestSoFar() {
+        return bestSoFar;
+    }
+
+    /**
+     * @return          minimax value of the action of the last completed iteration
+     */
+    public int getBestValue() {
+        return bestValue;
+    }
+
+    /**
+     * @return          depth of the last completed iteration, or {@code 0} if
+     *                  none has completed yet
+     */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * Answer for a search that did not stop when told to
+     */
+    private void abandon() {
+        if (result.complete(new SearchResult<>(answer(null), new SearchStats()))) {
+            System.err.println("Search did not stop within " + GRACE + " ms, answering without it.");
+        }
+    }
+
+    /**
+     * Returns the best action known
+     *
+     * @param action    the search's own answer, or {@code null}
+     * @return          best action known, or {@code null} if there is no legal action
+     */
+    private Action answer(Action action) {
+        if (action != null) {
+            return action;
+        }
+        Action a = bestSoFar;
+        return (a != null) ? a : fallback;
+    }
+
+    /**
+     * Returns the legal action the problem ranks first, the same action a
+     * search would try first with nothing else to go on
+     *
+     * @param problem   problem the state belongs to
+     * @param s         current {@code State}
+     * @return          action with the highest priority, or {@code null} if there is none
+     */
+    private static <State, Action, Player> Action firstChoice(Problem<State, Action, Player> problem, State s) {
+
+        ArrayList<Action> actions = problem.actions(s);
+        Action best = null;
+
+        for (Action a : actions) {
+            if (best == null || problem.priority(a) > problem.priority(best)) {
+                best = a;
+            }
+        }
+
+        return best;
+    }
+}
@@ -0,0 +1,156 @@
+package othello.ai.search;
+
+import java.util.ArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Lets the searches run any {@code Problem} through the encoded-move methods
+ * of {@code PrimitiveProblem}. Actions are still listed by the wrapped
+ * problem, so this saves nothing, but the searches need only one code path.
+ * Each action is remembered by its encoding the first time it is listed,
+ * which is how {@code decode} and {@code priority} find it again.
+ * <p>
+ * The wrapped problem cannot express a pass, so a state with no actions
+ * simply has no moves, as before.
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-24-2021
+ */
+public class EncodedProblem<State, Action, Player> implements PrimitiveProblem<State, Action, Player> {
+
+    private static final int MAX_ENCODED = 256;         // More than the number of encoded actions
+
+    private final Problem<State, Action, Player> prob;
+    private final Object[] decoded = new Object[MAX_ENCODED];  // Action listed under each encoding
+    private final int[] priorities = new int[MAX_ENCODED];     // Static priority of each encoding
+
+    private EncodedProblem(Problem<State, Action, Player> problem) {
+        this.prob = problem;
+    }
+
+    /**
+     * Return the given problem as a {@code PrimitiveProblem}, wrapping it only
+     * if it is not one already
+     *
+     * @param problem   generic instance of {@code Problem}
+     * @return          the problem itself, or a wrapper around it
+     */
+    public static <State, Action, Player> PrimitiveProblem<State, Action, Player> of(Problem<State, Action, Player> problem) {
+        if (problem instanceof PrimitiveProblem) {
+            return (PrimitiveProblem<State, Action, Player>) problem;
+        }
+        return new EncodedProblem<>(problem);
+    }
+
+    @Override
+    public int actions(State s, int[] moves) {
+        ArrayList<Action> actions = prob.actions(s);
+        for (int i = 0; i < actions.size(); i++) {
+            Action a = actions.get(i);
+            int move = prob.encode(a);
+            if (decoded[move] == null) {
+                decoded[move] = a;
+                priorities[move] = prob.priority(a);
+            }
+            moves[i] = move;
+        }
+        return actions.size();
+    }
+
+    @Override
+    public void apply(State s, int move) {
+        prob.apply(s, decode(move));
+    }
+
+    @Override
+    public int priority(int move) {
+        return priorities[move];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Action decode(int move) {
+        return (Action) decoded[move];
+    }
+
+    @Override
+    public int playout(State s, Player p) {
+        ThreadLocalRandom rand = ThreadLocalRandom.current();
+        int plies = 0;
+        ArrayList<Action> actions;
+        while (!(actions = prob.actions(s)).isEmpty()) {
+            prob.apply(s, actions.get(rand.nextInt(actions.size())));
+            plies++;
+        }
+        int utility = prob.utility(s, p);
+        for (int i = 0; i < plies; i++) {
+            prob.undo(s);
+        }
+        return utility;
+    }
+
+    @Override
+    public State initialState() {
+        return prob.initialState();
+    }
+
+    @Override
+    public Player whoseTurn(State s) {
+        return prob.whoseTurn(s);
+    }
+
+    @Override
+    public ArrayList<Action> actions(State s) {
+        return prob.actions(s);
+    }
+
+    @Override
+    public State result(State s, Action a) {
+        return prob.result(s, a);
+    }
+
+    @Override
+    public State copy(State s) {
+        return prob.copy(s);
+    }
+
+    @Override
+    public void apply(State s, Action a) {
+        prob.apply(s, a);
+    }
+
+    @Override
+    public void undo(State s) {
+        prob.undo(s);
+    }
+
+    @Override
+    public long hash(State s) {
+        return prob.hash(s);
+    }
+
+    @Override
+    public int encode(Action a) {
+        return prob.encode(a);
+    }
+
+    @Override
+    public int priority(Action a) {
+        return prob.priority(a);
+    }
+
+    @Override
+    public boolean isTerminal(State s) {
+        return prob.isTerminal(s);
+    }
+
+    @Override
+    public int utility(State s, Player p) {
+        return prob.utility(s, p);
+    }
+
+    @Override
+    public int heuristic(State s) {
+        return prob.heuristic(s);
+    }
+}
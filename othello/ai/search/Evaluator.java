@@ -0,0 +1,19 @@
+package othello.ai.search;
+
+/**
+ * Static evaluation of a state, used in place of the problem's own heuristic
+ * when the search reaches its depth limit.
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-23-2021
+ */
+public interface Evaluator<State> {
+
+    /**
+     * Score the given state. Higher is better for the player whose turn it is.
+     *
+     * @param s     state to score
+     * @return      integer value of the state for the player to move
+     */
+    public int evaluate(State s);
+}
@@ -0,0 +1,119 @@
+package othello.ai.search;
+
+/**
+ * Decides the order in which a search tries the actions of a state, so that
+ * the action most likely to cause a cutoff is tried first. In order of
+ * precedence the actions are ranked by
+ * <ol>
+ *     <li>the best move remembered in the transposition table,</li>
+ *     <li>the two killer moves of the current ply, which recently caused a
+ *         cutoff in a sibling position,</li>
+ *     <li>the history score of the move, which grows every time the move
+ *         causes a cutoff anywhere in the tree, plus the problem's static
+ *         {@code priority} of the move.</li>
+ * </ol>
+ * Killers and history are kept between searches, so one instance should
+ * follow a single player through successive iterations and moves.
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-17-2021
+ */
+public class MoveOrdering<State, Action, Player> {
+
+    private static final int MAX_PLY = 128;             // Deeper than any search of the game
+    private static final int MAX_ENCODED = 256;         // More than the number of encoded actions
+    private static final int MAX_MOVES = PrimitiveProblem.MAX_ACTIONS;  // Moves of any one state
+
+    private static final int HASH_SCORE = Integer.MAX_VALUE;
+    private static final int KILLER_SCORE = Integer.MAX_VALUE - 2;
+
+    private PrimitiveProblem<State, Action, Player> prob;
+    private int[][] killers = new int[MAX_PLY][2];      // Two killer moves per ply
+    private int[] history = new int[MAX_ENCODED];       // Cutoff score of each encoded action
+    private int[][] scores = new int[MAX_PLY][MAX_MOVES];   // Scratch space for sorting, per ply
+
+    /**
+     * Create a new move orderer
+     *
+     * @param problem       problem whose encoded moves are ordered
+     */
+    public MoveOrdering(PrimitiveProblem<State, Action, Player> problem) {
+        this.prob = problem;
+        clearKillers();
+    }
+
+    /**
+     * Sort the given encoded moves in place, most promising first
+     *
+     * @param moves         encoded moves of the current state
+     * @param n             number of moves
+     * @param hashMove      best move from the transposition table, or {@code TranspositionTable.NO_MOVE}
+     * @param ply           distance of the current state from the root
+     */
+    public void sort(int[] moves, int n, int hashMove, int ply) {
+
+        int[] score = scores[ply];
+
+        for (int i = 0; i < n; i++) {
+            int move = moves[i];
+            if (move == hashMove) {
+                score[i] = HASH_SCORE;
+            } else if (move == killers[ply][0]) {
+                score[i] = KILLER_SCORE;
+            } else if (move == killers[ply][1]) {
+                score[i] = KILLER_SCORE - 1;
+            } else {
+                score[i] = history[move] + prob.priority(move);
+            }
+        }
+
+        // Insertion sort: move lists are short and usually nearly sorted
+        for (int i = 1; i < n; i++) {
+            int key = score[i];
+            int move = moves[i];
+            int j = i - 1;
+            while (j >= 0 && score[j] < key) {
+                score[j + 1] = score[j];
+                moves[j + 1] = moves[j];
+                j--;
+            }
+            score[j + 1] = key;
+            moves[j + 1] = move;
+        }
+    }
+
+    /**
+     * Record that the given encoded move caused a cutoff
+     *
+     * @param move          encoded move that caused the cutoff
+     * @param ply           distance of the state from the root
+     * @param remaining     remaining depth the state was searched to
+     */
+    public void cutoff(int move, int ply, int remaining) {
+
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+
+        history[move] += remaining * remaining;
+
+        // Keep history scores well below the killer and hash scores
+        if (history[move] > (1 << 24)) {
+            for (int i = 0; i < MAX_ENCODED; i++) {
+                history[i] >>= 1;
+            }
+        }
+    }
+
+    /**
+     * Forget the killer moves, which only make sense for the position they
+     * were found in. History scores are kept.
+     */
+    public void clearKillers() {
+        for (int[] k : killers) {
+            k[0] = TranspositionTable.NO_MOVE;
+            k[1] = TranspositionTable.NO_MOVE;
+        }
+    }
+}
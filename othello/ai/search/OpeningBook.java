@@ -0,0 +1,224 @@
+package othello.ai.search;
+
+import java.awt.Point;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import othello.game.Board;
+
+/**
+ * Read-only book of opening positions, each with the move to play and its
+ * expected score. The book is a file of fixed-size entries sorted by position
+ * hash. It is memory mapped rather than read, so a lookup is a binary search
+ * straight over the file's pages, and every JVM that opens the same book
+ * shares one copy of it in the page cache.
+ * <p>
+ * The file starts with a 16 byte header: a magic number, the format version,
+ * the board dimension and the number of entries. Each entry is 12 bytes: the
+ * 8 byte position hash, the 2 byte encoded move and the 2 byte score.
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-21-2021
+ */
+public class OpeningBook {
+
+    public static final String DEFAULT_FILE = "othello.book";  // Looked for in the working directory
+
+    private static final int MAGIC = 0x4F424B31;        // "OBK1"
+    private static final int VERSION = 1;
+    private static final int HEADER = 16;               // Bytes before the first entry
+    private static final int ENTRY = 12;                // Bytes per entry
+
+    private static final long VALID = 1L << 63;         // Set on every returned entry, so 0 means not found
+
+    private final MappedByteBuffer buffer;
+    private final int dim;
+    private final int size;
+
+    private OpeningBook(MappedByteBuffer buffer, int dim, int size) {
+        this.buffer = buffer;
+        this.dim = dim;
+        this.size = size;
+    }
+
+    /**
+     * Map the book stored in the given file
+     *
+     * @param file      book written by {@code write}
+     * @return          the opened book
+     * @throws IOException  if the file cannot be read or is not a book
+     */
+    public static OpeningBook open(Path file) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+
+            long length = channel.size();
+            if (length < HEADER) {
+                throw new IOException(file + " is not an opening book");
+            }
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException(file + " is not an opening book");
+            }
+
+            int dim = buffer.getInt(8);
+            int size = buffer.getInt(12);
+
+            if ((long) HEADER + (long) size * ENTRY != length) {
+                throw new IOException(file + " is truncated");
+            }
+
+            return new OpeningBook(buffer, dim, size);
+        }
+    }
+
+    /**
+     * Map the book in {@link #DEFAULT_FILE}, if there is one
+     *
+     * @return          the opened book, or {@code null} if there is no usable book
+     */
+    public static OpeningBook openDefault() {
+
+        Path file = Paths.get(DEFAULT_FILE);
+        if (!Files.isReadable(file)) {
+            return null;
+        }
+
+        try {
+            return open(file);
+        } catch (IOException e) {
+            System.out.println("ERROR: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Write a book to the given file, replacing it if it exists
+     *
+     * @param file      file to write
+     * @param dim       square dimension of the board the book is for
+     * @param keys      position hashes, one per entry
+     * @param moves     encoded move to play in each position
+     * @param scores    expected score of each move
+     * @throws IOException  if the file cannot be written
+     */
+    public static void write(Path file, int dim, long[] keys, int[] moves, int[] scores) throws IOException {
+
+        int n = keys.length;
+
+        // Sort the entries by key through an index, keeping the arrays in step
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(keys[a], keys[b]));
+
+        ByteBuffer out = ByteBuffer.allocate(HEADER + n * ENTRY);
+        out.putInt(MAGIC).putInt(VERSION).putInt(dim).putInt(n);
+        for (int i : order) {
+            out.putLong(keys[i]).putShort((short) moves[i]).putShort((short) scores[i]);
+        }
+        out.flip();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+    }
+
+    /**
+     * Look up the entry stored for the given position
+     *
+     * @param key       hash of the position
+     * @return          packed entry, or {@code 0} if the position is not in the book
+     */
+    public long probe(long key) {
+
+        int lo = 0;
+        int hi = size - 1;
+
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int at = HEADER + mid * ENTRY;
+            long k = buffer.getLong(at);
+            if (k < key) {
+                lo = mid + 1;
+            } else if (k > key) {
+                hi = mid - 1;
+            } else {
+                return VALID
+                        | ((buffer.getShort(at + 8) & 0xFFFFL) << 16)
+                        | (buffer.getShort(at + 10) & 0xFFFFL);
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Look up the move the book plays in the given position
+     *
+     * @param board     current {@code Board}
+     * @return          the book's move, or {@code null} if the board is not in
+     *                  the book or the book is for another board size
+     */
+    public Point move(Board board) {
+
+        if (board.dim != dim) {
+            return null;
+        }
+
+        long entry = probe(board.getHash());
+        if (entry == 0) {
+            return null;
+        }
+
+        int sq = move(entry);
+
+        // A hash collision could name a move that is not legal here
+        if (sq >= dim * dim || !board.validMove(board.whoseTurn(), sq / dim, sq % dim)) {
+            return null;
+        }
+
+        return new Point(sq / dim, sq % dim);
+    }
+
+    /**
+     * @return          square dimension of the board the book is for
+     */
+    public int getDim() {
+        return dim;
+    }
+
+    /**
+     * @return          number of positions in the book
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return          encoded move of a packed entry
+     */
+    public static int move(long entry) {
+        return (int) (entry >>> 16) & 0xFFFF;
+    }
+
+    /**
+     * @return          score of a packed entry
+     */
+    public static int score(long entry) {
+        return (short) entry;
+    }
+}
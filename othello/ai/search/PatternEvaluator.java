@@ -0,0 +1,519 @@
+package othello.ai.search;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+
+import othello.game.BitBoard;
+import othello.game.Board;
+import othello.game.Color;
+
+/**
+ * Evaluates a board by looking up each of its lines in a table of learned
+ * weights. Every line of a pattern (an edge, a corner block, a diagonal or an
+ * inner row) is read as a base-3 number, one digit per cell: empty, the
+ * player to move, or the opponent. That number indexes the pattern's weight
+ * table. Every reflection and rotation of a line shares the same table, so
+ * the tables learn a line's value wherever it appears on the board.
+ * <p>
+ * Lines are read whole rather than cell by cell: a row is a shift and a mask,
+ * and a column or diagonal is gathered into one row with a multiplication
+ * whose partial products never overlap. The bits of each color are then
+ * turned into base-3 digits with a lookup table.
+ * <p>
+ * Three whole-board counts are scored the same way, each with a table indexed
+ * by the difference between the players: stable discs, which can never be
+ * flipped again, frontier discs, which touch an empty cell, and potential
+ * mobility, the empty cells next to the opponent. The patterns see only
+ * their own lines, and these counts tell them how the lines fit together.
+ * <p>
+ * The game is split into phases by the number of discs on the board, and each
+ * phase has its own tables. The score is the sum of the table weights, in
+ * units of {@code 1 / SCALE} of a disc of final margin.
+ * <p>
+ * Weights are read from {@code patterns-<dim>.bin} next to this class, written
+ * by {@code othello.tools.TrainPatterns}.
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-23-2021
+ */
+public class PatternEvaluator implements Evaluator<Board> {
+
+    public static final int SCALE = 64;                 // Score units per disc of final margin
+    public static final int PHASES = 4;                 // Weight sets over the course of a game
+
+    public static final int EDGE = 0;                   // Pattern families
+    public static final int CORNER = 1;
+    public static final int DIAGONAL = 2;
+    public static final int LINE2 = 3;
+    public static final int LINE3 = 4;
+    public static final int STABILITY = 5;              // Whole-board counts, by difference
+    public static final int FRONTIER = 6;
+    public static final int POTENTIAL = 7;
+    public static final int FAMILIES = 8;
+
+    private static final int MAGIC = 0x4F505431;        // "OPT1"
+    private static final int VERSION = 2;
+
+    private static final PatternEvaluator[] LOADED = new PatternEvaluator[9];  // By dimension, once read
+
+    private final int dim;
+    private final int rows;                             // Instances read as rows, first
+    private final int cols;                             // Instances read as columns, next
+    private final int[] shift;                          // Row or column shift of each line instance
+    private final int[] family;                         // Weight table of each pattern instance
+    private final int[] tableSize;                      // Entries in each family's table
+
+    private final int corner;                           // Side of the corner blocks
+    private final long rowMask;                         // Cells of the first row
+    private final long colMask;                         // Cells of the first column
+    private final long colMagic;                        // Gathers the first column into the last row
+    private final long rowsMagic;                       // Stacks every row onto the last row
+    private final long diagMask;                        // Cells of the main diagonal
+    private final long antiMask;                        // Cells of the anti-diagonal
+    private final int[][] blockShift;                   // Row shifts of each corner block, corner first
+    private final int[] base3;                          // Binary digits read as base-3 digits
+    private final int[] base3Mirror;                    // The same, each block row read right to left
+    private final short[][][] weights;                  // [phase][family][index]
+
+    /**
+     * Create an evaluator with the given weights
+     *
+     * @param dim       square dimension of the board
+     * @param weights   pattern weights by phase, family and index
+     */
+    public PatternEvaluator(int dim, short[][][] weights) {
+
+        this.dim = dim;
+        this.weights = weights;
+
+        this.corner = Math.min(3, dim / 2);
+
+        long col = 0;
+        long magic = 0;
+        long stack = 0;
+        long diag = 0;
+        long anti = 0;
+        for (int i = 0; i < dim; i++) {
+            col |= 1L << BitBoard.square(i, 0, dim);
+            magic |= 1L << ((dim - 1 - i) * dim + i);
+            stack |= 1L << (i * dim);
+            diag |= 1L << BitBoard.square(i, i, dim);
+            anti |= 1L << BitBoard.square(i, dim - 1 - i, dim);
+        }
+        this.rowMask = (1L << dim) - 1;
+        this.colMask = col;
+        this.colMagic = magic;
+        this.rowsMagic = stack;
+        this.diagMask = diag;
+        this.antiMask = anti;
+
+        int bits = Math.max(dim, corner * corner);
+        this.base3 = new int[1 << bits];
+        this.base3Mirror = new int[1 << (corner * corner)];
+        for (int b = 0; b < base3.length; b++) {
+            int v = 0;
+            for (int k = bits - 1; k >= 0; k--) {
+                v = v * 3 + ((b >>> k) & 1);
+            }
+            base3[b] = v;
+        }
+        for (int b = 0; b < base3Mirror.length; b++) {
+            int mirrored = 0;
+            for (int k = 0; k < corner * corner; k++) {
+                mirrored |= ((b >>> k) & 1) << (k / corner * corner + corner - 1 - k % corner);
+            }
+            base3Mirror[b] = base3[mirrored];
+        }
+
+        // Lines: the edges, then the second and third rows in from them
+        ArrayList<int[]> lines = new ArrayList<>();     // { family, shift }, rows then columns
+        for (int step : new int[] { dim, 1 }) {
+            for (int line = 0; line < 3; line++) {
+                int f = (line == 0) ? EDGE : (line == 1) ? LINE2 : LINE3;
+                if (line == 2 && dim < 6) {
+                    continue;
+                }
+                lines.add(new int[] { f, line * step });
+                lines.add(new int[] { f, (dim - 1 - line) * step });
+            }
+        }
+
+        this.cols = lines.size() / 2;
+        this.rows = lines.size() / 2;
+        this.shift = new int[lines.size()];
+        this.family = new int[lines.size() + 2 + 4 + 3];
+        for (int i = 0; i < lines.size(); i++) {
+            family[i] = lines.get(i)[0];
+            shift[i] = lines.get(i)[1];
+        }
+        family[lines.size()] = DIAGONAL;
+        family[lines.size() + 1] = DIAGONAL;
+
+        // Corner blocks: top left, bottom left, top right, bottom right
+        this.blockShift = new int[4][corner];
+        for (int c = 0; c < 4; c++) {
+            family[lines.size() + 2 + c] = CORNER;
+            for (int r = 0; r < corner; r++) {
+                int row = ((c & 1) != 0) ? dim - 1 - r : r;
+                blockShift[c][r] = row * dim + (((c & 2) != 0) ? dim - corner : 0);
+            }
+        }
+
+        // Counts over the whole board
+        family[lines.size() + 6] = STABILITY;
+        family[lines.size() + 7] = FRONTIER;
+        family[lines.size() + 8] = POTENTIAL;
+
+        this.tableSize = new int[FAMILIES];
+        for (int f = 0; f < FAMILIES; f++) {
+            tableSize[f] = (f >= STABILITY) ? 2 * dim * dim + 1
+                    : (f == CORNER) ? pow3(corner * corner) : (f == LINE3 && dim < 6) ? 0 : pow3(dim);
+        }
+    }
+
+    /**
+     * Create an evaluator with every weight zero, to be trained
+     *
+     * @param dim       square dimension of the board
+     * @return          evaluator scoring every board {@code 0}
+     */
+    public static PatternEvaluator untrained(int dim) {
+        PatternEvaluator shape = new PatternEvaluator(dim, null);
+        short[][][] weights = new short[PHASES][FAMILIES][];
+        for (int ph = 0; ph < PHASES; ph++) {
+            for (int f = 0; f < FAMILIES; f++) {
+                weights[ph][f] = new short[shape.tableSize[f]];
+            }
+        }
+        return new PatternEvaluator(dim, weights);
+    }
+
+    /**
+     * Return the trained evaluator for the given board size, reading its
+     * weights the first time it is asked for. The evaluator is never changed
+     * after loading, so it can be shared by every game and thread.
+     *
+     * @param dim       square dimension of the board
+     * @return          the evaluator, or {@code null} if there are no weights for the size
+     */
+    public static synchronized PatternEvaluator forDimension(int dim) {
+
+        if (dim < 0 || dim >= LOADED.length) {
+            return null;
+        }
+
+        if (LOADED[dim] == null) {
+            InputStream in = PatternEvaluator.class.getResourceAsStream(resourceName(dim));
+            if (in == null) {
+                return null;
+            }
+            try (InputStream stream = in) {
+                LOADED[dim] = read(stream);
+            } catch (IOException e) {
+                System.out.println("ERROR: " + e.getMessage());
+                return null;
+            }
+        }
+
+        return LOADED[dim];
+    }
+
+    /**
+     * @param dim       square dimension of the board
+     * @return          name of the weight file for the size, next to this class
+     */
+    public static String resourceName(int dim) {
+        return "patterns-" + dim + ".bin";
+    }
+
+    /**
+     * Read weights written by {@code write}
+     *
+     * @param in        stream to read
+     * @return          evaluator with the stored weights
+     * @throws IOException  if the stream cannot be read or holds no weights
+     */
+    public static PatternEvaluator read(InputStream in) throws IOException {
+
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+
+        if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+            throw new IOException("not a pattern weight file");
+        }
+
+        int dim = data.readInt();
+        PatternEvaluator shape = untrained(dim);
+
+        if (data.readInt() != PHASES || data.readInt() != FAMILIES) {
+            throw new IOException("pattern weight file has a different layout");
+        }
+
+        for (int ph = 0; ph < PHASES; ph++) {
+            for (int f = 0; f < FAMILIES; f++) {
+                short[] table = shape.weights[ph][f];
+                if (data.readInt() != table.length) {
+                    throw new IOException("pattern weight file has a different layout");
+                }
+                for (int i = 0; i < table.length; i++) {
+                    table[i] = data.readShort();
+                }
+            }
+        }
+
+        return shape;
+    }
+
+    /**
+     * Write the weights in the format read by {@code read}
+     *
+     * @param out       stream to write
+     * @throws IOException  if the stream cannot be written
+     */
+    public void write(OutputStream out) throws IOException {
+
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(dim);
+        data.writeInt(PHASES);
+        data.writeInt(FAMILIES);
+
+        for (int ph = 0; ph < PHASES; ph++) {
+            for (int f = 0; f < FAMILIES; f++) {
+                data.writeInt(weights[ph][f].length);
+                for (short w : weights[ph][f]) {
+                    data.writeShort(w);
+                }
+            }
+        }
+
+        data.flush();
+    }
+
+    @Override
+    public int evaluate(Board s) {
+        Color me = s.whoseTurn();
+        Color other = (me == Color.DARK) ? Color.LIGHT : Color.DARK;
+        return evaluate(s.getDiscs(me), s.getDiscs(other));
+    }
+
+    /**
+     * Score a position given as bit masks
+     *
+     * @param p         discs of the player to move
+     * @param o         discs of the opponent
+     * @return          value of the position for the player to move
+     */
+    public int evaluate(long p, long o) {
+
+        short[][] w = weights[phase(p, o)];
+        int top = (dim - 1) * dim;
+        int score = 0;
+
+        for (int i = 0; i < rows; i++) {
+            int s = shift[i];
+            score += w[family[i]][base3[(int) ((p >>> s) & rowMask)] + 2 * base3[(int) ((o >>> s) & rowMask)]];
+        }
+
+        for (int i = rows; i < rows + cols; i++) {
+            int s = shift[i];
+            int pc = (int) ((((p >>> s) & colMask) * colMagic) >>> top & rowMask);
+            int oc = (int) ((((o >>> s) & colMask) * colMagic) >>> top & rowMask);
+            score += w[family[i]][base3[pc] + 2 * base3[oc]];
+        }
+
+        short[] diagonal = w[DIAGONAL];
+        score += diagonal[base3[gatherDiagonal(p, diagMask)] + 2 * base3[gatherDiagonal(o, diagMask)]];
+        score += diagonal[base3[gatherDiagonal(p, antiMask)] + 2 * base3[gatherDiagonal(o, antiMask)]];
+
+        short[] block = w[CORNER];
+        for (int c = 0; c < 4; c++) {
+            int[] table = ((c & 2) != 0) ? base3Mirror : base3;
+            score += block[table[gatherBlock(p, c)] + 2 * table[gatherBlock(o, c)]];
+        }
+
+        score += w[STABILITY][stability(p, o)];
+        score += w[FRONTIER][frontier(p, o)];
+        score += w[POTENTIAL][potential(p, o)];
+
+        return score;
+    }
+
+    /**
+     * @return          game phase of the position, from {@code 0} to {@code PHASES - 1}
+     */
+    public int phase(long p, long o) {
+        int discs = Long.bitCount(p | o);
+        return (discs - 4) * PHASES / (dim * dim - 3);
+    }
+
+    /**
+     * @return          number of pattern instances read from every board
+     */
+    public int instances() {
+        return family.length;
+    }
+
+    /**
+     * @return          family, and so weight table, of the given instance
+     */
+    public int family(int instance) {
+        return family[instance];
+    }
+
+    /**
+     * @return          number of entries in the given family's table
+     */
+    public int tableSize(int f) {
+        return tableSize[f];
+    }
+
+    /**
+     * Read one pattern instance as a base-3 number
+     *
+     * @param instance  pattern instance
+     * @param p         discs of the player to move
+     * @param o         discs of the opponent
+     * @return          index into the instance's weight table
+     */
+    public int index(int instance, long p, long o) {
+
+        int lines = rows + cols;
+
+        if (instance < rows) {
+            int s = shift[instance];
+            return base3[(int) ((p >>> s) & rowMask)] + 2 * base3[(int) ((o >>> s) & rowMask)];
+        }
+        if (instance < lines) {
+            int s = shift[instance];
+            int top = (dim - 1) * dim;
+            int pc = (int) ((((p >>> s) & colMask) * colMagic) >>> top & rowMask);
+            int oc = (int) ((((o >>> s) & colMask) * colMagic) >>> top & rowMask);
+            return base3[pc] + 2 * base3[oc];
+        }
+        if (instance < lines + 2) {
+            long mask = (instance == lines) ? diagMask : antiMask;
+            return base3[gatherDiagonal(p, mask)] + 2 * base3[gatherDiagonal(o, mask)];
+        }
+
+        if (instance == lines + 6) {
+            return stability(p, o);
+        }
+        if (instance == lines + 7) {
+            return frontier(p, o);
+        }
+        if (instance == lines + 8) {
+            return potential(p, o);
+        }
+
+        int c = instance - lines - 2;
+        int[] table = ((c & 2) != 0) ? base3Mirror : base3;
+        return table[gatherBlock(p, c)] + 2 * table[gatherBlock(o, c)];
+    }
+
+    /**
+     * Find the index of the same cells read in the mirror image of the
+     * pattern: a line read from its other end, or a corner block reflected in
+     * its diagonal. A board and its reflection read some patterns one way
+     * and some the other, so the two indexes must share a weight for the
+     * score to be the same.
+     *
+     * @param f         pattern family
+     * @param index     index into the family's table
+     * @return          index of the mirror image
+     */
+    public int mirror(int f, int index) {
+
+        if (f >= STABILITY) {
+            return index;                               // Counts do not change with reflection
+        }
+
+        int cells = (f == CORNER) ? corner * corner : dim;
+        int[] digits = new int[cells];
+        for (int k = 0; k < cells; k++) {
+            digits[k] = index % 3;
+            index /= 3;
+        }
+
+        int mirrored = 0;
+        for (int k = cells - 1; k >= 0; k--) {
+            int from = (f == CORNER) ? k % corner * corner + k / corner : cells - 1 - k;
+            mirrored = mirrored * 3 + digits[from];
+        }
+        return mirrored;
+    }
+
+    /**
+     * @return          index of the difference in stable discs
+     */
+    private int stability(long p, long o) {
+        return Long.bitCount(BitBoard.stable(p, o, dim)) - Long.bitCount(BitBoard.stable(o, p, dim)) + dim * dim;
+    }
+
+    /**
+     * @return          index of the difference in frontier discs
+     */
+    private int frontier(long p, long o) {
+        return Long.bitCount(BitBoard.frontier(p, o, dim)) - Long.bitCount(BitBoard.frontier(o, p, dim)) + dim * dim;
+    }
+
+    /**
+     * @return          index of the difference in potential mobility
+     */
+    private int potential(long p, long o) {
+        return Long.bitCount(BitBoard.potentialMoves(p, o, dim)) - Long.bitCount(BitBoard.potentialMoves(o, p, dim))
+                + dim * dim;
+    }
+
+    /**
+     * Collect a diagonal into the low bits of an int, stacking every row on
+     * the last one
+     *
+     * @param x         discs of one player
+     * @param mask      cells of the diagonal
+     * @return          one bit per row of the board
+     */
+    private int gatherDiagonal(long x, long mask) {
+        return (int) (((x & mask) * rowsMagic) >>> ((dim - 1) * dim) & rowMask);
+    }
+
+    /**
+     * Collect a corner block into the low bits of an int, one block row after
+     * another from the corner inwards
+     *
+     * @param x         discs of one player
+     * @param c         corner: bit 0 for the bottom, bit 1 for the right
+     * @return          one bit per cell of the block
+     */
+    private int gatherBlock(long x, int c) {
+        int[] shifts = blockShift[c];
+        int mask = (1 << corner) - 1;
+        int bits = 0;
+        for (int r = 0; r < corner; r++) {
+            bits |= ((int) (x >>> shifts[r]) & mask) << (r * corner);
+        }
+        return bits;
+    }
+
+    /**
+     * Set one pattern weight
+     */
+    public void setWeight(int ph, int f, int index, short w) {
+        weights[ph][f][index] = w;
+    }
+
+    private static int pow3(int n) {
+        int r = 1;
+        for (int i = 0; i < n; i++) {
+            r *= 3;
+        }
+        return r;
+    }
+}
@@ -0,0 +1,190 @@
+package othello.ai.search;
+
+import othello.game.BitBoard;
+
+/**
+ * Plays games out to the end with random moves, working only on the disc
+ * masks of the two players. Nothing is allocated during a playout: no
+ * boards, no move lists and no random number objects, so a playout costs
+ * little more than the move generation itself.
+ * <p>
+ * Each thread has its own kernel for each board size, returned by
+ * {@code current}, with its own xorshift random number generator, so
+ * playouts on different threads never contend. A kernel may also play
+ * lightly biased games, in which a corner is always taken when one is
+ * available and the squares next to an empty corner are avoided when there
+ * is anything else to play; {@code Rules.withBiasedPlayouts} asks for those.
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-24-2021
+ */
+public class Playout {
+
+    private static final ThreadLocal<Playout[]> KERNELS = ThreadLocal.withInitial(() -> new Playout[9]);
+
+    private final int dim;
+    private final long[] corners = new long[4];         // Each corner cell
+    private final long[] nearCorner = new long[4];      // Cells next to each corner
+    private final long allCorners;                      // The four corner cells
+    private long state;                                 // State of the xorshift generator, never 0
+    private boolean biased;                             // Prefer corners and avoid the cells next to them?
+
+    /**
+     * Create a playout kernel for the given board size
+     *
+     * @param dim       square dimension of the board
+     * @param seed      seed of the random moves
+     */
+    public Playout(int dim, long seed) {
+        this.dim = dim;
+        int[] rows = { 0, 0, dim - 1, dim - 1 };
+        int[] cols = { 0, dim - 1, 0, dim - 1 };
+        for (int c = 0; c < 4; c++) {
+            int i = rows[c];
+            int j = cols[c];
+            int di = (i == 0) ? 1 : -1;
+            int dj = (j == 0) ? 1 : -1;
+            corners[c] = 1L << BitBoard.square(i, j, dim);
+            nearCorner[c] = (1L << BitBoard.square(i + di, j, dim))
+                    | (1L << BitBoard.square(i, j + dj, dim))
+                    | (1L << BitBoard.square(i + di, j + dj, dim));
+        }
+        allCorners = corners[0] | corners[1] | corners[2] | corners[3];
+        setSeed(seed);
+    }
+
+    /**
+     * Returns this thread's kernel for the given board size, creating it the
+     * first time
+     *
+     * @param dim       square dimension of the board
+     * @return          the kernel, to be used only by the calling thread
+     */
+    public static Playout current(int dim) {
+        Playout[] kernels = KERNELS.get();
+        if (kernels[dim] == null) {
+            kernels[dim] = new Playout(dim, System.nanoTime() ^ Thread.currentThread().getId());
+        }
+        return kernels[dim];
+    }
+
+    /**
+     * Restart the random moves from the given seed
+     *
+     * @param seed      seed of the random moves
+     */
+    public void setSeed(long seed) {
+        // One step of SplitMix64, so that nearby seeds give unrelated games
+        long z = seed + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        state = (z == 0) ? 1 : z;
+    }
+
+    /**
+     * Choose between uniformly random moves and lightly biased ones
+     *
+     * @param biased    {@code true} to take corners and avoid the cells next to empty corners
+     */
+    public void setBiased(boolean biased) {
+        this.biased = biased;
+    }
+
+    /**
+     * Play the game out from the given position
+     *
+     * @param p         discs of the player to move
+     * @param o         discs of the opponent
+     * @return          final disc differential for the player to move
+     */
+    public int play(long p, long o) {
+
+        boolean passed = false;
+        boolean swapped = false;                        // Are p and o the other way round from the start?
+
+        while (true) {
+
+            long moves = BitBoard.moves(p, o, dim);
+
+            if (moves == 0) {
+                if (passed) {
+                    break;
+                }
+                passed = true;
+            } else {
+                passed = false;
+                int sq = choose(moves, p | o);
+                long flipped = BitBoard.flips(p, o, sq, dim);
+                p |= flipped | (1L << sq);
+                o &= ~flipped;
+            }
+
+            long t = p;
+            p = o;
+            o = t;
+            swapped = !swapped;
+        }
+
+        int diff = Long.bitCount(p) - Long.bitCount(o);
+        return swapped ? -diff : diff;
+    }
+
+    /**
+     * Returns a random legal move
+     *
+     * @param p         discs of the player to move
+     * @param o         discs of the opponent
+     * @return          bit index of the move, or {@code -1} if the player must pass
+     */
+    public int randomMove(long p, long o) {
+        long moves = BitBoard.moves(p, o, dim);
+        return (moves == 0) ? -1 : choose(moves, p | o);
+    }
+
+    /**
+     * Returns a random integer from {@code 0} up to but not including {@code n}
+     *
+     * @param n         number of possible values
+     * @return          random integer
+     */
+    public int nextInt(int n) {
+        long x = state;
+        x ^= x << 13;
+        x ^= x >>> 7;
+        x ^= x << 17;
+        state = x;
+        return (int) (((x >>> 32) * n) >>> 32);
+    }
+
+    /**
+     * Pick one of the given moves
+     *
+     * @param moves     mask of legal moves, not empty
+     * @param occupied  mask of occupied cells
+     * @return          bit index of the chosen move
+     */
+    private int choose(long moves, long occupied) {
+
+        if (biased) {
+            long avoid = 0;
+            for (int c = 0; c < 4; c++) {
+                if ((occupied & corners[c]) == 0) {
+                    avoid |= nearCorner[c];
+                }
+            }
+            if ((moves & allCorners) != 0) {
+                moves &= allCorners;
+            } else if ((moves & ~avoid) != 0) {
+                moves &= ~avoid;
+            }
+        }
+
+        // Clear the lowest set bits until the chosen one is lowest
+        for (int k = nextInt(Long.bitCount(moves)); k > 0; k--) {
+            moves &= moves - 1;
+        }
+
+        return Long.numberOfTrailingZeros(moves);
+    }
+}
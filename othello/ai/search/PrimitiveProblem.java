@@ -0,0 +1,65 @@
+package othello.ai.search;
+
+/**
+ * A {@code Problem} whose actions can also be handled as small integers, the
+ * same numbers {@code encode} returns. The searches generate, order and play
+ * moves through these methods, filling arrays they own instead of building a
+ * list of action objects at every state, so that searching allocates nothing
+ * per generated move.
+ * <p>
+ * Unlike the list returned by {@code actions(State)}, the moves written into
+ * a buffer include {@code PASS} when the player to move has no legal action
+ * but the game is not over.
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-24-2021
+ */
+public interface PrimitiveProblem<State, Action, Player> extends Problem<State, Action, Player> {
+
+    public static final int PASS = 0xFE;                // Encoded move of a player with no legal action
+    public static final int MAX_ACTIONS = 64;           // Length of the buffers passed to actions
+
+    /**
+     * Write the encoded actions of the given state into a buffer
+     *
+     * @param s         {@code State} current state
+     * @param moves     buffer of at least {@code MAX_ACTIONS} entries
+     * @return          number of moves written, {@code 0} only for a terminal state
+     */
+    public int actions(State s, int[] moves);
+
+    /**
+     * Apply an encoded action to State s in place. Every call must be matched
+     * by a call to {@code undo(State)} before the state is used by anyone else.
+     *
+     * @param s         {@code State} current state
+     * @param move      encoded action, or {@code PASS}
+     */
+    public void apply(State s, int move);
+
+    /**
+     * Returns a static estimate of how promising an encoded action is
+     *
+     * @param move      encoded action
+     * @return          larger values for actions that should be tried earlier
+     */
+    public int priority(int move);
+
+    /**
+     * Returns the action with the given encoding
+     *
+     * @param move      encoded action
+     * @return          the action, or {@code null} for {@code PASS}
+     */
+    public Action decode(int move);
+
+    /**
+     * Play the game out from the given state with random moves, leaving the
+     * state as it was
+     *
+     * @param s         {@code State} current state
+     * @param p         player to score the finished game for
+     * @return          {@code utility} of the finished game for {@code p}
+     */
+    public int playout(State s, Player p);
+}
@@ -40,6 +40,57 @@ public interface Problem<State, Action, Player> {
      */
     public State result(State s, Action a);
 
+    /**
+     * Returns an independent copy of State s, which can be changed with
+     * {@code apply} and {@code undo} without affecting the original
+     * 
+     * @param s     {@code State} current state
+     * @return      copy of the state
+     */
+    public State copy(State s);
+
+    /**
+     * Apply Action a to State s in place. Every call must be matched by a call
+     * to {@code undo(State)} before the state is used by anyone else.
+     * 
+     * @param s     {@code State} current state
+     * @param a     action to be applied
+     */
+    public void apply(State s, Action a);
+
+    /**
+     * Revert the most recent action applied to State s with {@code apply}
+     * 
+     * @param s     {@code State} current state
+     */
+    public void undo(State s);
+
+    /**
+     * Returns a hash of the given state, such that equal states hash equally
+     * 
+     * @param s     {@code State} current state
+     * @return      64-bit hash of the state
+     */
+    public long hash(State s);
+
+    /**
+     * Returns a small non-negative integer identifying the given action, for
+     * use in the search's tables
+     * 
+     * @param a     action to encode
+     * @return      integer between {@code 0} and {@code 254}
+     */
+    public int encode(Action a);
+
+    /**
+     * Returns a static estimate of how promising the given action is, used
+     * to decide which actions a search tries first
+     * 
+     * @param a     action to rank
+     * @return      larger values for actions that should be tried earlier
+     */
+    public int priority(Action a);
+
     /**
      * Is the given state a terminal state?
      * 
@@ -62,7 +113,23 @@ public interface Problem<State, Action, Player> {
      * 
      * @param s     {@code State} current state
      * @return      integer value representing the heuristic value of the state
+     *              for the player whose turn it is
      */
     public int heuristic(State s);
 
+    /**
+     * Heuristic value of the given state for player {@code p}, the player a
+     * search is choosing a move for. The heuristic scores the state for the
+     * player to move, who after an odd number of moves is {@code p}'s
+     * opponent, so the searches must score their leaves through this method.
+     * 
+     * @param s     {@code State} current state
+     * @param p     player whose point of view the value is from
+     * @return      heuristic value of the state for {@code p}
+     */
+    public default int heuristic(State s, Player p) {
+        int h = heuristic(s);
+        return whoseTurn(s).equals(p) ? h : -h;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,122 @@
+package othello.ai.search;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size hash table of previously searched positions. Each slot holds the
+ * position's hash key and a packed entry with the searched depth, the bound
+ * type of the score, the score itself and the best move found.
+ * <p>
+ * The table may be shared by many searching threads without locking. The key
+ * is stored XOR-ed with its entry, so a slot torn by two racing writers no
+ * longer matches either key and simply reads as empty.
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-17-2021
+ */
+public class TranspositionTable {
+
+    public static final int EXACT = 0;                  // Score is the exact minimax value
+    public static final int LOWER = 1;                  // Score is a lower bound (fail high)
+    public static final int UPPER = 2;                  // Score is an upper bound (fail low)
+
+    public static final int NO_MOVE = 0xFF;             // Stored in place of a best move when there is none
+    public static final int SOLVED = 0xFF;              // Depth stored for positions searched to the end of the game
+
+    private static final long VALID = 1L << 63;         // Set on every stored entry, so 0 means empty
+
+    private final long[] keys;
+    private final long[] entries;
+    private final int mask;
+
+    /**
+     * Create a new transposition table
+     *
+     * @param sizeBits      log2 of the number of slots
+     */
+    public TranspositionTable(int sizeBits) {
+        this.keys = new long[1 << sizeBits];
+        this.entries = new long[1 << sizeBits];
+        this.mask = (1 << sizeBits) - 1;
+    }
+
+    /**
+     * Look up the entry stored for the given key
+     *
+     * @param key       hash of the position
+     * @return          packed entry, or {@code 0} if the position is not stored
+     */
+    public long probe(long key) {
+        int i = (int) key & mask;
+        long entry = entries[i];
+        if (entry != 0 && (keys[i] ^ entry) == key) {
+            return entry;
+        }
+        return 0;
+    }
+
+    /**
+     * Store the result of a search. An entry for the same position searched
+     * to a greater depth is kept; anything else is replaced.
+     *
+     * @param key       hash of the position
+     * @param depth     remaining depth the position was searched to
+     * @param bound     one of {@code EXACT}, {@code LOWER} or {@code UPPER}
+     * @param score     score of the position
+     * @param move      encoded best move, or {@code NO_MOVE}
+     */
+    public void store(long key, int depth, int bound, int score, int move) {
+        int i = (int) key & mask;
+        long old = entries[i];
+        if (old != 0 && (keys[i] ^ old) == key && depth(old) > depth) {
+            return;
+        }
+        long entry = VALID
+                | ((long) (depth & 0xFF) << 42)
+                | ((long) (bound & 0x3) << 40)
+                | ((long) (move & 0xFF) << 32)
+                | (score & 0xFFFFFFFFL);
+        keys[i] = key ^ entry;
+        entries[i] = entry;
+    }
+
+    /**
+     * Remove every entry
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(entries, 0);
+    }
+
+    /**
+     * @param entry     packed entry returned by {@code probe}
+     * @return          remaining depth the position was searched to
+     */
+    public static int depth(long entry) {
+        return (int) (entry >>> 42) & 0xFF;
+    }
+
+    /**
+     * @param entry     packed entry returned by {@code probe}
+     * @return          one of {@code EXACT}, {@code LOWER} or {@code UPPER}
+     */
+    public static int bound(long entry) {
+        return (int) (entry >>> 40) & 0x3;
+    }
+
+    /**
+     * @param entry     packed entry returned by {@code probe}
+     * @return          encoded best move, or {@code NO_MOVE}
+     */
+    public static int move(long entry) {
+        return (int) (entry >>> 32) & 0xFF;
+    }
+
+    /**
+     * @param entry     packed entry returned by {@code probe}
+     * @return          stored score
+     */
+    public static int score(long entry) {
+        return (int) entry;
+    }
+}
@@ -0,0 +1,285 @@
+package othello.game;
+
+/**
+ * Bit-parallel move generation for the supported board sizes. A position is
+ * described by one {@code long} per color, where the cell at row {@code i} and
+ * column {@code j} maps to bit {@code i * dim + j}. Legal moves and flips are
+ * found by shifting whole disc sets one step at a time in each of the eight
+ * directions, with per-dimension edge masks so lines never wrap around the
+ * side of the board.
+ * <p>
+ * The same shifts give the positional features used by the evaluators:
+ * stable discs, which can never be flipped again, and frontier discs and
+ * potential mobility, which count contact with the empty squares.
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-09-2021
+ */
+public final class BitBoard {
+
+    private static final long[] FULL = new long[9];         // Every cell on the board, by dimension
+    private static final long[] INTERIOR = new long[9];     // Every cell not in the first or last column
+    private static final long[] LEFT = new long[9];         // The first column
+    private static final long[] RIGHT = new long[9];        // The last column
+    private static final long[] TOP = new long[9];          // The first row
+    private static final long[] BOTTOM = new long[9];       // The last row
+
+    static {
+        for (int dim = 4; dim <= 8; dim += 2) {
+            long full = (dim == 8) ? -1L : (1L << (dim * dim)) - 1;
+            long left = 0;
+            long right = 0;
+            for (int i = 0; i < dim; i++) {
+                left |= 1L << (i * dim);
+                right |= 1L << (i * dim + dim - 1);
+            }
+            FULL[dim] = full;
+            INTERIOR[dim] = full & ~(left | right);
+            LEFT[dim] = left;
+            RIGHT[dim] = right;
+            TOP[dim] = (1L << dim) - 1;
+            BOTTOM[dim] = TOP[dim] << ((dim - 1) * dim);
+        }
+    }
+
+    private BitBoard() {}
+
+    /**
+     * Returns the bit index of the given cell
+     *
+     * @param i     row on the board
+     * @param j     col on the board
+     * @param dim   square dimension of the board
+     * @return      bit index of the cell
+     */
+    public static int square(int i, int j, int dim) {
+        return i * dim + j;
+    }
+
+    /**
+     * Returns the mask of every cell on a board of the given dimension
+     *
+     * @param dim   square dimension of the board
+     * @return      mask with one bit set per cell
+     */
+    public static long full(int dim) {
+        return FULL[dim];
+    }
+
+    /**
+     * Returns the mask of every empty cell
+     *
+     * @param p     discs of one player
+     * @param o     discs of the other player
+     * @param dim   square dimension of the board
+     * @return      mask of empty cells
+     */
+    public static long empty(long p, long o, int dim) {
+        return ~(p | o) & FULL[dim];
+    }
+
+    /**
+     * Returns every legal move for the player owning {@code p}
+     *
+     * @param p     discs of the player to move
+     * @param o     discs of the opponent
+     * @param dim   square dimension of the board
+     * @return      mask of the cells the player could play
+     */
+    public static long moves(long p, long o, int dim) {
+
+        long empty = empty(p, o, dim);
+        long h = o & INTERIOR[dim];     // Opponent discs that can be bracketed sideways or diagonally
+        int steps = dim - 3;            // Longest possible run of opponent discs, less the first step
+
+        long moves = 0;
+
+        moves |= movesLeft(p, h, empty, 1, steps);
+        moves |= movesRight(p, h, empty, 1, steps);
+        moves |= movesLeft(p, o, empty, dim, steps);
+        moves |= movesRight(p, o, empty, dim, steps);
+        moves |= movesLeft(p, h, empty, dim + 1, steps);
+        moves |= movesRight(p, h, empty, dim + 1, steps);
+        moves |= movesLeft(p, h, empty, dim - 1, steps);
+        moves |= movesRight(p, h, empty, dim - 1, steps);
+
+        return moves;
+    }
+
+    /**
+     * Returns the discs that would be flipped if the player owning {@code p}
+     * placed a disc on the given square. An empty mask means the move is illegal.
+     *
+     * @param p     discs of the player to move
+     * @param o     discs of the opponent
+     * @param sq    bit index of the placed disc
+     * @param dim   square dimension of the board
+     * @return      mask of opponent discs that would be reversed
+     */
+    public static long flips(long p, long o, int sq, int dim) {
+
+        long m = 1L << sq;
+        long h = o & INTERIOR[dim];
+
+        long flipped = 0;
+
+        flipped |= flipsLeft(m, p, h, 1);
+        flipped |= flipsRight(m, p, h, 1);
+        flipped |= flipsLeft(m, p, o, dim);
+        flipped |= flipsRight(m, p, o, dim);
+        flipped |= flipsLeft(m, p, h, dim + 1);
+        flipped |= flipsRight(m, p, h, dim + 1);
+        flipped |= flipsLeft(m, p, h, dim - 1);
+        flipped |= flipsRight(m, p, h, dim - 1);
+
+        return flipped;
+    }
+
+    /**
+     * Returns the discs of the player owning {@code p} that can never be
+     * flipped, whatever is played from here on. A disc is stable when, along
+     * each of the four lines through it, it cannot be bracketed: the line is
+     * full, or the disc touches the edge of the board, or its neighbour on the
+     * line is a stable disc of the same color. Stability starts at the
+     * corners and spreads along the edges and full lines until nothing
+     * changes. Some stable discs in more tangled positions are missed, but
+     * every disc returned is truly stable.
+     *
+     * @param p     discs of one player
+     * @param o     discs of the other player
+     * @param dim   square dimension of the board
+     * @return      mask of the player's stable discs
+     */
+    public static long stable(long p, long o, int dim) {
+
+        long occupied = p | o;
+        long edges = LEFT[dim] | RIGHT[dim] | TOP[dim] | BOTTOM[dim];
+
+        // Cells on a full line, or on the edge, count as safe along that line
+        long horizontal = fullLines(occupied, 1, LEFT[dim], RIGHT[dim], dim) | LEFT[dim] | RIGHT[dim];
+        long vertical = fullLines(occupied, dim, TOP[dim], BOTTOM[dim], dim) | TOP[dim] | BOTTOM[dim];
+        long diagonal = fullLines(occupied, dim + 1, TOP[dim] | LEFT[dim], BOTTOM[dim] | RIGHT[dim], dim) | edges;
+        long anti = fullLines(occupied, dim - 1, TOP[dim] | RIGHT[dim], BOTTOM[dim] | LEFT[dim], dim) | edges;
+
+        // The edge masks already cover every cell whose neighbour would wrap
+        // around the board, so the shifted masks need no column masks
+        long stable = 0;
+        long last;
+        do {
+            last = stable;
+            stable = p
+                    & (horizontal | (stable << 1) | (stable >>> 1))
+                    & (vertical | (stable << dim) | (stable >>> dim))
+                    & (diagonal | (stable << (dim + 1)) | (stable >>> (dim + 1)))
+                    & (anti | (stable << (dim - 1)) | (stable >>> (dim - 1)));
+        } while (stable != last);
+
+        return stable;
+    }
+
+    /**
+     * Returns the discs of the player owning {@code p} that touch an empty
+     * cell. Frontier discs give the opponent something to flip, so fewer is
+     * usually better.
+     *
+     * @param p     discs of one player
+     * @param o     discs of the other player
+     * @param dim   square dimension of the board
+     * @return      mask of the player's frontier discs
+     */
+    public static long frontier(long p, long o, int dim) {
+        return p & neighbours(empty(p, o, dim), dim);
+    }
+
+    /**
+     * Returns the empty cells next to a disc of the player owning {@code o}.
+     * These are the cells the player owning {@code p} might be able to play
+     * later, even if they are not legal moves yet.
+     *
+     * @param p     discs of the player to move
+     * @param o     discs of the opponent
+     * @param dim   square dimension of the board
+     * @return      mask of empty cells touching the opponent
+     */
+    public static long potentialMoves(long p, long o, int dim) {
+        return empty(p, o, dim) & neighbours(o, dim);
+    }
+
+    /**
+     * Returns every cell next to a cell of the given mask, in any of the
+     * eight directions
+     *
+     * @param x     mask of cells
+     * @param dim   square dimension of the board
+     * @return      mask of their neighbours
+     */
+    public static long neighbours(long x, int dim) {
+
+        long notLeft = ~LEFT[dim];
+        long notRight = ~RIGHT[dim];
+
+        long n = (x << dim) | (x >>> dim);
+        n |= ((x << 1) | (x << (dim + 1)) | (x >>> (dim - 1))) & notLeft;
+        n |= ((x >>> 1) | (x >>> (dim + 1)) | (x << (dim - 1))) & notRight;
+
+        return n & FULL[dim];
+    }
+
+    /**
+     * Returns the occupied cells whose whole line in one direction is
+     * occupied. A cell is kept while its neighbour towards each end of the
+     * line is kept too, and the ends of the line stop the walk.
+     *
+     * @param occupied  mask of occupied cells
+     * @param s         shift of one step along the line
+     * @param start     cells where the line begins, the low end of the shift
+     * @param end       cells where the line stops, the high end of the shift
+     * @param dim       square dimension of the board
+     * @return          mask of cells on full lines
+     */
+    private static long fullLines(long occupied, int s, long start, long end, int dim) {
+        long up = occupied;                             // Full from the cell to the high end
+        long down = occupied;                           // Full from the cell to the low end
+        for (int k = 1; k < dim; k++) {
+            up = occupied & (end | (up >>> s));
+            down = occupied & (start | (down << s));
+        }
+        return up & down;
+    }
+
+    private static long movesLeft(long p, long mask, long empty, int s, int steps) {
+        long x = (p << s) & mask;
+        for (int k = 0; k < steps; k++) {
+            x |= (x << s) & mask;
+        }
+        return (x << s) & empty;
+    }
+
+    private static long movesRight(long p, long mask, long empty, int s, int steps) {
+        long x = (p >>> s) & mask;
+        for (int k = 0; k < steps; k++) {
+            x |= (x >>> s) & mask;
+        }
+        return (x >>> s) & empty;
+    }
+
+    private static long flipsLeft(long m, long p, long mask, int s) {
+        long f = 0;
+        long x = m << s;
+        while ((x & mask) != 0) {
+            f |= x;
+            x <<= s;
+        }
+        return ((x & p) != 0) ? f : 0;
+    }
+
+    private static long flipsRight(long m, long p, long mask, int s) {
+        long f = 0;
+        long x = m >>> s;
+        while ((x & mask) != 0) {
+            f |= x;
+            x >>>= s;
+        }
+        return ((x & p) != 0) ? f : 0;
+    }
+}
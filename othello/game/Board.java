@@ -3,6 +3,7 @@ package othello.game;
 import java.util.ArrayList;
 import java.awt.Point;
 
+import othello.ai.search.PrimitiveProblem;
 import othello.ai.search.State;
 import othello.game.exceptions.IllegalBoardDimensions;
 
@@ -12,7 +13,14 @@ import othello.game.exceptions.IllegalBoardDimensions;
  */
 public class Board implements State<Color> {
     
-    private Color arr[][];
+    private long dark;                                  // Dark discs, one bit per cell
+    private long light;                                 // Light discs, one bit per cell
+    private long hash;                                  // Zobrist key of the discs on the board
+    private int darkCount;                              // Number of dark discs, kept in step with dark
+    private int lightCount;                             // Number of light discs, kept in step with light
+    private int[] placedStack;                          // Square placed at each ply of makeMove
+    private long[] flippedStack;                        // Discs reversed at each ply of makeMove
+    private int ply;                                    // Number of moves that can be undone
     public int dim;
     public Color turn;
 
@@ -28,32 +36,85 @@ public class Board implements State<Color> {
         }
 
         this.dim = dim;
-        this.arr = new Color[dim][dim];
 
-        for (int i = 0; i < dim; i++) {
-            for (int j = 0; j < dim; j++) {
-                arr[i][j] = Color.NONE;
-            }
+        int mid = dim / 2;
+
+        set(mid - 1, mid - 1, Color.LIGHT);
+        set(mid - 1, mid, Color.DARK);
+        set(mid, mid - 1, Color.DARK);
+        set(mid, mid, Color.LIGHT);
+
+        this.turn = turn;
+    }
+
+    /**
+     * Construct a copy of the given board
+     * 
+     * @param other     board to copy
+     * @param turn      whose turn it is on the copy
+     */
+    private Board(Board other, Color turn) {
+        this.dim = other.dim;
+        this.dark = other.dark;
+        this.light = other.light;
+        this.hash = other.hash;
+        this.darkCount = other.darkCount;
+        this.lightCount = other.lightCount;
+        this.turn = turn;
+    }
+
+    /**
+     * Returns a copy of this board that can be changed independently
+     * 
+     * @return      copy of the board
+     */
+    public Board copy() {
+        return new Board(this, this.turn);
+    }
+
+    /**
+     * Read a position written as its cells row by row, one character each,
+     * {@code x} for dark, {@code o} for light and {@code -} for empty, and
+     * the side to move, {@code x} or {@code o}. The board size follows from
+     * the number of cells.
+     * 
+     * @param cells     the cells of the board
+     * @param side      the side to move
+     * @return          the board
+     * @throws IllegalArgumentException     if the position cannot be read
+     */
+    public static Board parse(String cells, String side) {
+
+        int dim = (int) Math.round(Math.sqrt(cells.length()));
+        if (dim * dim != cells.length()) {
+            throw new IllegalArgumentException("cannot make a square board of " + cells.length() + " cells");
         }
 
-        if (dim == 4) {
-            this.arr[1][1] = Color.LIGHT;
-            this.arr[1][2] = Color.DARK;
-            this.arr[2][1] = Color.DARK;
-            this.arr[2][2] = Color.LIGHT;
-        } else if (dim == 6) {
-            this.arr[2][2] = Color.LIGHT;
-            this.arr[2][3] = Color.DARK;
-            this.arr[3][2] = Color.DARK;
-            this.arr[3][3] = Color.LIGHT;
+        Color toMove;
+        if (side.equalsIgnoreCase("x")) {
+            toMove = Color.DARK;
+        } else if (side.equalsIgnoreCase("o")) {
+            toMove = Color.LIGHT;
         } else {
-            this.arr[3][3] = Color.LIGHT;
-            this.arr[3][4] = Color.DARK;
-            this.arr[4][3] = Color.DARK;
-            this.arr[4][4] = Color.LIGHT;
+            throw new IllegalArgumentException("side must be x or o, not " + side);
         }
 
-        this.turn = turn;
+        Board board;
+        try {
+            board = new Board(dim, toMove);
+        } catch (IllegalBoardDimensions e) {
+            throw new IllegalArgumentException("board size must be 4, 6 or 8, not " + dim);
+        }
+
+        for (int k = 0; k < cells.length(); k++) {
+            char c = Character.toLowerCase(cells.charAt(k));
+            if (c != 'x' && c != 'o' && c != '-') {
+                throw new IllegalArgumentException("cells must be x, o or -, not " + c);
+            }
+            board.set(k / dim, k % dim, (c == 'x') ? Color.DARK : (c == 'o') ? Color.LIGHT : Color.NONE);
+        }
+
+        return board;
     }
 
     /**
@@ -65,7 +126,14 @@ public class Board implements State<Color> {
      * @return      Color of the given cell
      */
     public Color get(int i, int j) {
-        return this.arr[i][j];
+        long m = 1L << BitBoard.square(i, j, this.dim);
+        if ((this.dark & m) != 0) {
+            return Color.DARK;
+        } else if ((this.light & m) != 0) {
+            return Color.LIGHT;
+        } else {
+            return Color.NONE;
+        }
     }
 
     /**
@@ -77,7 +145,29 @@ public class Board implements State<Color> {
      */
     public void set(int i, int j, Color c)
     {
-        this.arr[i][j] = c;
+        int sq = BitBoard.square(i, j, this.dim);
+        long m = 1L << sq;
+
+        if ((this.dark & m) != 0) {
+            this.hash ^= Zobrist.disc(Color.DARK, sq);
+            this.darkCount--;
+        } else if ((this.light & m) != 0) {
+            this.hash ^= Zobrist.disc(Color.LIGHT, sq);
+            this.lightCount--;
+        }
+
+        this.dark &= ~m;
+        this.light &= ~m;
+
+        if (c == Color.DARK) {
+            this.dark |= m;
+            this.hash ^= Zobrist.disc(Color.DARK, sq);
+            this.darkCount++;
+        } else if (c == Color.LIGHT) {
+            this.light |= m;
+            this.hash ^= Zobrist.disc(Color.LIGHT, sq);
+            this.lightCount++;
+        }
     }
 
     /**
@@ -125,30 +215,40 @@ public class Board implements State<Color> {
     }
 
     /**
-     * Gets the total number of pieces for the given player
+     * Gets the total number of pieces for the given player. Passing
+     * {@code Color.NONE} returns the number of empty cells.
      * 
      * @param player     Color of the player
      * @return      number of peices for the given player
      */
     public int getPlayerPeices(Color player)
     {
-        int score = 0;
-        for (int i = 0; i < this.dim; i++) {
-            for (int j = 0; j < this.dim; j++) {
-                if (this.arr[i][j] == player) score++;
-            }
+        if (player == Color.DARK) {
+            return this.darkCount;
+        } else if (player == Color.LIGHT) {
+            return this.lightCount;
+        } else {
+            return getEmptyCount();
         }
-        return score;
+    }
+
+    /**
+     * Returns the number of empty cells left on the board
+     * 
+     * @return      number of empty cells
+     */
+    public int getEmptyCount() {
+        return this.dim * this.dim - this.darkCount - this.lightCount;
     }
 
     /**
      * Return whether or not the given player has any moves remaining
      * 
-     * @param player
-     * @return
+     * @param player    Color of the player
+     * @return          {@code true} if the player has a legal move, {@code false} otherwise.
      */
     public boolean hasAnyMoves(Color player) {
-        return !getAllPossibleMoves(player).isEmpty();
+        return getMoves(player) != 0;
     }
 
     /**
@@ -158,15 +258,7 @@ public class Board implements State<Color> {
      * @return      ArrayList of all possible points on the board that the player could play
      */
     public ArrayList<Point> getAllPossibleMoves(Color player) {
-        ArrayList<Point> res = new ArrayList<>();
-        for (int i = 0; i < this.dim; i++) {
-            for (int j = 0; j < this.dim; j++) {
-                if (validMove(player, i, j)) {
-                    res.add(new Point(i, j));
-                }
-            }
-        }
-        return res;
+        return toPoints(getMoves(player));
     }
 
     /**
@@ -177,15 +269,10 @@ public class Board implements State<Color> {
      */
     public void refreshBoard(Point move, Color player) {
 
-        // Place the new piece
-        set(move.x, move.y, player);
+        int sq = BitBoard.square(move.x, move.y, this.dim);
 
-        // Reverse all the pieces
-        ArrayList<Point> reverse = reversedPoints(player, move.x, move.y);
-
-        for (Point pt: reverse) {
-            set(pt.x, pt.y, player);
-        }
+        // Place the new piece and reverse all the pieces it brackets
+        place(player, sq, getFlips(player, sq));
 
         setTurn();
     }
@@ -196,44 +283,97 @@ public class Board implements State<Color> {
      * 
      * @param move      {@code Point} representing the move of the player
      * @param player    the {@code Color} of the player
-     * @return
+     * @return          the resulting board, or this board if the move is invalid
      */
     public Board getNextBoard(Point move, Color player) {
         
-        Board nextBoard;
-        Color otherPlayer = (player == Color.DARK ? Color.LIGHT : Color.DARK);
-        
-        try {
-            if (validMove(player, move.x, move.y)) {
-                nextBoard = new Board(this.dim, otherPlayer);
-                
-                for (int i = 0; i < this.dim; i++) {
-                    for (int j = 0; j < this.dim; j++) {
-                        nextBoard.set(i, j, this.get(i, j));
-                    }
-                }
-                
-                nextBoard.set(move.x, move.y, player);
-        
-                ArrayList<Point> reverse = reversedPoints(player, move.x, move.y);
-                for (Point pt : reverse) {
-                    nextBoard.set(pt.x, pt.y, player);
-                }
-        
-                return nextBoard;
-            } else {
-                return this;
-            }
-        } catch (IllegalBoardDimensions e) {
-            System.out.println("ERROR: " + e.toString());
+        if (!validMove(player, move.x, move.y)) {
+            return this;
         }
 
-        return null;
+        int sq = BitBoard.square(move.x, move.y, this.dim);
+        Board nextBoard = new Board(this, opponent(player));
+
+        nextBoard.place(player, sq, getFlips(player, sq));
+
+        return nextBoard;
     }
 
     /**
-     * Determines if the given move is a valid move for the given color player
+     * Play the given move for the player whose turn it is, in place. The placed
+     * square and the reversed discs are recorded so that {@code undoMove()} can
+     * restore the board exactly. The move is assumed to be legal.
      * 
+     * @param move      {@code Point} representing the move of the player
+     */
+    public void makeMove(Point move) {
+        makeMove(BitBoard.square(move.x, move.y, this.dim));
+    }
+
+    /**
+     * Play the move on the given square for the player whose turn it is, in
+     * place, or pass. Like {@code makeMove(Point)} it can be taken back with
+     * {@code undoMove()}.
+     * 
+     * @param sq        bit index of the cell, or {@code PrimitiveProblem.PASS}
+     */
+    public void makeMove(int sq) {
+
+        if (this.placedStack == null) {
+            // Room for a pass before every move
+            this.placedStack = new int[2 * this.dim * this.dim];
+            this.flippedStack = new long[2 * this.dim * this.dim];
+        }
+
+        long flipped = 0;
+        if (sq != PrimitiveProblem.PASS) {
+            flipped = getFlips(this.turn, sq);
+            place(this.turn, sq, flipped);
+        }
+
+        this.placedStack[this.ply] = sq;
+        this.flippedStack[this.ply] = flipped;
+        this.ply++;
+
+        setTurn();
+    }
+
+    /**
+     * Take back the most recent move played with {@code makeMove}
+     */
+    public void undoMove() {
+
+        setTurn();
+
+        this.ply--;
+        int sq = this.placedStack[this.ply];
+        if (sq == PrimitiveProblem.PASS) {
+            return;
+        }
+
+        long m = 1L << sq;
+        long flipped = this.flippedStack[this.ply];
+
+        this.hash ^= Zobrist.disc(this.turn, sq) ^ Zobrist.flips(flipped);
+
+        int n = Long.bitCount(flipped);
+
+        if (this.turn == Color.DARK) {
+            this.dark &= ~m & ~flipped;
+            this.light |= flipped;
+            this.darkCount -= n + 1;
+            this.lightCount += n;
+        } else {
+            this.light &= ~m & ~flipped;
+            this.dark |= flipped;
+            this.lightCount -= n + 1;
+            this.darkCount += n;
+        }
+    }
+
+    /**
+     * Determines if the given move is a valid move for the given color player
+     *
      * @param player    Color of the given player
      * @param i         row on the board
      * @param j         col on the board
@@ -241,218 +381,125 @@ public class Board implements State<Color> {
      */
     public boolean validMove(Color player, int i, int j) {
 
-        if (get(i, j) != Color.NONE) return false;
-
-        int mi;
-        int mj;
-        int count;
-        int limit = this.dim - 1;
+        int sq = BitBoard.square(i, j, this.dim);
 
-        Color otherPlayer = ((player == Color.DARK) ? Color.LIGHT : Color.DARK);
+        if (((this.dark | this.light) & (1L << sq)) != 0) return false;
 
-        // Begin by moving up to check whether the opponent has a line of theirs moving up
-        mi = i - 1;
-        mj = j;
-        count = 0;
+        return getFlips(player, sq) != 0;
+    }
 
-        while (mi > 0 && get(mi, mj) == otherPlayer) {
-            mi--;
-            count++;
-        }
-        if (mi >= 0 && this.arr[mi][mj] == player && count > 0) return true;
-
-        // Then, we will move down to check if ther opponent has a line moving down
-        mi = i + 1;
-        mj = j;
-        count = 0;
-        while (mi < limit && get(mi, mj) == otherPlayer) {
-            mi++;
-            count++;
-        }
-        if (mi <= limit && get(mi, mj) == player && count > 0) return true;
-
-        // Now, the same thing moving left
-        mi = i;
-        mj = j - 1;
-        count = 0;
-        while (mj > 0 && get(mi, mj) == otherPlayer) {
-            mj--;
-            count++;
-        }
-        if (mj >= 0 && get(mi, mj) == player && count > 0) return true;
-
-        // Let's check the right direction before checking the diagonals
-        mi = i;
-        mj = j + 1;
-        count = 0;
-        while (mj < limit && get(mi, mj) == otherPlayer) {
-            mj++;
-            count++;
-        }
-        if (mj <= limit && get(mi, mj) == player && count > 0) return true;
-
-        // Now, we can move diagonally up towards the upper left
-        mi = i - 1;
-        mj = j - 1;
-        count = 0;
-        while (mi > 0 && mj > 0 && get(mi, mj) == otherPlayer) {
-            mi--;
-            mj--;
-            count++;
-        }
-        if (mi >= 0 && mj >= 0 && get(mi, mj) == player && count > 0) return true;
-
-        // Move diagonally towards the upper right
-        mi = i - 1;
-        mj = j + 1;
-        count = 0;
-        while(mi > 0 && mj < limit && get(mi, mj) == otherPlayer){
-            mi--;
-            mj++;
-            count++;
-        }
-        if (mi >= 0 && mj <= limit && get(mi, mj) == player && count > 0) return true;
-
-        // Move diagonally towards the lower left
-        mi = i + 1;
-        mj = j - 1;
-        count = 0;
-        while(mi < limit && mj > 0 && get(mi, mj) == otherPlayer){
-            mi++;
-            mj--;
-            count++;
-        }
-        if (mi <= limit && mj >= 0 && get(mi, mj) == player && count > 0) return true;
-
-        // Move diagonally towards the lower right
-        mi = i + 1;
-        mj = j + 1;
-        count = 0;
-        while(mi < limit && mj < limit && get(mi, mj) == otherPlayer){
-            mi++;
-            mj++;
-            count++;
-        }
-        if (mi <= limit && mj <= limit && get(mi, mj) == player && count > 0) return true;
+    /**
+     * Returns the points that would be reversed if the given player placed a
+     * piece on the given cell
+     *
+     * @param player    Color of the given player
+     * @param i         row on the board
+     * @param j         col on the board
+     * @return          ArrayList of the points that would be reversed
+     */
+    public ArrayList<Point> reversedPoints(Color player, int i, int j) {
+        return toPoints(getFlips(player, BitBoard.square(i, j, this.dim)));
+    }
 
-        // If none of these conditions are true, this is not a valid move.
-        return false;
+    /**
+     * Returns the Zobrist hash of the position, including whose turn it is
+     *
+     * @return      64-bit hash of the board
+     */
+    public long getHash() {
+        return this.hash ^ Zobrist.turn(this.turn);
     }
 
-    public ArrayList<Point> reversedPoints(Color player, int i, int j) {
-        
-        ArrayList<Point> allReversedPoints = new ArrayList<>();
-
-        int mi, mj;
-        int limit = this.dim - 1;
-        Color otherPlayer = ((player == Color.DARK) ? Color.LIGHT : Color.DARK);
-
-        // Like the method validMove(), we need to check for points to reversed
-        // in the directions up, down, left, right, upper right, upper left,
-        // lower right, lower left since the board works horizontally, vertically,
-        // and diagonally.
-        //
-        // Let's begin by checking moving up.
-        ArrayList<Point> points = new ArrayList<>();
-        mi = i - 1;
-        mj = j;
-        while (mi > 0 && get(mi, mj) == otherPlayer) {
-            points.add(new Point(mi, mj));
-            mi--;
-        }
-        if (mi >= 0 && get(mi, mj) == player && points.size() > 0) {
-            allReversedPoints.addAll(points);
+    /**
+     * Returns the discs of the given color as a bit mask. Passing
+     * {@code Color.NONE} returns the empty cells.
+     *
+     * @param player    Color of the player
+     * @return          mask with bit {@code i * dim + j} set for each cell owned
+     */
+    public long getDiscs(Color player) {
+        if (player == Color.DARK) {
+            return this.dark;
+        } else if (player == Color.LIGHT) {
+            return this.light;
+        } else {
+            return BitBoard.empty(this.dark, this.light, this.dim);
         }
+    }
 
-        // Now, move the opposite direction and go down
-        points.clear();
-        mi = i + 1;
-        mj = j;
-        while (mi < limit && get(mi, mj) == otherPlayer) {
-            points.add(new Point(mi, mj));
-            mi++;
-        }
-        if (mi <= limit && get(mi, mj) == player && points.size() > 0) {
-            allReversedPoints.addAll(points);
-        }
+    /**
+     * Returns every legal move of the given player as a bit mask
+     *
+     * @param player    Color of the player
+     * @return          mask with bit {@code i * dim + j} set for each legal move
+     */
+    public long getMoves(Color player) {
+        return BitBoard.moves(getDiscs(player), getDiscs(opponent(player)), this.dim);
+    }
 
-        // Now we change to the horizontal direction and start by moving left
-        points.clear();
-        mi = i;
-        mj = j - 1;
-        while (mj > 0 && get(mi, mj) == otherPlayer) {
-            points.add(new Point(mi, mj));
-            mj--;
-        }
-        if (mj >= 0 && get(mi, mj) == player && points.size() > 0) {
-            allReversedPoints.addAll(points);
-        }
+    /**
+     * Returns the discs that would be reversed if the given player placed a
+     * piece on the given square
+     *
+     * @param player    Color of the player
+     * @param sq        bit index of the cell
+     * @return          mask of the discs that would be reversed
+     */
+    public long getFlips(Color player, int sq) {
+        return BitBoard.flips(getDiscs(player), getDiscs(opponent(player)), sq, this.dim);
+    }
 
-        // Let's go to the right
-        points.clear();
-        mi = i;
-        mj = j + 1;
-        while (mj < limit && get(mi, mj) == otherPlayer) {
-            points.add(new Point(mi, mj));
-            mj++;
-        }
-        if ( mj <= limit && get(mi, mj) == player && points.size() > 0) {
-            allReversedPoints.addAll(points);
-        }
+    /**
+     * Place a piece for the given player and reverse the given discs
+     *
+     * @param player    Color of the player
+     * @param sq        bit index of the placed piece
+     * @param flipped   mask of the discs to reverse
+     */
+    private void place(Color player, int sq, long flipped) {
+        long m = (1L << sq) | flipped;
 
-        // Now, we can move diagonally. We can begin by going towards the upper left
-        points.clear();
-        mi = i - 1;
-        mj = j - 1;
-        while (mi > 0 && mj > 0 && get(mi, mj) == otherPlayer) {
-            points.add(new Point(mi, mj));
-            mi--;
-            mj--;
-        }
-        if (mi >= 0 && mj >= 0 && get(mi, mj) == player && points.size() > 0) {
-            allReversedPoints.addAll(points);
-        }
+        this.hash ^= Zobrist.disc(player, sq) ^ Zobrist.flips(flipped);
 
-        // Now towards the upper right
-        points.clear();
-        mi = i - 1;
-        mj = j + 1;
-        while (mi > 0 && mj < limit && get(mi, mj) == otherPlayer) {
-            points.add(new Point(mi, mj));
-            mi--;
-            mj++;
-        }
-        if (mi >= 0 && mj <= limit && get(mi, mj) == player && points.size() > 0) {
-            allReversedPoints.addAll(points);
-        }
+        int n = Long.bitCount(flipped);
 
-        // Lower Left
-        points.clear();
-        mi = i + 1;
-        mj = j - 1;
-        while (mi < limit && mj > 0 && get(mi, mj) == otherPlayer) {
-            points.add(new Point(mi, mj));
-            mi++;
-            mj--;
-        }
-        if (mi <= limit && mj >= 0 && get(mi, mj) == player && points.size() > 0) {
-            allReversedPoints.addAll(points);
+        if (player == Color.DARK) {
+            this.dark |= m;
+            this.light &= ~flipped;
+            this.darkCount += n + 1;
+            this.lightCount -= n;
+        } else {
+            this.light |= m;
+            this.dark &= ~flipped;
+            this.lightCount += n + 1;
+            this.darkCount -= n;
         }
+    }
 
-        // Finally, lower right
-        points.clear();
-        mi = i + 1;
-        mj = j + 1;
-        while (mi < limit && mj < limit && get(mi, mj) == otherPlayer) {
-            points.add(new Point(mi, mj));
-            mi++;
-            mj++;
-        }
-        if (mi <= limit && mj <= limit && get(mi, mj) == player && points.size() > 0) {
-            allReversedPoints.addAll(points);
+    /**
+     * Converts a mask of cells into a list of points in row-major order
+     *
+     * @param mask      mask of cells
+     * @return          ArrayList of the corresponding points
+     */
+    private ArrayList<Point> toPoints(long mask) {
+        ArrayList<Point> res = new ArrayList<>(Long.bitCount(mask));
+        while (mask != 0) {
+            int sq = Long.numberOfTrailingZeros(mask);
+            res.add(new Point(sq / this.dim, sq % this.dim));
+            mask &= mask - 1;
         }
+        return res;
+    }
 
-        return allReversedPoints;
+    /**
+     * Returns the opposing color of the given player
+     *
+     * @param player    Color of the player
+     * @return          Color of the other player
+     */
+    private static Color opponent(Color player) {
+        return (player == Color.DARK) ? Color.LIGHT : Color.DARK;
     }
 
     /**
@@ -7,23 +7,33 @@ import java.util.Scanner;
 import othello.game.exceptions.IllegalBoardDimensions;
 import othello.player.Player;
 import othello.tui.Utils;
-import othello.ai.search.Problem;
+import othello.ai.algorithms.MultiPV;
+import othello.ai.algorithms.ScoredLine;
+import othello.ai.search.Evaluator;
+import othello.ai.search.PrimitiveProblem;
+import othello.ai.search.TranspositionTable;
 
 /**
+ * A game of Othello between two players, on one board. The game is also the
+ * search problem its players are handed, but everything about the problem
+ * except the board in play comes from {@code Rules}. Searches that run
+ * beside the game, or with no game at all, can use the rules directly.
+ *
  * @author  Emma Campbell & Emma Schechter
  * @since   02-09-2021
  */
-public class Othello implements Problem<Board, Point, Color> {
+public class Othello implements PrimitiveProblem<Board, Point, Color> {
+
+    private static final int HINT_DEPTH = 6;            // Depth the hints are searched to
+    private static final int HINT_LINES = 3;            // Number of moves suggested
     
     private Scanner input = new Scanner(System.in);
     private Board board;
+    private Rules rules;                    // Everything but the game in progress, shared with other games
     
     private Player p1;
     private Player p2;
 
-    private int p1Score;
-    private int p2Score;
-
     /**
      * Constructor for the Othello game engine
      * 
@@ -35,6 +45,7 @@ public class Othello implements Problem<Board, Point, Color> {
 
         try {
             this.board = new Board(dim, p1.color);
+            this.rules = Rules.forDimension(dim);
         } catch (IllegalBoardDimensions e) {
             System.out.println("ERROR: " + e.toString());
         }
@@ -43,6 +54,38 @@ public class Othello implements Problem<Board, Point, Color> {
         this.p2 = p2;
     }
 
+    /**
+     * Set the evaluator used by {@code heuristic}
+     * 
+     * @param evaluator     evaluator to score boards with, or {@code null} for the
+     *                      built-in mobility, disc, corner, stability and
+     *                      frontier heuristic
+     */
+    public void setEvaluator(Evaluator<Board> evaluator) {
+        this.rules = rules.withEvaluator(evaluator);
+    }
+
+    /**
+     * Choose between uniformly random playouts and lightly biased ones, for
+     * the Monte Carlo searches
+     * 
+     * @param biased        {@code true} to take corners and avoid the cells
+     *                      next to empty corners
+     */
+    public void setBiasedPlayouts(boolean biased) {
+        this.rules = rules.withBiasedPlayouts(biased);
+    }
+
+    /**
+     * Returns the rules this game is played by. Unlike the game, they hold no
+     * board, so any number of searches may use them at once.
+     * 
+     * @return      the rules of the game
+     */
+    public Rules getRules() {
+        return rules;
+    }
+
     /**
      * Determine the winner of the game
      * 
@@ -159,6 +202,34 @@ public class Othello implements Problem<Board, Point, Color> {
         return decideWinner();
     }
 
+    /**
+     * Plays the game to the end without printing, clearing the screen or
+     * waiting between moves, for games between computer players
+     * 
+     * @return      {@code Player} who won, or {@code null} for a draw
+     * @throws IllegalStateException    if a user player is asked to move
+     */
+    public Player playHeadless() {
+
+        while (!board.isGameFinished()) {
+
+            Player p = (board.whoseTurn() == p1.color) ? p1 : p2;
+
+            if (!board.hasAnyMoves(p.color)) {
+                board.setTurn();
+                continue;
+            }
+
+            if (p.isUserPlayer()) {
+                throw new IllegalStateException("a headless game cannot ask a user for moves");
+            }
+
+            board.refreshBoard(p.play(this), p.color);
+        }
+
+        return decideWinner();
+    }
+
     /**
      * Have the USER take their turn
      * 
@@ -170,22 +241,66 @@ public class Othello implements Problem<Board, Point, Color> {
 
         String colorStr = (p.color == Color.DARK ? "DARK" : "LIGHT");
 
-        do {
-            System.out.print("\n" + colorStr + ", PLEASE CHOSE A SPACE [rowcol (i.e. a3)]: ");
+        // Let the other player think while we wait for the user
+        Player other = (p == p1) ? p2 : p1;
+        other.ponder(this);
+
+        while (true) {
+            System.out.print("\n" + colorStr + ", PLEASE CHOSE A SPACE [rowcol (i.e. a3), or hint]: ");
             String space = input.next();
 
+            if (space.equalsIgnoreCase("hint")) {
+                printHints();
+                continue;
+            }
+
             move = stringToPoint(space);
 
             if (board.validMove(p.color, move.x, move.y)) {
                 break;
             }
+        }
 
-        } while (!board.validMove(p.color, move.x, move.y));
+        other.stopPondering();
 
         // Add our new point for p
         board.refreshBoard(move, p.color);
     }
 
+    /**
+     * Print the best few moves for the player to move, each with its value
+     * and the line of play expected to follow it. The search runs on a copy
+     * of the board with a table of its own, so it never disturbs the game or
+     * a player pondering beside it.
+     */
+    private void printHints() {
+
+        MultiPV<Board, Point, Color> analysis = new MultiPV<>(rules, HINT_DEPTH, HINT_LINES, new TranspositionTable(18));
+        analysis.solve(board.copy());
+
+        for (ScoredLine<Point> line : analysis.getLines()) {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("    %s %+6d   ", pointToString(line.getAction()), line.getValue()));
+            for (Point move : line.getVariation()) {
+                sb.append(' ').append(pointToString(move));
+            }
+            System.out.println(sb);
+        }
+    }
+
+    /**
+     * Write a move as a column letter and a row number, as it is typed in
+     *
+     * @param move      the move, or {@code null} for a pass
+     * @return          the move as text
+     */
+    public static String pointToString(Point move) {
+        if (move == null) {
+            return "pass";
+        }
+        return "" + (char) ('a' + move.y) + (move.x + 1);
+    }
+
     /**
      * Converts a string input such as 'a4' into a {@code Point}
      * 
@@ -221,150 +336,99 @@ public class Othello implements Problem<Board, Point, Color> {
     }
 
     /**
-     * Returns all the possible actions that can be made by the player whose turn it
-     * is
+     * Returns the "initial state" for search problem
      * 
-     * @param s     {@code Board} currently in play
-     * @return      {@code ArrayList<Point>} of all possible moves
+     * @return      the current board
      */
     @Override
-    public ArrayList<Point> actions(Board s) {
-        return s.getAllPossibleMoves(s.whoseTurn());
+    public Board initialState() {
+        return this.board;
     }
 
-    /**
-     * Generates the "result"-ing Board when {@code Point} move is applied to the
-     * current {@code Board} s.
-     * 
-     * @param s     current {@code Board}
-     * @param move  move to be applied
-     * @return      resulting board
-     */
+    // The rest of the problem is the rules, which know nothing of this game
+
     @Override
-    public Board result(Board s, Point move) {
-        return s.getNextBoard(move, s.whoseTurn());
+    public Color whoseTurn(Board s) {
+        return rules.whoseTurn(s);
     }
 
-    /**
-     * Is the given board a terminal state?
-     * 
-     * @param s     current board
-     * @return      {@code true} if terminal state, {@code false} otherwise.
-     */
     @Override
-    public boolean isTerminal(Board s) {
-        return s.isTerminal();
+    public ArrayList<Point> actions(Board s) {
+        return rules.actions(s);
     }
 
-    /**
-     * Utility function that determines whether the given player p won or not
-     * 
-     * @param s     current board
-     * @param p     current player
-     * @return      {@code 1} if player won, {@code 0} if tied, {@code -1} if lost
-     */
     @Override
-    public int utility(Board s, Color p) {
-        Color otherPlayer = (p == Color.DARK ? Color.LIGHT : Color.DARK);
+    public int actions(Board s, int[] moves) {
+        return rules.actions(s, moves);
+    }
 
-        p1Score = s.getPlayerPeices(p);
-        p2Score = s.getPlayerPeices(otherPlayer);
+    @Override
+    public Board result(Board s, Point move) {
+        return rules.result(s, move);
+    }
 
-        if (p1Score > p2Score) {
-            return 1;
-        } else if (p1Score == p2Score) {
-            return 0;
-        } else {
-            return -1;
-        }
+    @Override
+    public Board copy(Board s) {
+        return rules.copy(s);
     }
 
-    /**
-     * Returns the "initial state" for search problem
-     * 
-     * @return      the current board
-     */
     @Override
-    public Board initialState() {
-        return this.board;
+    public void apply(Board s, Point move) {
+        rules.apply(s, move);
     }
 
-    /**
-     * Whose turn is it in the given state?
-     * 
-     * @param s     current board
-     * @return      {@code Color} representing whose turn it is
-     */
     @Override
-    public Color whoseTurn(Board s) {
-        return s.whoseTurn();
+    public void apply(Board s, int move) {
+        rules.apply(s, move);
     }
 
     @Override
-    public int heuristic(Board s) {
-        Color player = s.whoseTurn();
-        int mobility = mobility(s, player);
-        int discDiff = discDifference(s, player);
-        return 2*mobility + discDiff + 1000*corners(s, player);
+    public void undo(Board s) {
+        rules.undo(s);
     }
 
-    /**
-     * Evaluates the difference in the number of disks between AI and the other player
-     * 
-     * @param b         {@code Board} with current state
-     * @param player    {@code Color} representing the current player
-     * @return          integer difference between the numbers of discs
-     */
-    private int discDifference(Board b, Color player) {
-        Color otherPlayer = ((player == Color.DARK) ? Color.LIGHT : Color.DARK);
+    @Override
+    public long hash(Board s) {
+        return rules.hash(s);
+    }
 
-        int discCount = b.getPlayerPeices(player);
-        int otherDiscCount = b.getPlayerPeices(otherPlayer);
+    @Override
+    public int encode(Point move) {
+        return rules.encode(move);
+    }
 
-        return 100 * (discCount - otherDiscCount) / (discCount + otherDiscCount + 1);
+    @Override
+    public Point decode(int move) {
+        return rules.decode(move);
     }
 
-    /**
-     * Evaluates the mobility (ability to move) of the given player
-     * 
-     * @param b         {@code Board} with current state
-     * @param player    {@code Color} representing the current player
-     * @return          integer difference in mobility between the two players
-     */
-    private int mobility(Board b, Color player) {
-        Color otherPlayer = ((player == Color.DARK) ? Color.LIGHT : Color.DARK);
-        
-        int moveCount = b.getAllPossibleMoves(player).size();
-        int otherMoveCount = b.getAllPossibleMoves(otherPlayer).size();
-        
-        return 100 * (moveCount - otherMoveCount) / (moveCount + otherMoveCount + 1);  
+    @Override
+    public int playout(Board s, Color p) {
+        return rules.playout(s, p);
     }
 
-    /**
-     * Evaluates the number of corners captured by the given player. Corners are important
-     * because once captured, the opponent cannot flip them.
-     * 
-     * @param b         {@code Board} of current state
-     * @param player    {@code Color} representing the current player
-     * @return          integer difference between the corners of the two players
-     */
-    private static int corners(Board b, Color player) {
-        
-        Color otherPlayer = ((player == Color.DARK) ? Color.LIGHT : Color.DARK);
+    @Override
+    public int priority(Point move) {
+        return rules.priority(move);
+    }
 
-        int corners = 0;
-        int otherCorners = 0;
+    @Override
+    public int priority(int move) {
+        return rules.priority(move);
+    }
 
-        if (b.get(0, 0) == player) corners++;
-        if (b.get(b.dim-1, 0) == player) corners++;
-        if (b.get(0, b.dim-1) == player) corners++;
-        if (b.get(b.dim-1, b.dim-1) == player) corners++;
+    @Override
+    public boolean isTerminal(Board s) {
+        return rules.isTerminal(s);
+    }
 
-        if (b.get(0, 0) == otherPlayer) otherCorners++;
-        if (b.get(b.dim-1, 0) == otherPlayer) otherCorners++;
-        if (b.get(0, b.dim-1) == otherPlayer) otherCorners++;
-        if (b.get(b.dim-1, b.dim-1) == otherPlayer) otherCorners++;
+    @Override
+    public int utility(Board s, Color p) {
+        return rules.utility(s, p);
+    }
 
-        return 100 * (corners - otherCorners) / (corners + otherCorners + 1);
+    @Override
+    public int heuristic(Board s) {
+        return rules.heuristic(s);
     }
 }
@@ -0,0 +1,495 @@
+package othello.game;
+
+import java.awt.Point;
+import java.util.ArrayList;
+
+import othello.ai.search.Evaluator;
+import othello.ai.search.PatternEvaluator;
+import othello.ai.search.Playout;
+import othello.ai.search.PrimitiveProblem;
+import othello.game.exceptions.IllegalBoardDimensions;
+
+/**
+ * The rules of Othello as a search problem, apart from any game being
+ * played. Every method works only on the board it is given, and the only
+ * fields are the board size, the evaluator and the kind of playout, which
+ * never change, so one
+ * instance can be used by any number of searches on any number of threads at
+ * once, as long as each thread searches its own copy of the board.
+ * <p>
+ * {@code forDimension} shares one instance per board size, scoring with the
+ * trained pattern evaluator when there is one.
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-24-2021
+ */
+public final class Rules implements PrimitiveProblem<Board, Point, Color> {
+
+    private static final Rules[] SHARED = new Rules[9];     // By dimension, created once
+
+    private final int dim;
+    private final Evaluator<Board> evaluator;   // Scores boards at the depth limit, or null for the built-in heuristic
+    private final boolean biasedPlayouts;       // Do playouts take corners and avoid the cells next to them?
+
+    /**
+     * Create the rules for the given board size
+     *
+     * @param dim           square dimension of the board
+     * @param evaluator     evaluator to score boards with, or {@code null} for the
+     *                      built-in mobility, disc, corner, stability and
+     *                      frontier heuristic. It must be safe to call from
+     *                      many threads at once.
+     * @throws IllegalBoardDimensions   if the size is not 4, 6 or 8
+     */
+    public Rules(int dim, Evaluator<Board> evaluator) throws IllegalBoardDimensions {
+        this(dim, evaluator, false);
+    }
+
+    private Rules(int dim, Evaluator<Board> evaluator, boolean biasedPlayouts) throws IllegalBoardDimensions {
+
+        if (!(dim == 4 || dim == 6 || dim == 8)) {
+            throw new IllegalBoardDimensions();
+        }
+
+        this.dim = dim;
+        this.evaluator = evaluator;
+        this.biasedPlayouts = biasedPlayouts;
+    }
+
+    /**
+     * Returns the shared rules for the given board size, scoring with the
+     * trained pattern evaluator if there are weights for the size
+     *
+     * @param dim       square dimension of the board
+     * @return          rules shared by every caller
+     * @throws IllegalBoardDimensions   if the size is not 4, 6 or 8
+     */
+    public static synchronized Rules forDimension(int dim) throws IllegalBoardDimensions {
+
+        if (!(dim == 4 || dim == 6 || dim == 8)) {
+            throw new IllegalBoardDimensions();
+        }
+
+        if (SHARED[dim] == null) {
+            SHARED[dim] = new Rules(dim, PatternEvaluator.forDimension(dim));
+        }
+
+        return SHARED[dim];
+    }
+
+    /**
+     * Returns rules for the same board size that score with another evaluator
+     *
+     * @param e         evaluator to score boards with, or {@code null} for the built-in heuristic
+     * @return          new rules, leaving these unchanged
+     */
+    public Rules withEvaluator(Evaluator<Board> e) {
+        try {
+            return new Rules(dim, e, biasedPlayouts);
+        } catch (IllegalBoardDimensions ex) {
+            throw new IllegalStateException(ex);        // Checked when these rules were made
+        }
+    }
+
+    /**
+     * Returns rules for the same board size whose playouts are uniformly
+     * random or lightly biased: a corner is always taken when one is
+     * available, and the cells next to an empty corner are avoided when
+     * there is anything else to play
+     *
+     * @param biased    {@code true} for biased playouts
+     * @return          new rules, leaving these unchanged
+     */
+    public Rules withBiasedPlayouts(boolean biased) {
+        try {
+            return new Rules(dim, evaluator, biased);
+        } catch (IllegalBoardDimensions ex) {
+            throw new IllegalStateException(ex);        // Checked when these rules were made
+        }
+    }
+
+    /**
+     * @return          square dimension of the board
+     */
+    public int getDim() {
+        return dim;
+    }
+
+    /**
+     * @return          evaluator scoring boards at the depth limit, or {@code null}
+     *                  for the built-in heuristic
+     */
+    public Evaluator<Board> getEvaluator() {
+        return evaluator;
+    }
+
+    /**
+     * Returns all the possible actions that can be made by the player whose turn it
+     * is
+     * 
+     * @param s     {@code Board} currently in play
+     * @return      {@code ArrayList<Point>} of all possible moves
+     */
+    @Override
+    public ArrayList<Point> actions(Board s) {
+        return s.getAllPossibleMoves(s.whoseTurn());
+    }
+
+    /**
+     * Writes the squares of every legal move of the player whose turn it is
+     * into the given buffer, or a single {@code PASS} if that player has no
+     * move but the game is not over
+     * 
+     * @param s     {@code Board} currently in play
+     * @param moves buffer of at least {@code MAX_ACTIONS} entries
+     * @return      number of moves written
+     */
+    @Override
+    public int actions(Board s, int[] moves) {
+
+        long m = s.getMoves(s.whoseTurn());
+
+        if (m == 0) {
+            if (s.isGameFinished()) {
+                return 0;
+            }
+            moves[0] = PASS;
+            return 1;
+        }
+
+        int n = 0;
+        while (m != 0) {
+            moves[n++] = Long.numberOfTrailingZeros(m);
+            m &= m - 1;
+        }
+        return n;
+    }
+
+    /**
+     * Generates the "result"-ing Board when {@code Point} move is applied to the
+     * current {@code Board} s.
+     * 
+     * @param s     current {@code Board}
+     * @param move  move to be applied
+     * @return      resulting board
+     */
+    @Override
+    public Board result(Board s, Point move) {
+        return s.getNextBoard(move, s.whoseTurn());
+    }
+
+    /**
+     * Returns an independent copy of the given board, so that several searches
+     * can work on the same position at once
+     * 
+     * @param s     current {@code Board}
+     * @return      copy of the board
+     */
+    @Override
+    public Board copy(Board s) {
+        return s.copy();
+    }
+
+    /**
+     * Plays {@code Point} move on the current {@code Board} s in place
+     * 
+     * @param s     current {@code Board}
+     * @param move  move to be applied
+     */
+    @Override
+    public void apply(Board s, Point move) {
+        s.makeMove(move);
+    }
+
+    /**
+     * Plays the move on the given square, or a pass, on the current
+     * {@code Board} s in place
+     * 
+     * @param s     current {@code Board}
+     * @param move  bit index of the cell, or {@code PASS}
+     */
+    @Override
+    public void apply(Board s, int move) {
+        s.makeMove(move);
+    }
+
+    /**
+     * Takes back the last move played on the current {@code Board} s
+     * 
+     * @param s     current {@code Board}
+     */
+    @Override
+    public void undo(Board s) {
+        s.undoMove();
+    }
+
+    /**
+     * Returns the Zobrist hash of the given board
+     * 
+     * @param s     current {@code Board}
+     * @return      64-bit hash of the board
+     */
+    @Override
+    public long hash(Board s) {
+        return s.getHash();
+    }
+
+    /**
+     * Encodes the given move as the index of its cell
+     * 
+     * @param move  move to be encoded
+     * @return      {@code row * dim + col}
+     */
+    @Override
+    public int encode(Point move) {
+        return BitBoard.square(move.x, move.y, dim);
+    }
+
+    /**
+     * Returns the move on the cell with the given index
+     * 
+     * @param move  bit index of the cell, or {@code PASS}
+     * @return      the move, or {@code null} for a pass
+     */
+    @Override
+    public Point decode(int move) {
+        if (move == PASS) {
+            return null;
+        }
+        return new Point(move / dim, move % dim);
+    }
+
+    /**
+     * Play the game out with random moves on the disc masks of the board,
+     * using the calling thread's playout kernel, biased or not as these
+     * rules were made
+     * 
+     * @param s     current {@code Board}, left as it was
+     * @param p     {@code Color} of the player to score the finished game for
+     * @return      {@code 1} if p wins the playout, {@code 0} for a tie, {@code -1} otherwise
+     */
+    @Override
+    public int playout(Board s, Color p) {
+        Color mover = s.whoseTurn();
+        Color other = (mover == Color.DARK ? Color.LIGHT : Color.DARK);
+        Playout kernel = Playout.current(s.dim);
+        kernel.setBiased(biasedPlayouts);
+        int diff = kernel.play(s.getDiscs(mover), s.getDiscs(other));
+        return Integer.signum(mover == p ? diff : -diff);
+    }
+
+    /**
+     * Ranks a move by the kind of cell it takes
+     * 
+     * @param move  move to rank
+     * @return      larger values for moves that should be searched earlier
+     */
+    @Override
+    public int priority(Point move) {
+        return priority(encode(move));
+    }
+
+    /**
+     * Ranks a move by the kind of cell it takes. Corners can never be flipped
+     * and are always worth trying first, while the cells next to an empty
+     * corner usually hand that corner to the opponent.
+     * 
+     * @param move  bit index of the cell, or {@code PASS}
+     * @return      larger values for moves that should be searched earlier
+     */
+    @Override
+    public int priority(int move) {
+
+        if (move == PASS) {
+            return 0;
+        }
+
+        int i = move / dim;
+        int j = move % dim;
+        int ri = Math.min(i, dim - 1 - i);        // Distance to the nearest top/bottom edge
+        int rj = Math.min(j, dim - 1 - j);        // Distance to the nearest left/right edge
+
+        if (ri == 0 && rj == 0) {
+            return 100;                 // Corner
+        } else if (ri == 1 && rj == 1) {
+            return -50;                 // X-square, diagonal to a corner
+        } else if (ri + rj == 1) {
+            return -20;                 // C-square, beside a corner on the edge
+        } else if (ri == 0 || rj == 0) {
+            return 10;                  // Other edge cells
+        } else if (ri == 1 || rj == 1) {
+            return -5;                  // Second ring, which opens up the edges
+        } else {
+            return 0;
+        }
+    }
+
+    /**
+     * Is the given board a terminal state?
+     * 
+     * @param s     current board
+     * @return      {@code true} if terminal state, {@code false} otherwise.
+     */
+    @Override
+    public boolean isTerminal(Board s) {
+        return s.isTerminal();
+    }
+
+    /**
+     * Utility function that determines whether the given player p won or not
+     * 
+     * @param s     current board
+     * @param p     current player
+     * @return      {@code 1} if player won, {@code 0} if tied, {@code -1} if lost
+     */
+    @Override
+    public int utility(Board s, Color p) {
+        Color otherPlayer = (p == Color.DARK ? Color.LIGHT : Color.DARK);
+
+        int p1Score = s.getPlayerPeices(p);
+        int p2Score = s.getPlayerPeices(otherPlayer);
+
+        if (p1Score > p2Score) {
+            return 1;
+        } else if (p1Score == p2Score) {
+            return 0;
+        } else {
+            return -1;
+        }
+    }
+
+    /**
+     * Returns the starting position, with dark to move. The rules know
+     * nothing of any game in progress, so this is a new board every time.
+     *
+     * @return      new board in the starting position
+     */
+    @Override
+    public Board initialState() {
+        try {
+            return new Board(dim, Color.DARK);
+        } catch (IllegalBoardDimensions e) {
+            throw new IllegalStateException(e);         // Checked when the rules were made
+        }
+    }
+
+    /**
+     * Whose turn is it in the given state?
+     * 
+     * @param s     current board
+     * @return      {@code Color} representing whose turn it is
+     */
+    @Override
+    public Color whoseTurn(Board s) {
+        return s.whoseTurn();
+    }
+
+    @Override
+    public int heuristic(Board s) {
+        if (evaluator != null) {
+            return evaluator.evaluate(s);
+        }
+        Color player = s.whoseTurn();
+        int mobility = mobility(s, player);
+        int discDiff = discDifference(s, player);
+        return 2*mobility + discDiff + 1000*corners(s, player) + 100*stability(s, player) + 20*frontier(s, player);
+    }
+
+    /**
+     * Evaluates the difference in the number of disks between AI and the other player
+     * 
+     * @param b         {@code Board} with current state
+     * @param player    {@code Color} representing the current player
+     * @return          integer difference between the numbers of discs
+     */
+    private static int discDifference(Board b, Color player) {
+        Color otherPlayer = ((player == Color.DARK) ? Color.LIGHT : Color.DARK);
+
+        int discCount = b.getPlayerPeices(player);
+        int otherDiscCount = b.getPlayerPeices(otherPlayer);
+
+        return 100 * (discCount - otherDiscCount) / (discCount + otherDiscCount + 1);
+    }
+
+    /**
+     * Evaluates the mobility (ability to move) of the given player
+     * 
+     * @param b         {@code Board} with current state
+     * @param player    {@code Color} representing the current player
+     * @return          integer difference in mobility between the two players
+     */
+    private static int mobility(Board b, Color player) {
+        Color otherPlayer = ((player == Color.DARK) ? Color.LIGHT : Color.DARK);
+        
+        int moveCount = Long.bitCount(b.getMoves(player));
+        int otherMoveCount = Long.bitCount(b.getMoves(otherPlayer));
+        
+        return 100 * (moveCount - otherMoveCount) / (moveCount + otherMoveCount + 1);  
+    }
+
+    /**
+     * Evaluates the number of stable discs of the given player, the discs that can
+     * never be flipped again. Corners are the first stable discs, and stability
+     * spreads from them along the edges.
+     * 
+     * @param b         {@code Board} of current state
+     * @param player    {@code Color} representing the current player
+     * @return          integer difference between the stable discs of the two players
+     */
+    private static int stability(Board b, Color player) {
+        long mine = b.getDiscs(player);
+        long theirs = b.getDiscs((player == Color.DARK) ? Color.LIGHT : Color.DARK);
+
+        int stable = Long.bitCount(BitBoard.stable(mine, theirs, b.dim));
+        int otherStable = Long.bitCount(BitBoard.stable(theirs, mine, b.dim));
+
+        return 100 * (stable - otherStable) / (stable + otherStable + 1);
+    }
+
+    /**
+     * Evaluates the frontier discs of the given player, the discs next to an empty
+     * square. Frontier discs give the opponent moves, so having fewer is better.
+     * Taking an edge square next to an open corner usually adds to the frontier.
+     * 
+     * @param b         {@code Board} of current state
+     * @param player    {@code Color} representing the current player
+     * @return          integer difference between the frontier discs of the other player and this one
+     */
+    private static int frontier(Board b, Color player) {
+        long mine = b.getDiscs(player);
+        long theirs = b.getDiscs((player == Color.DARK) ? Color.LIGHT : Color.DARK);
+
+        int frontier = Long.bitCount(BitBoard.frontier(mine, theirs, b.dim));
+        int otherFrontier = Long.bitCount(BitBoard.frontier(theirs, mine, b.dim));
+
+        return 100 * (otherFrontier - frontier) / (frontier + otherFrontier + 1);
+    }
+
+    /**
+     * Evaluates the number of corners captured by the given player. Corners are important
+     * because once captured, the opponent cannot flip them.
+     * 
+     * @param b         {@code Board} of current state
+     * @param player    {@code Color} representing the current player
+     * @return          integer difference between the corners of the two players
+     */
+    private static int corners(Board b, Color player) {
+        
+        Color otherPlayer = ((player == Color.DARK) ? Color.LIGHT : Color.DARK);
+
+        int corners = 0;
+        int otherCorners = 0;
+
+        if (b.get(0, 0) == player) corners++;
+        if (b.get(b.dim-1, 0) == player) corners++;
+        if (b.get(0, b.dim-1) == player) corners++;
+        if (b.get(b.dim-1, b.dim-1) == player) corners++;
+
+        if (b.get(0, 0) == otherPlayer) otherCorners++;
+        if (b.get(b.dim-1, 0) == otherPlayer) otherCorners++;
+        if (b.get(0, b.dim-1) == otherPlayer) otherCorners++;
+        if (b.get(b.dim-1, b.dim-1) == otherPlayer) otherCorners++;
+
+        return 100 * (corners - otherCorners) / (corners + otherCorners + 1);
+    }
+}
@@ -0,0 +1,66 @@
+package othello.game;
+
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist keys for hashing board positions. The keys are drawn from a fixed
+ * seed so the same position hashes to the same value in every run.
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-09-2021
+ */
+public final class Zobrist {
+
+    private static final long[] DARK = new long[64];     // Key for a dark disc on each square
+    private static final long[] LIGHT = new long[64];    // Key for a light disc on each square
+    private static final long[] FLIP = new long[64];     // Key for reversing the disc on each square
+    private static final long TURN;                      // Key for light to move
+
+    static {
+        SplittableRandom rand = new SplittableRandom(0x0e11011eL);
+        for (int sq = 0; sq < 64; sq++) {
+            DARK[sq] = rand.nextLong();
+            LIGHT[sq] = rand.nextLong();
+            FLIP[sq] = DARK[sq] ^ LIGHT[sq];
+        }
+        TURN = rand.nextLong();
+    }
+
+    private Zobrist() {}
+
+    /**
+     * Returns the key of a single disc
+     *
+     * @param c     color of the disc, either {@code DARK} or {@code LIGHT}
+     * @param sq    bit index of the square
+     * @return      key of the disc
+     */
+    public static long disc(Color c, int sq) {
+        return (c == Color.DARK) ? DARK[sq] : LIGHT[sq];
+    }
+
+    /**
+     * Returns the combined key change for reversing every disc in the mask
+     *
+     * @param flipped   mask of the discs that change color
+     * @return          key to XOR into the hash
+     */
+    public static long flips(long flipped) {
+        long key = 0;
+        while (flipped != 0) {
+            key ^= FLIP[Long.numberOfTrailingZeros(flipped)];
+            flipped &= flipped - 1;
+        }
+        return key;
+    }
+
+    /**
+     * Returns the key of the side to move
+     *
+     * @param turn  whose turn it is
+     * @return      key to XOR into the hash
+     */
+    public static long turn(Color turn) {
+        return (turn == Color.LIGHT) ? TURN : 0;
+    }
+}
@@ -1,11 +1,26 @@
 package othello.player;
 
 import java.awt.Point;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import othello.ai.algorithms.EndgameSolver;
 import othello.ai.algorithms.HMinimax;
+import othello.ai.algorithms.IterativeDeepening;
+import othello.ai.algorithms.LazySMP;
+import othello.ai.algorithms.MTDF;
 import othello.ai.algorithms.Minimax;
 import othello.ai.algorithms.MinimaxAlphaBeta;
+import othello.ai.algorithms.MonteCarloTreeSearch;
+import othello.ai.algorithms.PrincipalVariation;
+import othello.ai.algorithms.SearchAlgorithm;
+import othello.ai.algorithms.SearchResult;
+import othello.ai.algorithms.SearchStats;
+import othello.ai.algorithms.SearchTask;
+import othello.ai.search.OpeningBook;
+import othello.ai.search.PatternEvaluator;
 import othello.ai.search.Problem;
+import othello.ai.search.TranspositionTable;
 import othello.game.Board;
 import othello.game.Color;
 
@@ -14,14 +29,121 @@ import othello.game.Color;
  * @since   02-14-2021
  */
 public class AI extends Player {
+
+    private static final int MAX_PONDER_DEPTH = 64; // Deeper than any game has moves left
+    private static final long MOVE_TIME_LIMIT = 60000;  // Default milliseconds any search may take for one move
+    private static final int TABLE_BITS = 20;       // Default size of the transposition tables, 16 MB each
+    private static final double BIAS_WEIGHT = 1;    // Weight of the progressive bias, against a win rate
+    private static final double BIAS_SCALE = 8 * PatternEvaluator.SCALE;   // Eight discs of margin
     
     private int algo;
     private int depthLimit;
+    private TranspositionTable table;       // Kept between moves by the alpha-beta searches
+    private int lastValue;                  // Value of the previous move, MTD(f)'s first guess
+    private int endgameEmpties = -1;        // Solve exactly once this few squares are empty, -1 for the default
+    private EndgameSolver endgame;          // Created the first time it is needed
+    private OpeningBook book;               // Moves played without searching, or null
+    private Thread ponderer;                // Searching on the opponent's time, or null
+    private AtomicBoolean ponderStop;       // Tells the ponderer to give up its search
+    private volatile int ponderedDepth;     // Deepest search the ponderer finished
+    private SearchStats lastStats;          // Statistics of the last search, or null
+    private long moveTimeLimit;             // Milliseconds after which a search is stopped
+    private int tableBits;                  // log2 of the slots in each transposition table
+    private boolean quiet;                  // Keep the reports on each move to ourselves
+    private boolean progressiveBias;        // Guide Monte Carlo Tree Search with the heuristic
 
+    /**
+     * Constructor for the AI player
+     * 
+     * @param c         {@code Color} representing which player
+     * @param algo      search algorithm, numbered as in the opponent menu
+     * @param lim       depth limit, or for algorithms 5 and 9 the time limit per move in milliseconds
+     */
     public AI(Color c, int algo, int lim) {
+        this(c, algo, lim, TABLE_BITS);
+    }
+
+    /**
+     * Constructor for an AI player with transposition tables of the given
+     * size, for when many players must fit in one process
+     * 
+     * @param c         {@code Color} representing which player
+     * @param algo      search algorithm, numbered as in the opponent menu
+     * @param lim       depth limit, or for algorithms 5 and 9 the time limit per move in milliseconds
+     * @param tableBits log2 of the slots in the search and endgame tables
+     */
+    public AI(Color c, int algo, int lim, int tableBits) {
         super(c);
         this.algo = algo;
         this.depthLimit = lim;
+        this.tableBits = tableBits;
+        this.table = new TranspositionTable(tableBits);
+        this.moveTimeLimit = MOVE_TIME_LIMIT;
+        this.book = OpeningBook.openDefault();
+    }
+
+    /**
+     * Set the opening book to play from before searching
+     *
+     * @param book      opening book, or {@code null} to always search
+     */
+    public void setOpeningBook(OpeningBook book) {
+        this.book = book;
+    }
+
+    /**
+     * Set how many empty squares may remain for the endgame solver to take
+     * over from the chosen algorithm. Each extra empty square makes the first
+     * solve several times slower. By default it depends on the board size,
+     * as given by {@code EndgameSolver.defaultEmpties}.
+     *
+     * @param empties   largest number of empties solved exactly, or {@code 0}
+     *                  to never use the endgame solver
+     */
+    public void setEndgameEmpties(int empties) {
+        this.endgameEmpties = empties;
+    }
+
+    /**
+     * Set the longest any search may take to choose a move. A search still
+     * running then is stopped and its best move so far is played, so a depth
+     * limit too deep for the position can never hang the game. The time
+     * limited algorithms are allowed at least twice their own limit.
+     *
+     * @param millis    time allowed per move, in milliseconds
+     */
+    public void setMoveTimeLimit(long millis) {
+        this.moveTimeLimit = millis;
+    }
+
+    /**
+     * Guide the first visits of each node of Monte Carlo Tree Search
+     * (algorithm 9) with the heuristic, so the playouts start from the moves
+     * it likes best. The bias is scaled for the pattern evaluator, to which a
+     * margin of eight discs is a strong preference. Other algorithms ignore it.
+     *
+     * @param on        {@code true} to use the progressive bias
+     */
+    public void setProgressiveBias(boolean on) {
+        this.progressiveBias = on;
+    }
+
+    /**
+     * Stop printing a report on each move, for games played many at a time.
+     * The statistics are still kept for {@code getLastStats}.
+     *
+     * @param quiet     {@code true} to play without printing anything
+     */
+    public void setQuiet(boolean quiet) {
+        this.quiet = quiet;
+    }
+
+    /**
+     * @return          statistics of the search for the last move, or
+     *                  {@code null} if no move has been searched for yet
+     */
+    public SearchStats getLastStats() {
+        return lastStats;
     }
 
     @Override
@@ -29,25 +151,234 @@ public class AI extends Player {
         return false;
     }
 
+    /**
+     * Search every reply the opponent might play in the background, until
+     * told to stop. The replies are searched one depth at a time, each depth
+     * for all of them before the next, starting with the reply our last search
+     * expected. Each search is the one that would choose our move after that
+     * reply, from our point of view, so it leaves its values in the
+     * transposition table. Once the pondering has reached our own depth limit,
+     * the search after the opponent's move is answered from the table almost
+     * at once; if it has not, the search still starts from a warm table. Only
+     * the algorithms that keep a table between moves ponder, and not once the
+     * endgame solver would take over.
+     *
+     * @param problem   generic instance of {@code Problem}, with the opponent to move
+     */
+    @Override
+    public void ponder(Problem<Board, Point, Color> problem) {
+
+        stopPondering();
+
+        Board board = problem.initialState();
+
+        if (algo < 4 || algo > 8 || problem.isTerminal(board) || solvesExactly(board)) {
+            return;
+        }
+
+        Board copy = problem.copy(board);
+        ArrayList<Point> replies = problem.actions(copy);
+
+        // Try the reply our own search expected first
+        long entry = table.probe(copy.getHash());
+        if (entry != 0) {
+            for (int i = 1; i < replies.size(); i++) {
+                if (problem.encode(replies.get(i)) == TranspositionTable.move(entry)) {
+                    replies.add(0, replies.remove(i));
+                    break;
+                }
+            }
+        }
+
+        // Searching a fixed depth limit any deeper would only churn the table
+        int maxDepth = (algo == 5) ? MAX_PONDER_DEPTH : depthLimit;
+        AtomicBoolean stop = new AtomicBoolean();
+
+        ponderStop = stop;
+        ponderedDepth = 0;
+        ponderer = new Thread(() -> {
+            boolean deeper = true;
+            for (int depth = 1; depth <= maxDepth && deeper; depth++) {
+                deeper = false;
+                for (Point reply : replies) {
+                    MinimaxAlphaBeta<Board, Point, Color> solver = new MinimaxAlphaBeta<>(problem, depth, table);
+                    solver.setStopSignal(stop);
+                    problem.apply(copy, reply);
+                    solver.value(copy, color);
+                    problem.undo(copy);
+                    if (solver.wasAborted()) {
+                        return;
+                    }
+                    deeper |= solver.reachedDepthLimit();   // Stop once every reply is solved
+                }
+                ponderedDepth = depth;
+            }
+        }, "ponder");
+        ponderer.setDaemon(true);
+        ponderer.start();
+    }
+
+    /**
+     * Stop the background search and wait for it to give the table back
+     */
+    @Override
+    public void stopPondering() {
+
+        if (ponderer == null) {
+            return;
+        }
+
+        ponderStop.set(true);
+        try {
+            ponderer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ponderer = null;
+
+        if (ponderedDepth > 0 && !quiet) {
+            System.out.println("Pondered to depth " + ponderedDepth + ".");
+        }
+    }
+
     @Override
     public Point play(Problem<Board, Point, Color> problem) {
 
+        Board board = problem.initialState();
+
+        Point bookMove = bookMove(board);
+        if (bookMove != null) {
+            return bookMove;
+        }
+
+        if (solvesExactly(board)) {
+            if (endgame == null) {
+                endgame = new EndgameSolver(new TranspositionTable(tableBits));
+            }
+            EndgameSolver solver = endgame;
+            Point move = report(problem, solver, board);
+            if (!solver.wasAborted() && !quiet) {
+                System.out.println("Solved " + board.getEmptyCount() + " empties, final margin " + solver.getBestValue() + ".");
+            }
+            return move;
+        }
+
         if (algo == 2) {
             Minimax<Board, Point, Color> solver = new Minimax<>(problem);
-            return solver.solve(problem.initialState());
+            return report(problem, solver, board);
         } 
 
         if (algo == 3) {
             HMinimax<Board, Point, Color> solver = new HMinimax<>(problem, depthLimit);
-            return solver.solve(problem.initialState());
+            return report(problem, solver, board);
         }
 
         if (algo == 4) {
-            MinimaxAlphaBeta<Board, Point, Color> solver = new MinimaxAlphaBeta<>(problem, depthLimit);
-            return solver.solve(problem.initialState());
+            MinimaxAlphaBeta<Board, Point, Color> solver = new MinimaxAlphaBeta<>(problem, depthLimit, table);
+            return report(problem, solver, board);
+        }
+
+        if (algo == 5) {
+            IterativeDeepening<Board, Point, Color> solver = new IterativeDeepening<>(problem, depthLimit, table);
+            return report(problem, solver, board);
+        }
+
+        if (algo == 6) {
+            int threads = Runtime.getRuntime().availableProcessors();
+            LazySMP<Board, Point, Color> solver = new LazySMP<>(problem, depthLimit, threads, table);
+            return report(problem, solver, board);
+        }
+
+        if (algo == 7) {
+            PrincipalVariation<Board, Point, Color> solver = new PrincipalVariation<>(problem, depthLimit, table);
+            return report(problem, solver, board);
+        }
+
+        if (algo == 8) {
+            MTDF<Board, Point, Color> solver = new MTDF<>(problem, depthLimit, table);
+            solver.setFirstGuess(lastValue);
+            Point move = report(problem, solver, board);
+            lastValue = solver.getBestValue();
+            return move;
+        }
+
+        if (algo == 9) {
+            int threads = Runtime.getRuntime().availableProcessors();
+            MonteCarloTreeSearch<Board, Point, Color> solver = new MonteCarloTreeSearch<>(problem, depthLimit, threads);
+            if (progressiveBias) {
+                solver.setProgressiveBias(BIAS_WEIGHT, BIAS_SCALE);
+            }
+            Point move = report(problem, solver, board);
+            if (!quiet) {
+                System.out.println(solver.getPlayouts() + " playouts, " + Math.round(solver.getPlayoutsPerSecond())
+                        + " playouts/s, win rate " + String.format("%.1f", 100 * solver.getWinRate()) + " %.");
+            }
+            return move;
         }
         
         return null;
     }
 
+    /**
+     * Run a search in the background, keep its statistics and show them. A
+     * search that outlasts the time limit is stopped and answers with its
+     * best move so far; the board is never searched directly, so even a
+     * search that will not stop cannot hold up the game or change the board.
+     *
+     * @param problem   generic instance of {@code Problem}
+     * @param solver    search to run
+     * @param board     current {@code Board}
+     * @return          the search's move
+     */
+    private Point report(Problem<Board, Point, Color> problem, SearchAlgorithm<Board, Point> solver, Board board) {
+
+        long limit = (algo == 5 || algo == 9) ? Math.max(moveTimeLimit, 2L * depthLimit) : moveTimeLimit;
+
+        SearchTask<Point> task = SearchTask.start(problem, solver, board, limit, null);
+        SearchResult<Point> result = task.getResult().join();
+
+        if (task.wasStopped() && !quiet) {
+            System.out.println("Stopped after " + limit + " ms, playing the best move found"
+                    + ((task.getCompletedDepth() > 0) ? " by depth " + task.getCompletedDepth() : "") + ".");
+        }
+
+        // A search that never stopped may still be using the solver
+        if (task.isSearching() && solver == endgame) {
+            endgame = null;
+        }
+
+        lastStats = result.getStats();
+        if (!quiet) {
+            System.out.println(lastStats);
+        }
+
+        return result.getAction();
+    }
+
+    /**
+     * @param board     current {@code Board}
+     * @return          {@code true} if few enough squares are empty to leave
+     *                  the move to the endgame solver
+     */
+    private boolean solvesExactly(Board board) {
+        int empties = (endgameEmpties < 0) ? EndgameSolver.defaultEmpties(board.dim) : endgameEmpties;
+        return board.getEmptyCount() <= empties;
+    }
+
+    /**
+     * Look the board up in the opening book
+     *
+     * @param board     current {@code Board}
+     * @return          the book's move, or {@code null} if the board is not in the book
+     */
+    private Point bookMove(Board board) {
+
+        Point move = (book == null) ? null : book.move(board);
+
+        if (move != null && !quiet) {
+            System.out.println("Book move, expected margin " + OpeningBook.score(book.probe(board.getHash())) + ".");
+        }
+
+        return move;
+    }
 }
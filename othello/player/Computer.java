@@ -2,11 +2,10 @@ package othello.player;
 
 import java.awt.Point;
 
+import othello.ai.search.Playout;
 import othello.ai.search.Problem;
 import othello.game.Board;
 import othello.game.Color;
-import java.util.Random; 
-import java.util.ArrayList;
 
 /**
  * @author  Emma Campbell & Emma Schechter
@@ -14,8 +13,6 @@ import java.util.ArrayList;
  */
 public class Computer extends Player {
     
-    private Random rand = new Random(); 
-
     public Computer (Color c){
         super(c);
     }
@@ -25,10 +22,17 @@ public class Computer extends Player {
         return false;
     }
 
+    /**
+     * Play a uniformly random legal move, picked straight from the move mask
+     */
     @Override
     public Point play(Problem<Board, Point, Color> problem) {
-        ArrayList<Point> list = problem.actions(problem.initialState());
-        return list.get(rand.nextInt(list.size()));
+        Board board = problem.initialState();
+        Color other = (board.whoseTurn() == Color.DARK ? Color.LIGHT : Color.DARK);
+        Playout kernel = Playout.current(board.dim);
+        kernel.setBiased(false);                        // The kernel may have been left biased by a search
+        int sq = kernel.randomMove(board.getDiscs(board.whoseTurn()), board.getDiscs(other));
+        return (sq < 0) ? null : new Point(sq / board.dim, sq % board.dim);
     }
     
 }
\ No newline at end of file
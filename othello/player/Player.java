@@ -37,4 +37,21 @@ public abstract class Player {
      * @return          {@code Point} next move
      */
     abstract public Point play(Problem<Board, Point, Color> problem);
+
+    /**
+     * Start thinking about the game while the opponent decides on a move.
+     * Called just before a user player is asked for their move. The current
+     * board must not be changed by the player.
+     * 
+     * @param problem   generic instance of {@code Problem}, with the opponent to move
+     */
+    public void ponder(Problem<Board, Point, Color> problem) {
+    }
+
+    /**
+     * Stop thinking on the opponent's time. Called once the opponent's move
+     * has been read, before it is played.
+     */
+    public void stopPondering() {
+    }
 }
\ No newline at end of file
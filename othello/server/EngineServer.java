@@ -0,0 +1,124 @@
+package othello.server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import othello.ai.search.OpeningBook;
+
+/**
+ * Serves the engine over a line-based protocol, for programs rather than
+ * people to play against. With no port it serves a single game on standard
+ * input and output; with a port it listens on the loopback address and
+ * serves a game to every connection, as many at once as connect.
+ * <p>
+ * Every session has a thread of its own that spends nearly all its time
+ * waiting for the client's next line. Those are virtual threads when the
+ * JVM has them (Java 21 and later), so hundreds of idle sessions cost little
+ * more than their boards and tables. The searches themselves run on one
+ * fixed pool of platform threads, one per core by default, so however many
+ * sessions ask at once the cores are never oversubscribed; a search waits
+ * for a free thread before its clock starts.
+ *
+ * <pre>
+ * java othello.server.EngineServer [port] [search threads]
+ * </pre>
+ *
+ * Commands, one per line, each answered with one line starting {@code =} on
+ * success or {@code ?} with the reason on failure:
+ *
+ * <pre>
+ * newgame [dim]                    start position, dark to move, 8x8 by default
+ * setboard dim cells side          cells row by row as x, o or -; side x or o
+ * play move                        play a move such as d3, or pass
+ * moves                            legal moves of the player to move
+ * showboard                        the position, in the form setboard reads
+ * go ms                            search for at most ms milliseconds and answer
+ *                                  with the move, without playing it
+ * stop                             end the running search early; it still
+ *                                  answers with its move, then stop answers
+ * quit                             end the session
+ * </pre>
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-24-2021
+ */
+public class EngineServer {
+
+    private static final int BACKLOG = 1024;            // Connections waiting to be accepted
+
+    public static void main(String[] args) throws IOException {
+
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : 0;
+        int threads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        ExecutorService searches = Executors.newFixedThreadPool(threads);
+        OpeningBook book = OpeningBook.openDefault();
+
+        try {
+            if (port == 0) {
+                BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+                PrintWriter out = new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+                new Session(in, out, searches, book).run();
+            } else {
+                listen(port, searches, book);
+            }
+        } finally {
+            searches.shutdown();
+        }
+    }
+
+    /**
+     * Accept connections until the process is killed, each served by its own
+     * session thread
+     */
+    private static void listen(int port, ExecutorService searches, OpeningBook book) throws IOException {
+
+        ExecutorService sessions = sessionThreads();
+
+        try (ServerSocket server = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress())) {
+
+            System.out.println("Listening on " + server.getLocalSocketAddress() + ".");
+
+            while (true) {
+                Socket socket = server.accept();
+                sessions.execute(() -> {
+                    try (Socket s = socket) {
+                        BufferedReader in = new BufferedReader(
+                                new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+                        PrintWriter out = new PrintWriter(
+                                new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8));
+                        new Session(in, out, searches, book).run();
+                    } catch (IOException e) {
+                        // The client went away before its session started
+                    }
+                });
+            }
+        } finally {
+            sessions.shutdown();
+        }
+    }
+
+    /**
+     * Returns an executor that starts a virtual thread for every session,
+     * looked up by name so the engine still builds and runs on Java 17, where
+     * every session gets a platform thread instead
+     *
+     * @return          executor with one new thread per task
+     */
+    static ExecutorService sessionThreads() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+}
@@ -0,0 +1,377 @@
+package othello.server;
+
+import java.awt.Point;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import othello.ai.algorithms.EndgameSolver;
+import othello.ai.algorithms.IterativeDeepening;
+import othello.ai.algorithms.SearchAlgorithm;
+import othello.ai.algorithms.SearchTask;
+import othello.ai.search.OpeningBook;
+import othello.ai.search.TranspositionTable;
+import othello.game.Board;
+import othello.game.Color;
+import othello.game.Othello;
+import othello.game.Rules;
+import othello.game.exceptions.IllegalBoardDimensions;
+
+/**
+ * One game served over a line-based protocol. The session reads commands
+ * from its client one line at a time and answers each with one line: the
+ * result after {@code =}, or the reason for refusing after {@code ?}.
+ * <p>
+ * A {@code go} command hands its search to the server's pool of search
+ * threads and returns at once, so the session can still read a {@code stop}
+ * while the search runs. The search runs on the pool thread itself and
+ * answers for itself when it finishes; a search that does not stop in time
+ * is answered for, but keeps its pool thread until it does stop. Every other
+ * command, {@code stop} included, waits for the search to answer first, so
+ * the {@code =} of a {@code stop} always follows the move, and a client may
+ * send a whole script of commands without waiting. Each session has
+ * its own board and transposition tables, and searches with the rules
+ * shared by every session, so sessions never share any state that changes.
+ * <p>
+ * The midgame searches store values for the player to move at the root, so
+ * each color keeps its own table; a search for light must never read the
+ * values stored by a search for dark.
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-24-2021
+ */
+public class Session implements Runnable {
+
+    private static final int TABLE_BITS = 16;           // Small tables, so many sessions fit in one process
+
+    private final BufferedReader in;
+    private final PrintWriter out;
+    private final ExecutorService searches;             // Shared by every session of the server
+    private final OpeningBook book;                     // Shared by every session, or null
+
+    private Board board;                                // The game, owned by the session thread
+    private Rules rules;                                // Shared by every session on the same board size
+    private TranspositionTable[] tables;                // One per color to move at the root
+    private EndgameSolver endgame;                      // Created the first time it is needed
+    private SearchTask<Point> running;                  // The running search, or null
+    private SearchAlgorithm<Board, Point> search;       // What it is running, or null
+    private CompletableFuture<Void> replied;            // Done once it has answered, or null
+
+    /**
+     * Create a session on a new 8x8 game
+     *
+     * @param in        commands from the client
+     * @param out       replies to the client
+     * @param searches  threads to run the searches on
+     * @param book      opening book to play from, or {@code null}
+     */
+    public Session(BufferedReader in, PrintWriter out, ExecutorService searches, OpeningBook book) {
+        this.in = in;
+        this.out = out;
+        this.searches = searches;
+        this.book = book;
+        setGame(newGame(8, Color.DARK));
+    }
+
+    /**
+     * Serve the client until it quits or closes its end
+     */
+    @Override
+    public void run() {
+
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+
+                String[] words = line.trim().split("\\s+");
+                if (words[0].isEmpty()) {
+                    continue;
+                }
+
+                if (words[0].equals("quit")) {
+                    stop();
+                    await();
+                    reply("= bye");
+                    break;
+                }
+
+                handle(words);
+            }
+        } catch (IOException e) {
+            // The client went away; nobody is left to tell
+        }
+
+        stop();
+        await();
+    }
+
+    /**
+     * Carry out one command
+     *
+     * @param words     the command and its arguments
+     */
+    private void handle(String[] words) {
+
+        String command = words[0];
+
+        if (command.equals("stop")) {
+            stop();
+            await();
+            reply("=");
+            return;
+        }
+
+        await();
+
+        try {
+            if (command.equals("newgame")) {
+                int dim = (words.length > 1) ? Integer.parseInt(words[1]) : 8;
+                checkDimension(dim);
+                setGame(newGame(dim, Color.DARK));
+                reply("=");
+            } else if (command.equals("setboard")) {
+                setBoard(words);
+                reply("=");
+            } else if (command.equals("play")) {
+                play(words);
+                reply("=");
+            } else if (command.equals("moves")) {
+                reply(("= " + moves()).trim());
+            } else if (command.equals("showboard")) {
+                reply("= " + showBoard());
+            } else if (command.equals("go")) {
+                go(words);
+            } else {
+                reply("? unknown command " + command);
+            }
+        } catch (IllegalArgumentException e) {
+            reply("? " + e.getMessage());
+        }
+    }
+
+    /**
+     * {@code setboard <dim> <cells> <side>}: set up any position. The cells
+     * are given row by row, one character each: {@code x} for dark,
+     * {@code o} for light and {@code -} for empty.
+     */
+    private void setBoard(String[] words) {
+
+        if (words.length != 4) {
+            throw new IllegalArgumentException("usage: setboard <dim> <cells> <side>");
+        }
+
+        int dim = Integer.parseInt(words[1]);
+        checkDimension(dim);
+        if (words[2].length() != dim * dim) {
+            throw new IllegalArgumentException("expected " + dim * dim + " cells, not " + words[2].length());
+        }
+
+        setGame(Board.parse(words[2], words[3]));
+    }
+
+    /**
+     * {@code play <move>}: play a move, such as {@code d3}, or {@code pass}
+     * when there is no legal move
+     */
+    private void play(String[] words) {
+
+        if (words.length != 2) {
+            throw new IllegalArgumentException("usage: play <move>");
+        }
+
+        Color me = board.whoseTurn();
+
+        if (board.isGameFinished()) {
+            throw new IllegalArgumentException("the game is over");
+        }
+
+        if (words[1].equalsIgnoreCase("pass")) {
+            if (board.hasAnyMoves(me)) {
+                throw new IllegalArgumentException("cannot pass with legal moves");
+            }
+            board.setTurn();
+            return;
+        }
+
+        Point move = parseMove(words[1], board.dim);
+        if (!board.validMove(me, move.x, move.y)) {
+            throw new IllegalArgumentException("illegal move " + words[1]);
+        }
+        board.refreshBoard(move, me);
+    }
+
+    /**
+     * {@code go <ms>}: search the position for at most the given time and
+     * answer with the move, without playing it
+     */
+    private void go(String[] words) {
+
+        if (words.length != 2) {
+            throw new IllegalArgumentException("usage: go <ms>");
+        }
+
+        long millis = Long.parseLong(words[1]);
+
+        if (board.isGameFinished()) {
+            throw new IllegalArgumentException("the game is over");
+        }
+
+        if (!board.hasAnyMoves(board.whoseTurn())) {
+            reply("= pass");
+            return;
+        }
+
+        Point bookMove = (book == null) ? null : book.move(board);
+        if (bookMove != null) {
+            reply("= " + Othello.pointToString(bookMove));
+            return;
+        }
+
+        SearchAlgorithm<Board, Point> solver;
+        if (board.getEmptyCount() <= EndgameSolver.defaultEmpties(board.dim)) {
+            if (endgame == null) {
+                endgame = new EndgameSolver(new TranspositionTable(TABLE_BITS));
+            }
+            solver = endgame;
+        } else {
+            solver = new IterativeDeepening<>(rules, millis, tables[board.whoseTurn().ordinal()]);
+        }
+
+        try {
+            SearchTask<Point> task = SearchTask.start(rules, solver, board, millis, null, searches);
+            replied = task.getResult().handle((result, e) -> {
+                reply((e == null) ? "= " + Othello.pointToString(result.getAction()) : "? search failed: " + e);
+                return null;
+            });
+            running = task;
+            search = solver;
+        } catch (RejectedExecutionException e) {
+            reply("? server is shutting down");
+        }
+    }
+
+    /**
+     * End the running search early. It still answers with its best move.
+     */
+    private void stop() {
+        if (running != null) {
+            running.cancel();
+        }
+    }
+
+    /**
+     * Wait for the running search, if there is one, to answer
+     */
+    private void await() {
+
+        if (replied == null) {
+            return;
+        }
+
+        try {
+            replied.get();
+        } catch (InterruptedException e) {
+            stop();
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // The search has answered with its failure already
+        }
+
+        // A solver that did not stop in time is still busy, so the next search needs a new one
+        if (running.isSearching() && search == endgame) {
+            endgame = null;
+        }
+
+        running = null;
+        search = null;
+        replied = null;
+    }
+
+    /**
+     * Start a new game, throwing away what the tables learned about the old one
+     */
+    private void setGame(Board next) {
+        board = next;
+        try {
+            rules = Rules.forDimension(next.dim);
+        } catch (IllegalBoardDimensions e) {
+            throw new IllegalArgumentException(e.getMessage());
+        }
+        tables = new TranspositionTable[] {
+            new TranspositionTable(TABLE_BITS), new TranspositionTable(TABLE_BITS)
+        };
+        endgame = null;
+    }
+
+    /**
+     * @return          the legal moves of the player to move, separated by spaces
+     */
+    private String moves() {
+        ArrayList<Point> moves = board.getAllPossibleMoves(board.whoseTurn());
+        StringBuilder sb = new StringBuilder();
+        for (Point move : moves) {
+            sb.append(Othello.pointToString(move)).append(' ');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return          the position in the format read by {@code setboard}
+     */
+    private String showBoard() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(board.dim).append(' ');
+        for (int i = 0; i < board.dim; i++) {
+            for (int j = 0; j < board.dim; j++) {
+                Color c = board.get(i, j);
+                sb.append((c == Color.DARK) ? 'x' : (c == Color.LIGHT) ? 'o' : '-');
+            }
+        }
+        sb.append(' ').append((board.whoseTurn() == Color.DARK) ? 'x' : 'o');
+        return sb.toString();
+    }
+
+    /**
+     * Send one line to the client. Searches finishing on other threads reply
+     * through here too, so lines are never interleaved.
+     */
+    private synchronized void reply(String line) {
+        out.println(line);
+        out.flush();
+    }
+
+    private static Board newGame(int dim, Color toMove) {
+        try {
+            return new Board(dim, toMove);
+        } catch (IllegalBoardDimensions e) {
+            throw new IllegalArgumentException(e.getMessage());
+        }
+    }
+
+    private static void checkDimension(int dim) {
+        if (dim != 4 && dim != 6 && dim != 8) {
+            throw new IllegalArgumentException("board size must be 4, 6 or 8, not " + dim);
+        }
+    }
+
+    /**
+     * Read a move written as a column letter and a row number, as on the
+     * printed board
+     */
+    private static Point parseMove(String move, int dim) {
+        if (move.length() != 2) {
+            throw new IllegalArgumentException("bad move " + move);
+        }
+        int col = Character.toLowerCase(move.charAt(0)) - 'a';
+        int row = move.charAt(1) - '1';
+        if (col < 0 || col >= dim || row < 0 || row >= dim) {
+            throw new IllegalArgumentException("bad move " + move);
+        }
+        return new Point(row, col);
+    }
+}
@@ -0,0 +1,420 @@
+package othello.tools;
+
+import java.awt.Point;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import othello.ai.algorithms.EndgameSolver;
+import othello.ai.algorithms.IterativeDeepening;
+import othello.ai.algorithms.MTDF;
+import othello.ai.algorithms.MultiPV;
+import othello.ai.algorithms.PrincipalVariation;
+import othello.ai.algorithms.ScoredLine;
+import othello.ai.algorithms.SearchAlgorithm;
+import othello.ai.algorithms.SearchResult;
+import othello.ai.algorithms.SearchStats;
+import othello.ai.algorithms.SearchTask;
+import othello.ai.search.TranspositionTable;
+import othello.game.Board;
+import othello.game.Color;
+import othello.game.Othello;
+import othello.game.Rules;
+import othello.game.exceptions.IllegalBoardDimensions;
+
+/**
+ * Searches every position of a file and writes one line of results for
+ * each, for test suites and positions logged from games.
+ * <p>
+ * Each line of the input holds one position: the cells row by row, one
+ * character each, {@code x} for dark, {@code o} for light and {@code -} for
+ * empty, then a space and the side to move, {@code x} or {@code o}. The board
+ * size follows from the number of cells. Blank lines and lines starting with
+ * {@code #} are skipped.
+ *
+ * <pre>
+ * ---------------------------ox------xo--------------------------- x
+ * </pre>
+ *
+ * The engine is one of
+ *
+ * <pre>
+ * id              iterative deepening for budget milliseconds
+ * pvs             principal variation search to budget plies
+ * mtdf            MTD(f) to budget plies
+ * solve           exact endgame solve, given up after budget milliseconds
+ * multipv[:k]     the best k moves with their lines, 3 by default, for
+ *                 budget milliseconds
+ * </pre>
+ *
+ * The positions are searched by a pool of threads, each with its own
+ * tables, which it clears before every position so a position's result never
+ * depends on which others its thread searched first. The file is read only
+ * as fast as the threads take positions from a short queue, so memory stays
+ * the same however long the file is. Each result is written as soon as its
+ * position is done, so the output is in order of finishing; its first column
+ * is the position's line number in the input. The columns, separated by
+ * tabs, are the line number, the best move, its value, the depth searched,
+ * the states visited, the time in milliseconds and, for {@code multipv}, the
+ * lines found. A solve that runs out of time has value {@code ?} and depth
+ * {@code 0}; its move is the best it had proved so far. A position that
+ * cannot be read or whose search fails gets the line number, {@code error}
+ * and the reason instead, and the run goes on with the next one. If the
+ * results file cannot be written the run stops with that error.
+ *
+ * <pre>
+ * java othello.tools.BatchAnalyzer positions results [engine] [budget] [threads]
+ * </pre>
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-24-2021
+ */
+public class BatchAnalyzer {
+
+    private static final int TABLE_BITS = 18;           // Per thread, so many threads fit in memory
+    private static final int QUEUE_PER_THREAD = 4;      // Positions read ahead for each thread
+    private static final int MAX_DEPTH = 64;            // Deeper than any game has moves left
+    private static final long POLL_MS = 100;            // How often a full queue checks the threads are alive
+
+    public static void main(String[] args) throws Exception {
+
+        if (args.length < 2) {
+            System.out.println("usage: java othello.tools.BatchAnalyzer positions results [engine] [budget] [threads]");
+            System.exit(1);
+        }
+
+        String engine = (args.length > 2) ? args[2] : "id";
+        long budget = (args.length > 3) ? Long.parseLong(args[3]) : 1000;
+        int threads = (args.length > 4) ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+        // Check the engine before any position is read
+        new Analyst(engine, budget);
+
+        BlockingQueue<Job> queue = new ArrayBlockingQueue<>(QUEUE_PER_THREAD * threads);
+        Totals totals = new Totals();
+
+        long start = System.nanoTime();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<Void>> workers = new ArrayList<>();
+
+        try (BufferedReader in = Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.UTF_8);
+                BufferedWriter out = Files.newBufferedWriter(Paths.get(args[1]), StandardCharsets.UTF_8)) {
+
+            Output output = new Output(out);
+            output.write("# line\tmove\tvalue\tdepth\tnodes\tms" + (engine.startsWith("multipv") ? "\tlines" : ""));
+
+            for (int t = 0; t < threads; t++) {
+                workers.add(pool.submit(() -> {
+                    Analyst analyst = new Analyst(engine, budget);
+                    Job job;
+                    while ((job = queue.take()) != Job.END) {
+                        analyze(analyst, job, output, totals);
+                    }
+                    return null;
+                }));
+            }
+
+            String line;
+            int number = 0;
+            while ((line = in.readLine()) != null) {
+                number++;
+                String text = line.trim();
+                if (!text.isEmpty() && !text.startsWith("#")) {
+                    put(queue, new Job(number, text), workers);
+                }
+            }
+
+            for (int t = 0; t < threads; t++) {
+                put(queue, Job.END, workers);
+            }
+
+            for (Future<Void> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        totals.report(engine, budget, threads, System.nanoTime() - start);
+    }
+
+    /**
+     * Wait for room in the queue, giving up if a thread has died, since
+     * then nothing may ever take from it again
+     *
+     * @throws ExecutionException   with the error that stopped a thread
+     */
+    private static void put(BlockingQueue<Job> queue, Job job, List<Future<Void>> workers)
+            throws InterruptedException, ExecutionException {
+        while (!queue.offer(job, POLL_MS, TimeUnit.MILLISECONDS)) {
+            for (Future<Void> worker : workers) {
+                if (worker.isDone()) {
+                    worker.get();
+                }
+            }
+        }
+    }
+
+    /**
+     * Search one position and write its result, or write why it could not
+     * be read or searched
+     *
+     * @throws UncheckedIOException     if the results cannot be written
+     */
+    private static void analyze(Analyst analyst, Job job, Output output, Totals totals) {
+
+        String result;
+        try {
+            result = analyst.analyze(parse(job.text));
+        } catch (RuntimeException e) {
+            Throwable cause = (e.getCause() != null) ? e.getCause() : e;
+            String reason = (cause.getMessage() != null) ? cause.getMessage() : cause.toString();
+            System.err.println("Line " + job.number + ": " + reason);
+            output.write(job.number + "\terror\t" + reason);
+            totals.addError();
+            return;
+        }
+
+        output.write(job.number + "\t" + result);
+        totals.add(analyst.getNodes(), analyst.getNanos());
+    }
+
+    /**
+     * Read a position written as its cells and the side to move
+     *
+     * @param text      the position
+     * @return          the board
+     * @throws IllegalArgumentException     if the position cannot be read
+     */
+    static Board parse(String text) {
+
+        String[] words = text.split("\\s+");
+        if (words.length != 2) {
+            throw new IllegalArgumentException("expected cells and side to move, not " + text);
+        }
+
+        return Board.parse(words[0], words[1]);
+    }
+
+    /**
+     * One position to search, with its line number in the input
+     */
+    private static class Job {
+
+        static final Job END = new Job(0, null);        // Tells a thread there are no more positions
+
+        final int number;
+        final String text;
+
+        Job(int number, String text) {
+            this.number = number;
+            this.text = text;
+        }
+    }
+
+    /**
+     * One thread's engine, with tables of its own
+     */
+    private static class Analyst {
+
+        private final String engine;
+        private final int lines;                        // Lines wanted by multipv
+        private final long budget;
+        private final TranspositionTable table = new TranspositionTable(TABLE_BITS);
+        private final TranspositionTable endgameTable = new TranspositionTable(TABLE_BITS);
+        private long nodes;                             // States visited for the last position
+        private long nanos;                             // Time taken by the last position
+
+        /**
+         * @param spec      engine, as given on the command line
+         * @param budget    milliseconds, or plies for pvs and mtdf
+         * @throws IllegalArgumentException     if the engine is unknown
+         */
+        Analyst(String spec, long budget) {
+
+            String[] parts = spec.split(":");
+            this.engine = parts[0];
+            this.lines = (parts.length > 1) ? Integer.parseInt(parts[1]) : 3;
+            this.budget = budget;
+
+            if (!(engine.equals("id") || engine.equals("pvs") || engine.equals("mtdf")
+                    || engine.equals("solve") || engine.equals("multipv"))) {
+                throw new IllegalArgumentException("engine must be id, pvs, mtdf, solve or multipv[:k], not " + spec);
+            }
+            if (parts.length > 1 && !engine.equals("multipv")) {
+                throw new IllegalArgumentException("only multipv takes a number of lines, not " + spec);
+            }
+        }
+
+        /**
+         * @return          states visited for the last position
+         */
+        long getNodes() {
+            return nodes;
+        }
+
+        /**
+         * @return          time taken by the last position, in nanoseconds
+         */
+        long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * Search one position
+         *
+         * @param board     the position
+         * @return          move, value, depth, states and milliseconds
+         *                  separated by tabs, followed by the lines for multipv
+         */
+        String analyze(Board board) {
+
+            long start = System.nanoTime();
+
+            Rules rules;
+            try {
+                rules = Rules.forDimension(board.dim);
+            } catch (IllegalBoardDimensions e) {
+                throw new IllegalStateException(e);     // Checked when the board was made
+            }
+
+            table.clear();
+            endgameTable.clear();
+
+            SearchAlgorithm<Board, Point> search;
+            EndgameSolver solver = null;
+            PrincipalVariation<Board, Point, Color> pvs = null;
+            MTDF<Board, Point, Color> mtdf = null;
+            MultiPV<Board, Point, Color> multi = null;
+            long timeLimit = budget;
+
+            if (engine.equals("id")) {
+                search = new IterativeDeepening<>(rules, budget, table);
+                timeLimit = 2 * budget;                 // Only a backstop, it keeps to its own time
+            } else if (engine.equals("pvs")) {
+                search = pvs = new PrincipalVariation<>(rules, (int) budget, table);
+                timeLimit = 0;
+            } else if (engine.equals("mtdf")) {
+                search = mtdf = new MTDF<>(rules, (int) budget, table);
+                timeLimit = 0;
+            } else if (engine.equals("solve")) {
+                search = solver = new EndgameSolver(endgameTable);
+            } else {
+                search = multi = new MultiPV<>(rules, MAX_DEPTH, lines, table);
+            }
+
+            SearchTask<Point> task = SearchTask.start(rules, search, board, timeLimit, null);
+            SearchResult<Point> result = task.getResult().join();
+            SearchStats stats = result.getStats();
+
+            nanos = System.nanoTime() - start;
+            nodes = stats.getStatesVisited();
+            int searched = (stats.getIterations() == 0) ? 0 : stats.getIterationDepth(stats.getIterations() - 1);
+
+            String value;
+            if (solver != null) {
+                value = task.wasStopped() ? "?" : String.valueOf(solver.getBestValue());
+                searched = task.wasStopped() ? 0 : searched;
+            } else if (pvs != null) {
+                value = String.valueOf(pvs.getBestValue());
+            } else if (mtdf != null) {
+                value = String.valueOf(mtdf.getBestValue());
+            } else {
+                value = (task.getCompletedDepth() == 0) ? "?" : String.valueOf(task.getBestValue());
+            }
+
+            StringBuilder sb = new StringBuilder();
+            sb.append(Othello.pointToString(result.getAction())).append('\t').append(value).append('\t').append(searched)
+                    .append('\t').append(nodes).append('\t').append(String.format("%.1f", nanos / 1e6));
+
+            if (multi != null) {
+                sb.append('\t');
+                List<ScoredLine<Point>> found = multi.getLines();
+                for (int i = 0; i < found.size(); i++) {
+                    ScoredLine<Point> line = found.get(i);
+                    sb.append((i == 0) ? "" : "; ").append(Othello.pointToString(line.getAction()))
+                            .append(String.format(" %+d", line.getValue()));
+                    for (Point move : line.getVariation()) {
+                        sb.append(' ').append(Othello.pointToString(move));
+                    }
+                }
+            }
+
+            return sb.toString();
+        }
+    }
+
+    /**
+     * The results file, written one whole line at a time by any thread
+     */
+    private static class Output {
+
+        private final BufferedWriter out;
+
+        Output(BufferedWriter out) {
+            this.out = out;
+        }
+
+        synchronized void write(String line) {
+            try {
+                out.write(line);
+                out.newLine();
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Totals over every position searched so far
+     */
+    private static class Totals {
+
+        private final AtomicLong positions = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong nodes = new AtomicLong();
+        private final AtomicLong nanos = new AtomicLong();      // Summed over the threads
+
+        void add(long n, long t) {
+            positions.incrementAndGet();
+            nodes.addAndGet(n);
+            nanos.addAndGet(t);
+        }
+
+        void addError() {
+            errors.incrementAndGet();
+        }
+
+        /**
+         * Print the number of positions, their rate and the states visited
+         * per second, over the whole run and per thread
+         */
+        void report(String engine, long budget, int threads, long elapsed) {
+
+            long n = positions.get();
+            double seconds = elapsed / 1e9;
+
+            System.out.println(engine + " " + budget + " on " + threads + " threads: " + n + " positions in "
+                    + String.format("%.1f", seconds) + " s" + ((errors.get() > 0) ? ", " + errors.get() + " failed" : ""));
+            System.out.println(String.format("%.1f", n / seconds) + " positions/s, "
+                    + String.format("%.2f", nanos.get() / 1e6 / Math.max(1, n)) + " ms per position");
+            System.out.println(nodes.get() + " states, " + String.format("%.0f", nodes.get() / seconds) + " states/s");
+        }
+    }
+}
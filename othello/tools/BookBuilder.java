@@ -0,0 +1,251 @@
+package othello.tools;
+
+import java.awt.Point;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import othello.ai.search.OpeningBook;
+import othello.game.Board;
+import othello.game.Color;
+import othello.game.exceptions.IllegalBoardDimensions;
+
+/**
+ * Builds an opening book from a file of game records. Each line of the file is
+ * one game in the usual notation, a column letter and a row number per move
+ * with dark moving first, for example {@code f5d6c3d3c4}. Passes may be
+ * written as {@code pa} or left out. Blank lines and lines starting with
+ * {@code #} are ignored.
+ * <p>
+ * Every game is also replayed in each reflection and rotation of the board
+ * that leaves the starting position unchanged. For each position in the first
+ * {@code plies} moves the book keeps the move played most often, breaking ties
+ * by the best average final margin, and stores that average as its score.
+ *
+ * <pre>
+ * java othello.tools.BookBuilder records [book] [dim] [plies]
+ * </pre>
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-21-2021
+ */
+public class BookBuilder {
+
+    public static void main(String[] args) throws IOException, IllegalBoardDimensions {
+
+        if (args.length < 1) {
+            System.out.println("usage: java othello.tools.BookBuilder records [book] [dim] [plies]");
+            System.exit(1);
+        }
+
+        Path records = Paths.get(args[0]);
+        Path bookFile = Paths.get((args.length > 1) ? args[1] : OpeningBook.DEFAULT_FILE);
+        int dim = (args.length > 2) ? Integer.parseInt(args[2]) : 8;
+        int plies = (args.length > 3) ? Integer.parseInt(args[3]) : 20;
+
+        List<int[]> symmetries = symmetries(dim);
+
+        // Position hash -> encoded move -> { times played, finished games, sum of final margins }
+        Map<Long, Map<Integer, int[]>> stats = new HashMap<>();
+
+        int games = 0;
+        int skipped = 0;
+
+        for (String line : Files.readAllLines(records)) {
+
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            int[] moves = parse(line, dim);
+            if (moves == null || !replay(moves, symmetries.get(0), dim, plies, stats)) {
+                System.out.println("Skipping illegal record: " + line);
+                skipped++;
+                continue;
+            }
+
+            for (int t = 1; t < symmetries.size(); t++) {
+                replay(moves, symmetries.get(t), dim, plies, stats);
+            }
+
+            games++;
+        }
+
+        int n = stats.size();
+        long[] keys = new long[n];
+        int[] bookMoves = new int[n];
+        int[] scores = new int[n];
+
+        int k = 0;
+        for (Map.Entry<Long, Map<Integer, int[]>> position : stats.entrySet()) {
+
+            int bestMove = -1;
+            int[] best = null;
+
+            for (Map.Entry<Integer, int[]> move : position.getValue().entrySet()) {
+                int[] s = move.getValue();
+                if (best == null || s[0] > best[0] || (s[0] == best[0] && average(s) > average(best))) {
+                    best = s;
+                    bestMove = move.getKey();
+                }
+            }
+
+            keys[k] = position.getKey();
+            bookMoves[k] = bestMove;
+            scores[k] = Math.round(average(best));
+            k++;
+        }
+
+        OpeningBook.write(bookFile, dim, keys, bookMoves, scores);
+
+        System.out.println("Read " + games + " games (" + skipped + " skipped).");
+        System.out.println("Wrote " + n + " positions to " + bookFile + ".");
+    }
+
+    /**
+     * Play one game and count each of its first moves in {@code stats}
+     *
+     * @param moves     encoded moves of the game
+     * @param map       square each square is moved to by the symmetry
+     * @param dim       square dimension of the board
+     * @param plies     number of moves to count
+     * @param stats     counts to add to
+     * @return          {@code false} if a move was illegal, in which case nothing is counted
+     */
+    private static boolean replay(int[] moves, int[] map, int dim, int plies,
+            Map<Long, Map<Integer, int[]>> stats) throws IllegalBoardDimensions {
+
+        Board b = new Board(dim, Color.DARK);
+
+        int counted = Math.min(plies, moves.length);
+        long[] keys = new long[counted];
+        int[] played = new int[counted];
+        Color[] movers = new Color[counted];
+
+        for (int k = 0; k < moves.length; k++) {
+
+            if (!b.hasAnyMoves(b.whoseTurn())) {
+                b.setTurn();
+            }
+
+            int sq = map[moves[k]];
+            int i = sq / dim;
+            int j = sq % dim;
+
+            if (!b.validMove(b.whoseTurn(), i, j)) {
+                return false;
+            }
+
+            if (k < counted) {
+                keys[k] = b.getHash();
+                played[k] = sq;
+                movers[k] = b.whoseTurn();
+            }
+
+            b.refreshBoard(new Point(i, j), b.whoseTurn());
+        }
+
+        boolean finished = b.isGameFinished();
+        int margin = b.getPlayerPeices(Color.DARK) - b.getPlayerPeices(Color.LIGHT);
+
+        for (int k = 0; k < counted; k++) {
+            int[] s = stats.computeIfAbsent(keys[k], key -> new HashMap<>())
+                    .computeIfAbsent(played[k], key -> new int[3]);
+            s[0]++;
+            if (finished) {
+                s[1]++;
+                s[2] += (movers[k] == Color.DARK) ? margin : -margin;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Parse a game record into encoded moves
+     *
+     * @param line      moves such as {@code f5d6c3}
+     * @param dim       square dimension of the board
+     * @return          encoded moves, or {@code null} if the record is malformed
+     */
+    private static int[] parse(String line, int dim) {
+
+        String s = line.toLowerCase().replaceAll("\\s+", "");
+        if (s.length() % 2 != 0) {
+            return null;
+        }
+
+        int[] moves = new int[s.length() / 2];
+        int n = 0;
+
+        for (int k = 0; k < s.length(); k += 2) {
+            String token = s.substring(k, k + 2);
+            if (token.equals("pa") || token.equals("ps") || token.equals("--")) {
+                continue;
+            }
+            int j = token.charAt(0) - 'a';
+            int i = token.charAt(1) - '1';
+            if (i < 0 || i >= dim || j < 0 || j >= dim) {
+                return null;
+            }
+            moves[n++] = i * dim + j;
+        }
+
+        return Arrays.copyOf(moves, n);
+    }
+
+    /**
+     * Find the reflections and rotations of the board that leave the starting
+     * position unchanged. The identity always comes first.
+     *
+     * @param dim       square dimension of the board
+     * @return          for each symmetry, the square each square is moved to
+     */
+    private static List<int[]> symmetries(int dim) throws IllegalBoardDimensions {
+
+        Board start = new Board(dim, Color.DARK);
+        List<int[]> symmetries = new ArrayList<>();
+
+        for (int t = 0; t < 8; t++) {
+
+            int[] map = new int[dim * dim];
+            boolean same = true;
+
+            for (int i = 0; i < dim; i++) {
+                for (int j = 0; j < dim; j++) {
+                    int x = ((t & 4) != 0) ? j : i;
+                    int y = ((t & 4) != 0) ? i : j;
+                    if ((t & 1) != 0) {
+                        x = dim - 1 - x;
+                    }
+                    if ((t & 2) != 0) {
+                        y = dim - 1 - y;
+                    }
+                    map[i * dim + j] = x * dim + y;
+                    same &= start.get(i, j) == start.get(x, y);
+                }
+            }
+
+            if (same) {
+                symmetries.add(map);
+            }
+        }
+
+        return symmetries;
+    }
+
+    /**
+     * @return          average final margin of a move's counts, or {@code 0} if
+     *                  none of its games were finished
+     */
+    private static float average(int[] s) {
+        return (s[1] == 0) ? 0 : (float) s[2] / s[1];
+    }
+}
@@ -0,0 +1,205 @@
+package othello.tools;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import othello.game.BitBoard;
+import othello.game.Board;
+import othello.game.Color;
+import othello.game.exceptions.IllegalBoardDimensions;
+
+/**
+ * Counts the positions reachable in exactly {@code depth} moves from the start
+ * of the game, to check the move generator against known counts and to
+ * measure its speed. A pass counts as a move. A game that ends early counts
+ * once, as the position it ended in.
+ * <p>
+ * The last move is never played: the number of legal moves is the number of
+ * positions it leads to. With more than one thread the tree is split into
+ * fork-join tasks at the root moves and below, down to
+ * {@code SEQUENTIAL_DEPTH}.
+ *
+ * <pre>
+ * java othello.tools.Perft [dim] [depth] [threads]
+ * java othello.tools.Perft verify [threads]
+ * </pre>
+ *
+ * {@code verify} checks the 8x8 counts against the known values and exits
+ * with status 1 if any differs.
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-22-2021
+ */
+public class Perft {
+
+    // Leaf counts of 8x8 Othello at depths 1, 2, 3, ...
+    private static final long[] EXPECTED = {
+        4L, 12L, 56L, 244L, 1396L, 8200L, 55092L, 390216L, 3005288L, 24571284L
+    };
+
+    private static final int SEQUENTIAL_DEPTH = 6;     // Subtrees this shallow are not split further
+
+    public static void main(String[] args) throws IllegalBoardDimensions {
+
+        if (args.length > 0 && args[0].equals("verify")) {
+            int threads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+            System.exit(verify(threads) ? 0 : 1);
+        }
+
+        int dim = (args.length > 0) ? Integer.parseInt(args[0]) : 8;
+        int depth = (args.length > 1) ? Integer.parseInt(args[1]) : 9;
+        int threads = (args.length > 2) ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        for (int d = 1; d <= depth; d++) {
+            report(dim, d, threads, -1);
+        }
+    }
+
+    /**
+     * Count the leaves of the 8x8 tree to every depth with a known count
+     *
+     * @param threads   number of threads to count with
+     * @return          {@code true} if every count matches
+     */
+    private static boolean verify(int threads) throws IllegalBoardDimensions {
+        boolean ok = true;
+        for (int d = 1; d <= EXPECTED.length; d++) {
+            ok &= report(8, d, threads, EXPECTED[d - 1]);
+        }
+        System.out.println(ok ? "All counts match." : "Counts differ.");
+        return ok;
+    }
+
+    /**
+     * Count and print the leaves to one depth
+     *
+     * @param dim       square dimension of the board
+     * @param depth     number of moves
+     * @param threads   number of threads to count with
+     * @param expected  expected count, or {@code -1} if unknown
+     * @return          {@code false} if the count differs from {@code expected}
+     */
+    private static boolean report(int dim, int depth, int threads, long expected) throws IllegalBoardDimensions {
+
+        long start = System.nanoTime();
+        long nodes = count(dim, depth, threads);
+        long elapsed = System.nanoTime() - start;
+
+        boolean ok = expected < 0 || nodes == expected;
+
+        System.out.println(dim + "x" + dim + " depth " + depth + ": " + nodes + " nodes in "
+                + String.format("%.3f", elapsed / 1e9) + " s, "
+                + String.format("%.0f", nodes / Math.max(elapsed / 1e9, 1e-9)) + " nodes/s"
+                + (ok ? "" : "  EXPECTED " + expected));
+
+        return ok;
+    }
+
+    /**
+     * Count the leaves to one depth from the start of the game
+     *
+     * @param dim       square dimension of the board
+     * @param depth     number of moves
+     * @param threads   number of threads to count with
+     * @return          number of leaves
+     */
+    static long count(int dim, int depth, int threads) throws IllegalBoardDimensions {
+
+        Board b = new Board(dim, Color.DARK);
+        long p = b.getDiscs(Color.DARK);
+        long o = b.getDiscs(Color.LIGHT);
+
+        if (threads <= 1) {
+            return count(p, o, dim, depth, false);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long nodes = pool.invoke(new Count(p, o, dim, depth, false));
+        pool.shutdown();
+        return nodes;
+    }
+
+    /**
+     * Count the leaves below a position
+     *
+     * @param p         discs of the player to move
+     * @param o         discs of the opponent
+     * @param dim       square dimension of the board
+     * @param depth     moves left to play
+     * @param passed    did the opponent just pass?
+     * @return          number of leaves
+     */
+    static long count(long p, long o, int dim, int depth, boolean passed) {
+
+        long moves = BitBoard.moves(p, o, dim);
+
+        if (moves == 0) {
+            if (passed || depth == 1) {
+                return 1;                               // The game is over, or the pass is the last move
+            }
+            return count(o, p, dim, depth - 1, true);
+        }
+
+        if (depth == 1) {
+            return Long.bitCount(moves);
+        }
+
+        long nodes = 0;
+        while (moves != 0) {
+            int sq = Long.numberOfTrailingZeros(moves);
+            moves &= moves - 1;
+            long flipped = BitBoard.flips(p, o, sq, dim);
+            nodes += count(o & ~flipped, p | flipped | (1L << sq), dim, depth - 1, false);
+        }
+        return nodes;
+    }
+
+    /**
+     * Fork-join task counting the leaves below one position
+     */
+    private static class Count extends RecursiveTask<Long> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long p;
+        private final long o;
+        private final int dim;
+        private final int depth;
+        private final boolean passed;
+
+        Count(long p, long o, int dim, int depth, boolean passed) {
+            this.p = p;
+            this.o = o;
+            this.dim = dim;
+            this.depth = depth;
+            this.passed = passed;
+        }
+
+        @Override
+        protected Long compute() {
+
+            long moves = BitBoard.moves(p, o, dim);
+
+            if (depth <= SEQUENTIAL_DEPTH || moves == 0) {
+                return count(p, o, dim, depth, passed);
+            }
+
+            Count[] tasks = new Count[Long.bitCount(moves)];
+            int n = 0;
+            while (moves != 0) {
+                int sq = Long.numberOfTrailingZeros(moves);
+                moves &= moves - 1;
+                long flipped = BitBoard.flips(p, o, sq, dim);
+                tasks[n++] = new Count(o & ~flipped, p | flipped | (1L << sq), dim, depth - 1, false);
+            }
+
+            invokeAll(tasks);
+
+            long nodes = 0;
+            for (Count t : tasks) {
+                nodes += t.join();
+            }
+            return nodes;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package othello.tools;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Random;
+
+import othello.game.Board;
+import othello.game.Color;
+import othello.game.Othello;
+import othello.player.Computer;
+
+/**
+ * Reproducible test positions for the command line tools. Each position is
+ * reached by playing random legal moves from the start, with a fixed seed so
+ * every run sees the same positions.
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-17-2021
+ */
+public final class Positions {
+
+    private Positions() {}
+
+    /**
+     * Create one game per entry of {@code plies}, each advanced by that many
+     * random moves. Passes are played when needed and do not count as plies.
+     *
+     * @param dim       square dimension of the board
+     * @param plies     number of random moves to play for each position
+     * @param seed      seed of the random moves
+     * @return          games whose current boards are the positions
+     */
+    public static ArrayList<Othello> random(int dim, int[] plies, long seed) {
+
+        ArrayList<Othello> positions = new ArrayList<>();
+        Random rand = new Random(seed);
+
+        for (int n : plies) {
+            Othello game = new Othello(dim, new Computer(Color.DARK), new Computer(Color.LIGHT));
+            playRandom(game.initialState(), n, rand);
+            positions.add(game);
+        }
+
+        return positions;
+    }
+
+    /**
+     * Play random legal moves on a board. Passes are played when needed and
+     * do not count as plies.
+     *
+     * @param b         board to play on
+     * @param plies     number of random moves to play
+     * @param rand      source of the random moves
+     */
+    public static void playRandom(Board b, int plies, Random rand) {
+        for (int i = 0; i < plies && !b.isGameFinished(); i++) {
+            if (!b.hasAnyMoves(b.whoseTurn())) {
+                b.setTurn();
+            }
+            ArrayList<Point> moves = b.getAllPossibleMoves(b.whoseTurn());
+            b.refreshBoard(moves.get(rand.nextInt(moves.size())), b.whoseTurn());
+        }
+    }
+}
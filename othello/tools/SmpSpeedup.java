@@ -0,0 +1,83 @@
+package othello.tools;
+
+import java.awt.Point;
+import java.util.ArrayList;
+
+import othello.ai.algorithms.LazySMP;
+import othello.ai.search.TranspositionTable;
+import othello.game.Board;
+import othello.game.Color;
+import othello.game.Othello;
+
+/**
+ * Measures how much faster {@code LazySMP} reaches a fixed depth on many
+ * threads than on one, on a fixed set of positions. Both deepen from depth 1
+ * the same way, so the speedup is the threads' alone.
+ *
+ * <pre>
+ * java othello.tools.SmpSpeedup [dim] [depth] [threads]
+ * </pre>
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-17-2021
+ */
+public class SmpSpeedup {
+
+    private static final int[] OPENING_PLIES = { 0, 8, 16, 24 };   // Random plies played before each position
+    private static final long SEED = 20210217L;                    // Same positions on every run
+
+    public static void main(String[] args) {
+
+        int dim = (args.length > 0) ? Integer.parseInt(args[0]) : 8;
+        int depth = (args.length > 1) ? Integer.parseInt(args[1]) : 8;
+        int threads = (args.length > 2) ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        ArrayList<Othello> positions = Positions.random(dim, OPENING_PLIES, SEED);
+
+        // Warm up the JIT so the first position is not penalised
+        time(positions.get(0), Math.min(depth, 5), 1);
+        time(positions.get(0), Math.min(depth, 5), threads);
+
+        long serialTotal = 0;
+        long parallelTotal = 0;
+
+        StringBuilder report = new StringBuilder();
+        report.append("\nDepth " + depth + ", " + threads + " threads\n");
+
+        for (int i = 0; i < positions.size(); i++) {
+
+            long serial = time(positions.get(i), depth, 1);
+            long parallel = time(positions.get(i), depth, threads);
+
+            serialTotal += serial;
+            parallelTotal += parallel;
+
+            report.append("Position " + (i + 1) + " (" + OPENING_PLIES[i] + " plies): "
+                    + (serial / 1000000) + " ms serial, "
+                    + (parallel / 1000000) + " ms parallel, speedup "
+                    + String.format("%.2f", (double) serial / parallel) + "\n");
+        }
+
+        report.append("Total speedup: " + String.format("%.2f", (double) serialTotal / parallelTotal) + "\n");
+
+        System.out.print(report);
+    }
+
+    /**
+     * Time one search of the given position with an empty transposition table
+     *
+     * @param game      game whose current board is searched
+     * @param depth     depth limit
+     * @param threads   threads searching
+     * @return          elapsed time in nanoseconds
+     */
+    private static long time(Othello game, int depth, int threads) {
+
+        TranspositionTable table = new TranspositionTable(22);
+        long start = System.nanoTime();
+
+        new LazySMP<Board, Point, Color>(game, depth, threads, table).solve(game.initialState());
+
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,346 @@
+package othello.tools;
+
+import java.awt.Point;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import othello.ai.search.Evaluator;
+import othello.ai.search.PatternEvaluator;
+import othello.ai.search.Problem;
+import othello.game.Board;
+import othello.game.Color;
+import othello.game.Othello;
+import othello.player.AI;
+import othello.player.Computer;
+import othello.player.Player;
+
+/**
+ * Plays two computer players against each other many times, with no output
+ * and no waiting between moves, and reports the result as an Elo difference.
+ * <p>
+ * Games are played in pairs from the same random opening, once with each
+ * player moving first, so neither gains from a lucky opening, and an odd
+ * number of games is rounded up to whole pairs. The pairs are
+ * shared out among a pool of threads, each with its own players, so the
+ * transposition tables are never shared between games running at once. The
+ * players keep quiet and use small tables, since every thread has four.
+ * <p>
+ * The openings are the same on every run, but the results need not be. The
+ * random player and the Monte Carlo playouts draw their moves from seeds
+ * taken from the clock, and the time-limited searches (algorithms 5 and 9)
+ * reach different depths or playout counts from run to run and with the
+ * number of threads sharing the cores. Only depth-limited searches against
+ * each other play the same games every time, whatever the thread count.
+ * <p>
+ * A player is given as {@code random} or as {@code algo:limit[:eval[:mcts]]},
+ * where {@code algo} and {@code limit} are the AI's algorithm number and depth
+ * (or time) limit as in the opponent menu, and {@code eval} is
+ * {@code patterns} for the trained pattern evaluator, {@code classic} for the
+ * original heuristic, or the path of a weight file written by
+ * {@code TrainPatterns}. For Monte Carlo Tree Search, {@code mcts} is
+ * {@code bias} to guide the tree with the evaluator through progressive
+ * bias, {@code corners} for playouts that take corners and avoid the cells
+ * next to them, or both as {@code bias,corners}.
+ *
+ * <pre>
+ * java othello.tools.Tournament playerA playerB [games] [dim] [threads] [plies]
+ * </pre>
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-24-2021
+ */
+public class Tournament {
+
+    private static final long SEED = 20210224L;         // Same openings on every run
+    private static final double Z = 1.96;               // Width of the 95% confidence interval
+    private static final int TABLE_BITS = 16;           // Small tables, so four players per thread fit
+
+    public static void main(String[] args) throws Exception {
+
+        if (args.length < 2) {
+            System.out.println("usage: java othello.tools.Tournament playerA playerB [games] [dim] [threads] [plies]");
+            System.exit(1);
+        }
+
+        String specA = args[0];
+        String specB = args[1];
+        int requested = (args.length > 2) ? Integer.parseInt(args[2]) : 1000;
+        int dim = (args.length > 3) ? Integer.parseInt(args[3]) : 8;
+        int threads = (args.length > 4) ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        int plies = (args.length > 5) ? Integer.parseInt(args[5]) : 8;
+
+        int pairs = (requested + 1) / 2;
+        int games = 2 * pairs;
+        if (games != requested) {
+            System.out.println("Playing " + games + " games, so that every opening is played from both sides.");
+        }
+
+        // Check both players before any game starts
+        create(specA, Color.DARK, dim);
+        create(specB, Color.DARK, dim);
+
+        long[] seeds = new long[pairs];
+        Random rand = new Random(SEED);
+        for (int i = 0; i < pairs; i++) {
+            seeds[i] = rand.nextLong();
+        }
+
+        Results results = new Results();
+        AtomicInteger next = new AtomicInteger();
+
+        long start = System.nanoTime();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<Void>> workers = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            workers.add(pool.submit(() -> {
+
+                Entrant[] a = { create(specA, Color.DARK, dim), create(specA, Color.LIGHT, dim) };
+                Entrant[] b = { create(specB, Color.DARK, dim), create(specB, Color.LIGHT, dim) };
+
+                int pair;
+                while ((pair = next.getAndIncrement()) < pairs) {
+                    for (int side = 0; side < 2; side++) {
+                        Entrant dark = (side == 0) ? a[0] : b[0];
+                        Entrant light = (side == 0) ? b[1] : a[1];
+                        Othello game = new Othello(dim, dark, light);
+                        Positions.playRandom(game.initialState(), plies, new Random(seeds[pair]));
+                        game.playHeadless();
+                        int margin = game.getScore(Color.DARK) - game.getScore(Color.LIGHT);
+                        results.add((side == 0) ? margin : -margin, games);
+                    }
+                }
+
+                results.addTime(a, b);
+                return null;
+            }));
+        }
+
+        try {
+            for (Future<Void> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        long elapsed = System.nanoTime() - start;
+
+        results.report(specA, specB, elapsed);
+    }
+
+    /**
+     * Create a player from its description
+     *
+     * @param spec      {@code random} or {@code algo:limit[:eval[:mcts]]}
+     * @param c         color the player plays
+     * @param dim       square dimension of the board
+     * @return          the player, timing its own moves
+     * @throws IllegalArgumentException     if the description cannot be read
+     * @throws IOException                  if a weight file cannot be read
+     */
+    private static Entrant create(String spec, Color c, int dim) throws IOException {
+
+        if (spec.equals("random")) {
+            return new Entrant(new Computer(c), null, false);
+        }
+
+        String[] parts = spec.split(":");
+        if (parts.length < 2 || parts.length > 4) {
+            throw new IllegalArgumentException("player must be random or algo:limit[:eval[:mcts]], not " + spec);
+        }
+
+        int algo = Integer.parseInt(parts[0]);
+        int limit = Integer.parseInt(parts[1]);
+        if (algo < 2 || algo > 9) {
+            throw new IllegalArgumentException("algorithm must be from 2 to 9, not " + algo);
+        }
+        boolean bias = false;
+        boolean corners = false;
+        if (parts.length > 3) {
+            if (algo != 9) {
+                throw new IllegalArgumentException("only algorithm 9 takes bias or corners, not " + spec);
+            }
+            for (String option : parts[3].split(",")) {
+                if (option.equals("bias")) {
+                    bias = true;
+                } else if (option.equals("corners")) {
+                    corners = true;
+                } else {
+                    throw new IllegalArgumentException("options must be bias or corners, not " + option);
+                }
+            }
+        }
+
+        Evaluator<Board> evaluator = PatternEvaluator.forDimension(dim);
+        String eval = (parts.length > 2) ? parts[2] : "patterns";
+
+        if (eval.equals("classic")) {
+            evaluator = null;
+        } else if (!eval.equals("patterns")) {
+            try (InputStream in = Files.newInputStream(Paths.get(eval))) {
+                evaluator = PatternEvaluator.read(in);
+            }
+        }
+
+        AI ai = new AI(c, algo, limit, TABLE_BITS);
+        ai.setQuiet(true);
+        ai.setProgressiveBias(bias);
+
+        return new Entrant(ai, evaluator, corners);
+    }
+
+    /**
+     * Player that times another player's moves and has the game score
+     * positions with its own evaluator, and play out games its own way,
+     * while it searches
+     */
+    private static class Entrant extends Player {
+
+        private final Player player;
+        private final Evaluator<Board> evaluator;
+        private final boolean biasedPlayouts;
+        private long nanos;
+        private long moves;
+
+        Entrant(Player player, Evaluator<Board> evaluator, boolean biasedPlayouts) {
+            super(player.color);
+            this.player = player;
+            this.evaluator = evaluator;
+            this.biasedPlayouts = biasedPlayouts;
+        }
+
+        @Override
+        public boolean isUserPlayer() {
+            return false;
+        }
+
+        @Override
+        public Point play(Problem<Board, Point, Color> problem) {
+
+            if (problem instanceof Othello) {
+                ((Othello) problem).setEvaluator(evaluator);
+                ((Othello) problem).setBiasedPlayouts(biasedPlayouts);
+            }
+
+            long start = System.nanoTime();
+            Point move = player.play(problem);
+            nanos += System.nanoTime() - start;
+            moves++;
+
+            return move;
+        }
+    }
+
+    /**
+     * Totals of the games played so far, from the first player's point of view
+     */
+    private static class Results {
+
+        private int wins;
+        private int draws;
+        private int losses;
+        private long margins;
+        private long nanosA;
+        private long movesA;
+        private long nanosB;
+        private long movesB;
+
+        /**
+         * Count one finished game and print progress every tenth of the games
+         */
+        synchronized void add(int margin, int games) {
+
+            if (margin > 0) {
+                wins++;
+            } else if (margin < 0) {
+                losses++;
+            } else {
+                draws++;
+            }
+            margins += margin;
+
+            int played = wins + draws + losses;
+            if (games >= 10 && played % (games / 10) == 0) {
+                System.out.println("Played " + played + " games: +" + wins + " =" + draws + " -" + losses);
+            }
+        }
+
+        /**
+         * Add the thinking time of one thread's players
+         */
+        synchronized void addTime(Entrant[] a, Entrant[] b) {
+            for (Entrant e : a) {
+                nanosA += e.nanos;
+                movesA += e.moves;
+            }
+            for (Entrant e : b) {
+                nanosB += e.nanos;
+                movesB += e.moves;
+            }
+        }
+
+        /**
+         * Print the score, the Elo difference with its 95% confidence
+         * interval, and the average time per move of each player
+         */
+        void report(String specA, String specB, long elapsed) {
+
+            int n = wins + draws + losses;
+            double score = (wins + 0.5 * draws) / n;
+
+            // Standard error of the mean score of one game
+            double variance = (wins * sq(1 - score) + draws * sq(0.5 - score) + losses * sq(score)) / n;
+            double error = Math.sqrt(variance / n);
+
+            System.out.println();
+            System.out.println(specA + " vs " + specB + ": " + n + " games in "
+                    + String.format("%.1f", elapsed / 1e9) + " s");
+            System.out.println("Wins " + wins + ", draws " + draws + ", losses " + losses
+                    + ", score " + String.format("%.1f", 100 * score) + "%, average margin "
+                    + String.format("%+.2f", (double) margins / n));
+            System.out.println("Elo difference " + format(elo(score))
+                    + " (95% interval " + format(elo(score - Z * error)) + " to " + format(elo(score + Z * error)) + ")");
+            System.out.println("Time per move: " + specA + " " + millis(nanosA, movesA) + " ms, "
+                    + specB + " " + millis(nanosB, movesB) + " ms");
+        }
+
+        private static double sq(double x) {
+            return x * x;
+        }
+
+        /**
+         * @return          Elo difference that gives the expected score
+         */
+        private static double elo(double score) {
+            if (score <= 0) {
+                return Double.NEGATIVE_INFINITY;
+            }
+            if (score >= 1) {
+                return Double.POSITIVE_INFINITY;
+            }
+            return -400 * Math.log10(1 / score - 1);
+        }
+
+        private static String format(double elo) {
+            if (Double.isInfinite(elo)) {
+                return (elo > 0) ? "+inf" : "-inf";
+            }
+            return String.format("%+.0f", elo);
+        }
+
+        private static String millis(long nanos, long moves) {
+            return String.format("%.2f", nanos / 1e6 / Math.max(1, moves));
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package othello.tools;
+
+import java.awt.Point;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+
+import othello.ai.algorithms.EndgameSolver;
+import othello.ai.search.PatternEvaluator;
+import othello.ai.search.TranspositionTable;
+import othello.game.BitBoard;
+import othello.game.Board;
+import othello.game.Color;
+import othello.game.exceptions.IllegalBoardDimensions;
+
+/**
+ * Fits the weights of {@code PatternEvaluator} to the outcomes of generated
+ * games and writes them to a weight file.
+ * <p>
+ * Each game opens with a few random moves and then follows a quick policy
+ * that keeps the opponent's mobility low, with an occasional random move for
+ * variety. Once few enough squares are empty the position is solved exactly,
+ * and every earlier position of the game is labelled with that solved final
+ * margin from its own mover's point of view. The weights are then fitted to
+ * the labels by stochastic gradient descent on the squared error. A pattern
+ * and its mirror image are stepped together, so they keep one weight.
+ *
+ * <pre>
+ * java othello.tools.TrainPatterns [dim] [games] [epochs] [out]
+ * </pre>
+ *
+ * @author  Emma Campbell & Emma Schechter
+ * @since   02-23-2021
+ */
+public class TrainPatterns {
+
+    private static final long SEED = 20210223L;         // Same games on every run
+    private static final int OPENING_PLIES = 6;         // Random moves at the start of each game
+    private static final double EXPLORE = 0.1;          // Chance of a random move after the opening
+    private static final double HOLDOUT = 0.05;         // Share of games kept back to measure the error
+    private static final double RATE = 0.005;           // Step size of the weights
+
+    public static void main(String[] args) throws IOException, IllegalBoardDimensions {
+
+        int dim = (args.length > 0) ? Integer.parseInt(args[0]) : 8;
+        int games = (args.length > 1) ? Integer.parseInt(args[1]) : 100000;
+        int epochs = (args.length > 2) ? Integer.parseInt(args[2]) : 10;
+        Path out = Paths.get((args.length > 3) ? args[3]
+                : "othello/ai/search/" + PatternEvaluator.resourceName(dim));
+
+        PatternEvaluator shape = PatternEvaluator.untrained(dim);
+        Samples samples = generate(dim, games);
+
+        System.out.println("Generated " + samples.size + " positions from " + games + " games.");
+
+        double[][][] w = new double[PatternEvaluator.PHASES][PatternEvaluator.FAMILIES][];
+        for (int ph = 0; ph < PatternEvaluator.PHASES; ph++) {
+            for (int f = 0; f < PatternEvaluator.FAMILIES; f++) {
+                w[ph][f] = new double[shape.tableSize(f)];
+            }
+        }
+
+        int[][] mirror = new int[PatternEvaluator.FAMILIES][];
+        for (int f = 0; f < PatternEvaluator.FAMILIES; f++) {
+            mirror[f] = new int[shape.tableSize(f)];
+            for (int i = 0; i < mirror[f].length; i++) {
+                mirror[f][i] = shape.mirror(f, i);
+            }
+        }
+
+        Random rand = new Random(SEED);
+        int[] order = new int[samples.trainSize];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+
+        for (int epoch = 1; epoch <= epochs; epoch++) {
+
+            // Shuffle so that positions of one game are not seen together
+            for (int i = order.length - 1; i > 0; i--) {
+                int j = rand.nextInt(i + 1);
+                int t = order[i];
+                order[i] = order[j];
+                order[j] = t;
+            }
+
+            // Smaller steps in later epochs, so the weights settle
+            double decay = 1.0 / epoch;
+
+            double sum = 0;
+            for (int i : order) {
+                double err = samples.label[i] - predict(shape, w, samples.p[i], samples.o[i]);
+                update(shape, w, mirror, samples.p[i], samples.o[i], err * decay);
+                sum += err * err;
+            }
+
+            double test = 0;
+            for (int i = samples.trainSize; i < samples.size; i++) {
+                double err = samples.label[i] - predict(shape, w, samples.p[i], samples.o[i]);
+                test += err * err;
+            }
+
+            System.out.println("Epoch " + epoch + ": training error " + String.format("%.2f", Math.sqrt(sum / samples.trainSize))
+                    + " discs, held-out error "
+                    + String.format("%.2f", Math.sqrt(test / Math.max(1, samples.size - samples.trainSize))) + " discs");
+        }
+
+        for (int ph = 0; ph < PatternEvaluator.PHASES; ph++) {
+            for (int f = 0; f < PatternEvaluator.FAMILIES; f++) {
+                for (int i = 0; i < w[ph][f].length; i++) {
+                    shape.setWeight(ph, f, i, toShort(w[ph][f][i]));
+                }
+            }
+        }
+
+        try (OutputStream stream = Files.newOutputStream(out)) {
+            shape.write(stream);
+        }
+
+        System.out.println("Wrote " + out + ".");
+    }
+
+    /**
+     * Score a position with the weights being trained, in discs
+     */
+    private static double predict(PatternEvaluator shape, double[][][] w, long p, long o) {
+        int ph = shape.phase(p, o);
+        double score = 0;
+        for (int i = 0; i < shape.instances(); i++) {
+            score += w[ph][shape.family(i)][shape.index(i, p, o)];
+        }
+        return score;
+    }
+
+    /**
+     * Move every weight used by the position a step along the error
+     */
+    private static void update(PatternEvaluator shape, double[][][] w, int[][] mirror, long p, long o, double err) {
+        int ph = shape.phase(p, o);
+        for (int i = 0; i < shape.instances(); i++) {
+            int f = shape.family(i);
+            int index = shape.index(i, p, o);
+            w[ph][f][index] += RATE * err;
+            if (mirror[f][index] != index) {
+                w[ph][f][mirror[f][index]] += RATE * err;
+            }
+        }
+    }
+
+    /**
+     * Convert a weight in discs to the evaluator's fixed-point units
+     */
+    private static short toShort(double w) {
+        long v = Math.round(w * PatternEvaluator.SCALE);
+        return (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, v));
+    }
+
+    /**
+     * Play and label the training games
+     *
+     * @param dim       square dimension of the board
+     * @param games     number of games to play
+     * @return          labelled positions, the held-out games last
+     */
+    private static Samples generate(int dim, int games) throws IllegalBoardDimensions {
+
+        Random rand = new Random(SEED);
+        EndgameSolver solver = new EndgameSolver(new TranspositionTable(20));
+        int solveAt = Math.min(10, dim * dim / 3);
+
+        Samples samples = new Samples(games * (dim * dim - 4 - solveAt + 1));
+        samples.trainSize = -1;
+
+        long[] p = new long[dim * dim];
+        long[] o = new long[dim * dim];
+        boolean[] dark = new boolean[dim * dim];
+
+        for (int g = 0; g < games; g++) {
+
+            if (g == (int) (games * (1 - HOLDOUT))) {
+                samples.trainSize = samples.size;
+            }
+
+            Board b = new Board(dim, Color.DARK);
+            int n = 0;
+            int ply = 0;
+
+            while (!b.isGameFinished()) {
+
+                Color me = b.whoseTurn();
+                Color other = (me == Color.DARK) ? Color.LIGHT : Color.DARK;
+
+                if (!b.hasAnyMoves(me)) {
+                    b.setTurn();
+                    continue;
+                }
+
+                p[n] = b.getDiscs(me);
+                o[n] = b.getDiscs(other);
+                dark[n] = (me == Color.DARK);
+                n++;
+
+                if (b.getEmptyCount() <= solveAt) {
+                    break;
+                }
+
+                int sq = choose(p[n - 1], o[n - 1], dim, ply < OPENING_PLIES || rand.nextDouble() < EXPLORE, rand);
+                b.refreshBoard(new Point(sq / dim, sq % dim), me);
+                ply++;
+            }
+
+            // Margin for dark: solved if the game stopped early, counted if it finished
+            int darkMargin;
+            if (b.isGameFinished()) {
+                darkMargin = b.getPlayerPeices(Color.DARK) - b.getPlayerPeices(Color.LIGHT);
+            } else {
+                solver.solve(b);
+                darkMargin = (b.whoseTurn() == Color.DARK) ? solver.getBestValue() : -solver.getBestValue();
+            }
+
+            for (int k = 0; k < n; k++) {
+                samples.add(p[k], o[k], dark[k] ? darkMargin : -darkMargin);
+            }
+
+            if ((g + 1) % 10000 == 0) {
+                System.out.println("Played " + (g + 1) + " games.");
+            }
+        }
+
+        if (samples.trainSize < 0) {
+            samples.trainSize = samples.size;
+        }
+
+        return samples;
+    }
+
+    /**
+     * Pick a move: at random, or the one leaving the opponent the fewest
+     * replies, with corners first
+     */
+    private static int choose(long p, long o, int dim, boolean random, Random rand) {
+
+        long moves = BitBoard.moves(p, o, dim);
+
+        if (random) {
+            int k = rand.nextInt(Long.bitCount(moves));
+            for (int i = 0; i < k; i++) {
+                moves &= moves - 1;
+            }
+            return Long.numberOfTrailingZeros(moves);
+        }
+
+        long corners = (1L << BitBoard.square(0, 0, dim)) | (1L << BitBoard.square(0, dim - 1, dim))
+                | (1L << BitBoard.square(dim - 1, 0, dim)) | (1L << BitBoard.square(dim - 1, dim - 1, dim));
+
+        int best = -1;
+        int bestKey = Integer.MAX_VALUE;
+
+        while (moves != 0) {
+            int sq = Long.numberOfTrailingZeros(moves);
+            moves &= moves - 1;
+            long flipped = BitBoard.flips(p, o, sq, dim);
+            long np = p | flipped | (1L << sq);
+            long no = o & ~flipped;
+            int key = Long.bitCount(BitBoard.moves(no, np, dim)) * 2
+                    + Long.bitCount(BitBoard.moves(no, np, dim) & corners) * 8
+                    - (((corners >>> sq) & 1) != 0 ? 16 : 0);
+            if (key < bestKey) {
+                bestKey = key;
+                best = sq;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Growable arrays of labelled positions
+     */
+    private static class Samples {
+
+        long[] p;
+        long[] o;
+        float[] label;
+        int size;
+        int trainSize;                                  // Positions before the held-out games
+
+        Samples(int capacity) {
+            p = new long[capacity];
+            o = new long[capacity];
+            label = new float[capacity];
+        }
+
+        void add(long pp, long oo, int margin) {
+            if (size == p.length) {
+                p = Arrays.copyOf(p, size * 2);
+                o = Arrays.copyOf(o, size * 2);
+                label = Arrays.copyOf(label, size * 2);
+            }
+            p[size] = pp;
+            o[size] = oo;
+            label[size] = margin;
+            size++;
+        }
+    }
+}